@@ -0,0 +1,52 @@
+package com.tours.benchmark;
+
+import com.tours.geo.KeyPointGeometry;
+import com.tours.model.KeyPoint;
+
+import java.util.List;
+
+/**
+ * Relativna greška aproksimacija dužine putanje u odnosu na haversine, za različite broje tačaka
+ * i razmake između njih. Dopuna GeoDistanceBenchmark-u: brzina bez tačnosti nije dovoljna za izbor.
+ *
+ * Pokretanje: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.tours.benchmark.GeoDistanceAccuracyReport
+ */
+public final class GeoDistanceAccuracyReport {
+
+    private static final int[] SIZES = {2, 10, 100, 1_000, 10_000};
+    private static final double[] STEPS_METERS = {50, 250, 1_000, 10_000, 100_000};
+    private static final int SAMPLES = 20;
+
+    private GeoDistanceAccuracyReport() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%8s %10s %22s %22s %22s%n",
+                "tačke", "korak (m)", "precomputed trig", "ekvirektangularna", "tetiva");
+        for (int size : SIZES) {
+            for (double step : STEPS_METERS) {
+                double maxTrig = 0;
+                double maxEquirectangular = 0;
+                double maxChord = 0;
+                for (int seed = 0; seed < SAMPLES; seed++) {
+                    List<KeyPoint> keyPoints = GeoPaths.randomWalk(size, step, seed);
+                    double[] latitudes = GeoPaths.latitudes(keyPoints);
+                    double[] longitudes = GeoPaths.longitudes(keyPoints);
+                    double[][] xyz = GeoPaths.unitVectors(latitudes, longitudes);
+
+                    double reference = GeoPaths.haversinePath(keyPoints);
+                    if (reference == 0) continue;
+                    maxTrig = Math.max(maxTrig, relativeError(KeyPointGeometry.of(keyPoints).pathLengthMeters(), reference));
+                    maxEquirectangular = Math.max(maxEquirectangular,
+                            relativeError(GeoPaths.equirectangularPath(latitudes, longitudes), reference));
+                    maxChord = Math.max(maxChord, relativeError(GeoPaths.chordPath(xyz[0], xyz[1], xyz[2]), reference));
+                }
+                System.out.printf("%8d %10.0f %22.3e %22.3e %22.3e%n", size, step, maxTrig, maxEquirectangular, maxChord);
+            }
+        }
+    }
+
+    private static double relativeError(double value, double reference) {
+        return Math.abs(value - reference) / reference;
+    }
+}
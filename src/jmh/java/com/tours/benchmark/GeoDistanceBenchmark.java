@@ -0,0 +1,143 @@
+package com.tours.benchmark;
+
+import com.tours.geo.GeoBatchKernels;
+import com.tours.geo.GeoMath;
+import com.tours.geo.KeyPointGeometry;
+import com.tours.model.KeyPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brzina varijanti proračuna udaljenosti nad turama od 2 do 10.000 ključnih tačaka.
+ * Dužina putanje: haversine nad listom entiteta (prvobitni calculateTotalDistance), KeyPointGeometry
+ * sa i bez izgradnje (sadašnji calculateTotalDistance), ekvirektangularna aproksimacija i tetiva.
+ * Provera blizine: haversine ka svakoj tački (prvobitni calculateDistance) naspram poređenja kvadrata tetive.
+ * Paketni proračuni (GeoBatchKernels) koriste Vector API kada je modul učitan; za poređenje sa
+ * skalarnom verzijom pokrenuti ponovo sa -Dtours.geo.vector.enabled=false (prosleđuje se i fork-ovima).
+ * Tačnost istih varijanti ispisuje GeoDistanceAccuracyReport.
+ *
+ * Pokretanje: mvn -Pbenchmark test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoDistanceBenchmark {
+
+    private static final double STEP_METERS = 250;
+    private static final double PROXIMITY_RADIUS_METERS = 300;
+
+    @Param({"2", "10", "100", "1000", "10000"})
+    public int keyPoints;
+
+    private List<KeyPoint> keyPointList;
+    private KeyPointGeometry geometry;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] x;
+    private double[] y;
+    private double[] z;
+
+    private double touristLatitude;
+    private double touristLongitude;
+    private double maxChordSquared;
+    private int[] positions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keyPointList = GeoPaths.randomWalk(keyPoints, STEP_METERS, 42);
+        geometry = KeyPointGeometry.of(keyPointList);
+        latitudes = GeoPaths.latitudes(keyPointList);
+        longitudes = GeoPaths.longitudes(keyPointList);
+        double[][] xyz = GeoPaths.unitVectors(latitudes, longitudes);
+        x = xyz[0];
+        y = xyz[1];
+        z = xyz[2];
+
+        // Turista stoji blizu sredine ture
+        KeyPoint middle = keyPointList.get(keyPoints / 2);
+        touristLatitude = middle.getLatitude() + 0.001;
+        touristLongitude = middle.getLongitude() + 0.001;
+        maxChordSquared = GeoMath.chordSquaredForDistance(PROXIMITY_RADIUS_METERS);
+        positions = new int[keyPoints];
+    }
+
+    @Benchmark
+    public double pathHaversineEntityList() {
+        return GeoPaths.haversinePath(keyPointList);
+    }
+
+    @Benchmark
+    public double pathKeyPointGeometryIncludingBuild() {
+        return KeyPointGeometry.of(keyPointList).pathLengthMeters();
+    }
+
+    @Benchmark
+    public double pathPrecomputedTrig() {
+        return geometry.pathLengthMeters();
+    }
+
+    // Dužina rute iz stepeni (StraightLineRoutingProvider i LocalRoutingProvider)
+    @Benchmark
+    public double pathRouteBatchKernel() {
+        return GeoBatchKernels.pathLengthMeters(latitudes, longitudes);
+    }
+
+    @Benchmark
+    public double pathEquirectangular() {
+        return GeoPaths.equirectangularPath(latitudes, longitudes);
+    }
+
+    @Benchmark
+    public double pathChord() {
+        return GeoPaths.chordPath(x, y, z);
+    }
+
+    @Benchmark
+    public int proximityHaversine() {
+        int within = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            if (GeoMath.distanceMeters(touristLatitude, touristLongitude, latitudes[i], longitudes[i]) <= PROXIMITY_RADIUS_METERS) {
+                within++;
+            }
+        }
+        return within;
+    }
+
+    @Benchmark
+    public int proximityChordSquared() {
+        double qx = KeyPointGeometry.unitX(touristLatitude, touristLongitude);
+        double qy = KeyPointGeometry.unitY(touristLatitude, touristLongitude);
+        double qz = KeyPointGeometry.unitZ(touristLatitude);
+        int within = 0;
+        for (int i = 0; i < geometry.size(); i++) {
+            if (geometry.isWithin(i, qx, qy, qz, maxChordSquared)) {
+                within++;
+            }
+        }
+        return within;
+    }
+
+    @Benchmark
+    public int proximityBatchKernel() {
+        double qx = KeyPointGeometry.unitX(touristLatitude, touristLongitude);
+        double qy = KeyPointGeometry.unitY(touristLatitude, touristLongitude);
+        double qz = KeyPointGeometry.unitZ(touristLatitude);
+        return GeoBatchKernels.collectWithin(qx, qy, qz, maxChordSquared, x, y, z, 0, keyPoints, positions, 0);
+    }
+}
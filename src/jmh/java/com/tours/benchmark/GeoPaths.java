@@ -0,0 +1,95 @@
+package com.tours.benchmark;
+
+import com.tours.geo.GeoMath;
+import com.tours.model.KeyPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generisanje ključnih tačaka za benchmark: nasumična šetnja oko Novog Sada sa zadatim korakom.
+ */
+final class GeoPaths {
+
+    static final double START_LATITUDE = 45.2671;
+    static final double START_LONGITUDE = 19.8335;
+
+    private GeoPaths() {
+    }
+
+    static List<KeyPoint> randomWalk(int size, double stepMeters, long seed) {
+        Random random = new Random(seed);
+        List<KeyPoint> keyPoints = new ArrayList<>(size);
+        double latitude = START_LATITUDE;
+        double longitude = START_LONGITUDE;
+        double bearing = random.nextDouble() * 2 * Math.PI;
+        for (int i = 0; i < size; i++) {
+            KeyPoint kp = new KeyPoint("Tačka " + i, "Benchmark", latitude, longitude, null, 1L);
+            kp.setId((long) i + 1);
+            keyPoints.add(kp);
+
+            bearing += (random.nextDouble() - 0.5) * Math.PI / 2;
+            double step = stepMeters * (0.5 + random.nextDouble());
+            latitude += step * Math.cos(bearing) / GeoMath.METERS_PER_DEGREE_LAT;
+            longitude += step * Math.sin(bearing) / (GeoMath.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(latitude)));
+        }
+        return keyPoints;
+    }
+
+    static double[] latitudes(List<KeyPoint> keyPoints) {
+        return keyPoints.stream().mapToDouble(KeyPoint::getLatitude).toArray();
+    }
+
+    static double[] longitudes(List<KeyPoint> keyPoints) {
+        return keyPoints.stream().mapToDouble(KeyPoint::getLongitude).toArray();
+    }
+
+    // Haversine po parovima preko liste entiteta, kao u prvobitnim calculateTotalDistance/calculateDistance
+    static double haversinePath(List<KeyPoint> keyPoints) {
+        double total = 0.0;
+        for (int i = 0; i < keyPoints.size() - 1; i++) {
+            KeyPoint a = keyPoints.get(i);
+            KeyPoint b = keyPoints.get(i + 1);
+            total += GeoMath.distanceMeters(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+        }
+        return total;
+    }
+
+    // Ekvirektangularna aproksimacija: ravan sa cos srednje geografske širine
+    static double equirectangularPath(double[] latitudes, double[] longitudes) {
+        double total = 0.0;
+        for (int i = 0; i < latitudes.length - 1; i++) {
+            double lat1 = Math.toRadians(latitudes[i]);
+            double lat2 = Math.toRadians(latitudes[i + 1]);
+            double x = Math.toRadians(longitudes[i + 1] - longitudes[i]) * Math.cos((lat1 + lat2) / 2);
+            double y = lat2 - lat1;
+            total += Math.sqrt(x * x + y * y);
+        }
+        return total * GeoMath.EARTH_RADIUS_METERS;
+    }
+
+    // Dužina tetive između susednih tačaka na sferi (bez asin korekcije; potcenjuje duge segmente)
+    static double chordPath(double[] x, double[] y, double[] z) {
+        double total = 0.0;
+        for (int i = 0; i < x.length - 1; i++) {
+            double dx = x[i + 1] - x[i];
+            double dy = y[i + 1] - y[i];
+            double dz = z[i + 1] - z[i];
+            total += Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+        return total * GeoMath.EARTH_RADIUS_METERS;
+    }
+
+    static double[][] unitVectors(double[] latitudes, double[] longitudes) {
+        double[][] xyz = new double[3][latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            double latRad = Math.toRadians(latitudes[i]);
+            double lonRad = Math.toRadians(longitudes[i]);
+            xyz[0][i] = Math.cos(latRad) * Math.cos(lonRad);
+            xyz[1][i] = Math.cos(latRad) * Math.sin(lonRad);
+            xyz[2][i] = Math.sin(latRad);
+        }
+        return xyz;
+    }
+}
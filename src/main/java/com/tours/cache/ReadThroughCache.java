@@ -0,0 +1,108 @@
+package com.tours.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Ograničen read-through keš (LRU po broju unosa i TTL po starosti unosa). Istovremeni promašaji
+ * za isti ključ dele jedno učitavanje: prvi pozivalac učitava, ostali čekaju njegov rezultat.
+ * Učitavanje započeto pre invalidacije istog ključa (ili invalidateAll) se ne upisuje u keš, pa ne
+ * može vratiti zastarelo stanje; invalidacija drugih ključeva ne utiče na njega.
+ */
+public class ReadThroughCache<K, V> {
+
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, Load<V>> inFlight = new ConcurrentHashMap<>();
+
+    public ReadThroughCache(int maxSize, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    // Loader se izvršava u niti prvog pozivaoca; izuzetak iz loader-a dobijaju svi koji čekaju taj ključ
+    public V get(K key, Function<K, V> loader) {
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+
+        Load<V> own = new Load<>();
+        Load<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            try {
+                return existing.future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+
+        try {
+            V value = loader.apply(key);
+            synchronized (this) {
+                if (!own.invalidated) {
+                    entries.put(key, new Entry<>(value, System.nanoTime()));
+                }
+            }
+            own.future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            own.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    // Učitavanje u toku za ovaj ključ se označava kao zastarelo; novi pozivaoci pokreću novo učitavanje
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        Load<V> load = inFlight.remove(key);
+        if (load != null) {
+            load.invalidated = true;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        for (Load<V> load : inFlight.values()) {
+            load.invalidated = true;
+        }
+        inFlight.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Jedno učitavanje ključa; invalidated se čita i menja samo pod monitorom keša
+    private static final class Load<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private boolean invalidated;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        private Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.tours.config;
+
+import com.tours.controller.TourExecutionStreamHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final TourExecutionStreamHandler tourExecutionStreamHandler;
+
+    public WebSocketConfig(TourExecutionStreamHandler tourExecutionStreamHandler) {
+        this.tourExecutionStreamHandler = tourExecutionStreamHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(tourExecutionStreamHandler, "/api/tours/tour-execution/stream")
+                .addInterceptors(tourExecutionStreamHandler.handshakeInterceptor())
+                .setAllowedOriginPatterns("*"); // CORS rešava Gateway
+    }
+}
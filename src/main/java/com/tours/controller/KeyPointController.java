@@ -7,6 +7,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,9 +32,10 @@ public class KeyPointController {
             Double latitude = Double.valueOf(request.get("latitude").toString());
             Double longitude = Double.valueOf(request.get("longitude").toString());
             String slikaUrl = (String) request.get("slikaUrl");
+            Double radiusMeters = request.get("radiusMeters") != null ? Double.valueOf(request.get("radiusMeters").toString()) : null;
             Long tourId = Long.valueOf(request.get("tourId").toString());
             
-            KeyPoint keyPoint = keyPointService.createKeyPoint(naziv, opis, latitude, longitude, slikaUrl, tourId, autorUsername);
+            KeyPoint keyPoint = keyPointService.createKeyPoint(naziv, opis, latitude, longitude, slikaUrl, radiusMeters, tourId, autorUsername);
             return ResponseEntity.status(HttpStatus.CREATED).body(keyPoint);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -41,6 +43,38 @@ public class KeyPointController {
         }
     }
     
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createKeyPointsBulk(@RequestBody Map<String, Object> request,
+                                                @RequestHeader("X-Username") String autorUsername) {
+        try {
+            Long tourId = Long.valueOf(request.get("tourId").toString());
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> items = (List<Map<String, Object>>) request.get("keyPoints");
+            if (items == null) {
+                throw new IllegalArgumentException("Nedostaje lista keyPoints");
+            }
+
+            List<KeyPoint> keyPoints = new ArrayList<>(items.size());
+            for (Map<String, Object> item : items) {
+                KeyPoint keyPoint = new KeyPoint(
+                        (String) item.get("naziv"),
+                        (String) item.get("opis"),
+                        Double.valueOf(item.get("latitude").toString()),
+                        Double.valueOf(item.get("longitude").toString()),
+                        (String) item.get("slikaUrl"),
+                        tourId);
+                keyPoint.setRadiusMeters(item.get("radiusMeters") != null ? Double.valueOf(item.get("radiusMeters").toString()) : null);
+                keyPoints.add(keyPoint);
+            }
+
+            List<KeyPoint> created = keyPointService.createKeyPoints(tourId, keyPoints, autorUsername);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Greška pri uvozu ključnih tačaka: " + e.getMessage()));
+        }
+    }
+    
     @GetMapping("/tour/{tourId}")
     public ResponseEntity<?> getKeyPointsByTour(@PathVariable Long tourId,
                                               @RequestHeader("X-Username") String autorUsername) {
@@ -81,8 +115,9 @@ public class KeyPointController {
             Double latitude = Double.valueOf(request.get("latitude").toString());
             Double longitude = Double.valueOf(request.get("longitude").toString());
             String slikaUrl = (String) request.get("slikaUrl");
+            Double radiusMeters = request.get("radiusMeters") != null ? Double.valueOf(request.get("radiusMeters").toString()) : null;
             
-            KeyPoint updatedKeyPoint = keyPointService.updateKeyPoint(id, naziv, opis, latitude, longitude, slikaUrl, autorUsername);
+            KeyPoint updatedKeyPoint = keyPointService.updateKeyPoint(id, naziv, opis, latitude, longitude, slikaUrl, radiusMeters, autorUsername);
             return ResponseEntity.ok(updatedKeyPoint);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
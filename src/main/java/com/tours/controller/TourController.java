@@ -1,17 +1,23 @@
 package com.tours.controller;
 
+import com.tours.dto.AuthorStats;
+import com.tours.dto.NearbyTour;
+import com.tours.dto.TourCatalogPage;
+import com.tours.dto.TourSearchResult;
 import com.tours.enums.Difficulty;
 import com.tours.enums.TourStatus;
 import com.tours.model.Tour;
 import com.tours.service.TourService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -118,6 +124,18 @@ public class TourController {
         }
     }
 
+    // Objavljena tura za turiste (ne zahteva da je korisnik autor)
+    @GetMapping("/published/{id}")
+    public ResponseEntity<?> getPublishedTourById(@PathVariable Long id) {
+        Optional<Tour> tour = tourService.getPublishedTourById(id);
+        if (tour.isPresent()) {
+            return ResponseEntity.ok(tour.get());
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Objavljena tura nije pronađena"));
+        }
+    }
+
     @GetMapping("/status/{status}")
     public ResponseEntity<?> getToursByStatus(@PathVariable String status) {
         String autorUsername = getCurrentUsername();
@@ -173,6 +191,27 @@ public class TourController {
         return ResponseEntity.ok(tours);
     }
 
+    // Više tagova odvojenih zarezom; match=all vraća ture sa svim tagovima, match=any sa bar jednim
+    @GetMapping("/tags")
+    public ResponseEntity<?> getToursByTags(@RequestParam String tags,
+                                            @RequestParam(defaultValue = "all") String match) {
+        String autorUsername = getCurrentUsername();
+        if (autorUsername == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Korisnik nije autentifikovan"));
+        }
+        if (!"all".equalsIgnoreCase(match) && !"any".equalsIgnoreCase(match)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Parametar match mora biti all ili any"));
+        }
+
+        try {
+            List<Tour> tours = tourService.getToursByTagsAndAuthor(tags, "all".equalsIgnoreCase(match), autorUsername);
+            return ResponseEntity.ok(tours);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateTour(@PathVariable Long id,
                                         @RequestParam String naziv,
@@ -232,21 +271,58 @@ public class TourController {
                     .body(Map.of("error", "Korisnik nije autentifikovan"));
         }
 
-        long totalTours = tourService.countToursByAuthor(autorUsername);
-        long draftTours = tourService.countToursByStatusAndAuthor(TourStatus.DRAFT, autorUsername);
-        long publishedTours = tourService.countToursByStatusAndAuthor(TourStatus.PUBLISHED, autorUsername);
-        long archivedTours = tourService.countToursByStatusAndAuthor(TourStatus.ARCHIVED, autorUsername);
+        AuthorStats authorStats = tourService.getAuthorStats(autorUsername);
 
         Map<String, Object> stats = Map.of(
-                "totalTours", totalTours,
-                "draftTours", draftTours,
-                "publishedTours", publishedTours,
-                "archivedTours", archivedTours
+                "totalTours", authorStats.getTotalTours(),
+                "draftTours", authorStats.getDraftTours(),
+                "publishedTours", authorStats.getPublishedTours(),
+                "archivedTours", authorStats.getArchivedTours(),
+                "keyPoints", authorStats.getKeyPoints()
         );
 
         return ResponseEntity.ok(stats);
     }
 
+    // Katalog objavljenih tura sa keyset paginacijom; kursor je (nextAfterVremeObjave, nextAfterId) iz prethodne strane
+    @GetMapping("/catalog")
+    public ResponseEntity<?> getCatalog(@RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterVremeObjave,
+                                        @RequestParam(required = false) Long afterId,
+                                        @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            TourCatalogPage page = tourService.getPublishedCatalogPage(afterVremeObjave, afterId, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Pretraga objavljenih tura po rečima iz naziva i opisa (bez obzira na dijakritike, sa prefiksima)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTours(@RequestParam String q,
+                                         @RequestParam(defaultValue = "20") Integer limit) {
+        try {
+            List<TourSearchResult> tours = tourService.searchPublishedTours(q, limit);
+            return ResponseEntity.ok(tours);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getToursNearby(@RequestParam Double latitude,
+                                            @RequestParam Double longitude,
+                                            @RequestParam(defaultValue = "10000") Double radius,
+                                            @RequestParam(defaultValue = "20") Integer limit) {
+        try {
+            List<NearbyTour> tours = tourService.getPublishedToursNear(latitude, longitude, radius, limit);
+            return ResponseEntity.ok(tours);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}/publish")
     public ResponseEntity<?> publishTour(@PathVariable Long id) {
         String autorUsername = getCurrentUsername();
@@ -1,6 +1,8 @@
 // com.tours.controller.TourExecutionController.java
 package com.tours.controller;
 
+import com.tours.dto.LocationBatchResult;
+import com.tours.dto.LocationFix;
 import com.tours.enums.TourExecutionStatus;
 import com.tours.model.TourExecution;
 import com.tours.service.TourExecutionService;
@@ -12,6 +14,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -99,6 +102,25 @@ public class TourExecutionController {
         }
     }
 
+    @PutMapping("/{executionId}/update-location/batch")
+    public ResponseEntity<?> updateLocationBatch(
+            @PathVariable Long executionId,
+            @RequestBody List<LocationFix> fixes) {
+        String touristUsername = getCurrentUsername();
+        if (touristUsername == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Korisnik nije autentifikovan."));
+        }
+
+        try {
+            LocationBatchResult result = tourExecutionService.updateTouristPositionBatch(executionId, touristUsername, fixes);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Greška pri obradi serije lokacija: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/{executionId}/complete")
     public ResponseEntity<?> completeTour(@PathVariable Long executionId) {
         String touristUsername = getCurrentUsername();
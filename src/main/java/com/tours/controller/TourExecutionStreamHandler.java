@@ -0,0 +1,225 @@
+package com.tours.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tours.dto.LocationFix;
+import com.tours.dto.TourExecutionEvent;
+import com.tours.service.ActiveTourExecutionRegistry;
+import com.tours.service.TourExecutionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trajni WebSocket kanal za aktivno izvršenje ture: {@code /api/tours/tour-execution/stream?executionId=...}.
+ * Korisnik se utvrđuje jednom pri handshake-u, klijent zatim šalje pozicije
+ * ({@code {"latitude":..,"longitude":..}} ili niz takvih objekata), a server šalje nazad
+ * događaje KEY_POINT_REACHED, TOUR_COMPLETED, TOUR_ABANDONED i ERROR samo kada se nešto desi.
+ * Događaji stižu iz {@link TourExecutionService} i reaper-a nakon commit-a, pa kanal vidi i
+ * završetak/napuštanje preko REST-a, serijskog endpoint-a i automatskog napuštanja.
+ */
+@Component
+public class TourExecutionStreamHandler extends TextWebSocketHandler {
+
+    private static final String USERNAME_ATTRIBUTE = "username";
+    private static final String EXECUTION_ID_ATTRIBUTE = "executionId";
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int BUFFER_SIZE_LIMIT_BYTES = 64 * 1024;
+
+    private final TourExecutionService tourExecutionService;
+    private final ActiveTourExecutionRegistry activeExecutions;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    public TourExecutionStreamHandler(TourExecutionService tourExecutionService,
+                                      ActiveTourExecutionRegistry activeExecutions,
+                                      ObjectMapper objectMapper) {
+        this.tourExecutionService = tourExecutionService;
+        this.activeExecutions = activeExecutions;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Long executionId = (Long) session.getAttributes().get(EXECUTION_ID_ATTRIBUTE);
+        String username = (String) session.getAttributes().get(USERNAME_ATTRIBUTE);
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, BUFFER_SIZE_LIMIT_BYTES);
+
+        // Postojeća konekcija se zamenjuje samo ako ju je otvorio isti korisnik
+        WebSocketSession[] replaced = new WebSocketSession[1];
+        WebSocketSession current = sessions.compute(executionId, (id, existing) -> {
+            if (existing != null && existing.isOpen()
+                    && !username.equals(existing.getAttributes().get(USERNAME_ATTRIBUTE))) {
+                return existing;
+            }
+            replaced[0] = existing;
+            return decorated;
+        });
+
+        if (current != decorated) {
+            closeQuietly(session, CloseStatus.POLICY_VIOLATION.withReason("Izvršenje već prati drugi korisnik."));
+            return;
+        }
+        if (replaced[0] != null && replaced[0].isOpen()) {
+            closeQuietly(replaced[0], CloseStatus.POLICY_VIOLATION.withReason("Otvorena je nova konekcija za ovo izvršenje."));
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Long executionId = (Long) session.getAttributes().get(EXECUTION_ID_ATTRIBUTE);
+        String touristUsername = (String) session.getAttributes().get(USERNAME_ATTRIBUTE);
+
+        List<LocationFix> fixes;
+        try {
+            fixes = parseFixes(objectMapper.readTree(message.getPayload()));
+        } catch (Exception e) {
+            publish(executionId, Map.of("type", "ERROR", "error", "Neispravna poruka: " + e.getMessage()));
+            return;
+        }
+
+        try {
+            // KEY_POINT_REACHED i TOUR_COMPLETED stižu preko onTourExecutionEvent nakon commit-a
+            tourExecutionService.updateTouristPositionBatch(executionId, touristUsername, fixes);
+        } catch (IllegalArgumentException e) {
+            publish(executionId, Map.of("type", "ERROR", "error", e.getMessage()));
+        } catch (IllegalStateException | SecurityException e) {
+            publish(executionId, Map.of("type", "ERROR", "error", e.getMessage()));
+            closeExecutionStream(executionId, CloseStatus.POLICY_VIOLATION);
+        } catch (Exception e) {
+            publish(executionId, Map.of("type", "ERROR", "error", "Greška pri ažuriranju lokacije: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Long executionId = (Long) session.getAttributes().get(EXECUTION_ID_ATTRIBUTE);
+        sessions.computeIfPresent(executionId, (id, current) -> current.getId().equals(session.getId()) ? null : current);
+    }
+
+    // Prosleđuje događaje servisa tek kada je promena upisana u bazu; van transakcije odmah
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourExecutionEvent(TourExecutionEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.getType().name());
+        payload.put("executionId", event.getExecutionId());
+        if (event.getKeyPointId() != null) {
+            payload.put("keyPointId", event.getKeyPointId());
+        }
+        publish(event.getExecutionId(), payload);
+        if (event.isTerminal()) {
+            closeExecutionStream(event.getExecutionId(), CloseStatus.NORMAL);
+        }
+    }
+
+    // Šalje događaj klijentu koji prati dato izvršenje (ako je povezan)
+    public void publish(Long executionId, Map<String, Object> event) {
+        WebSocketSession session = sessions.get(executionId);
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        try {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(event)));
+        } catch (IOException e) {
+            System.err.println("Greška pri slanju događaja za izvršenje " + executionId + ": " + e.getMessage());
+        }
+    }
+
+    public void closeExecutionStream(Long executionId, CloseStatus status) {
+        WebSocketSession session = sessions.remove(executionId);
+        if (session != null) {
+            closeQuietly(session, status);
+        }
+    }
+
+    public HandshakeInterceptor handshakeInterceptor() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                           WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                String username = request.getHeaders().getFirst("X-Username");
+                if ((username == null || username.isEmpty()) && request.getPrincipal() != null) {
+                    username = request.getPrincipal().getName();
+                }
+                if (username == null || username.isEmpty()) {
+                    response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                    return false;
+                }
+
+                String executionIdParam = UriComponentsBuilder.fromUri(request.getURI()).build()
+                        .getQueryParams().getFirst(EXECUTION_ID_ATTRIBUTE);
+                Long executionId;
+                try {
+                    executionId = Long.valueOf(executionIdParam);
+                } catch (NumberFormatException e) {
+                    response.setStatusCode(HttpStatus.BAD_REQUEST);
+                    return false;
+                }
+
+                // Kanal se otvara samo za aktivno izvršenje koje pripada pozivaocu
+                String caller = username;
+                boolean owned = activeExecutions.findById(executionId)
+                        .map(execution -> caller.equals(execution.getTouristUsername()))
+                        .orElse(false);
+                if (!owned) {
+                    response.setStatusCode(HttpStatus.FORBIDDEN);
+                    return false;
+                }
+
+                attributes.put(EXECUTION_ID_ATTRIBUTE, executionId);
+                attributes.put(USERNAME_ATTRIBUTE, username);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    private List<LocationFix> parseFixes(JsonNode node) {
+        List<LocationFix> fixes = new ArrayList<>();
+        if (node.isArray()) {
+            node.forEach(item -> fixes.add(parseFix(item)));
+        } else {
+            fixes.add(parseFix(node));
+        }
+        return fixes;
+    }
+
+    private LocationFix parseFix(JsonNode node) {
+        if (!node.hasNonNull("latitude") || !node.hasNonNull("longitude")) {
+            throw new IllegalArgumentException("Pozicija mora imati latitude i longitude.");
+        }
+        LocalDateTime timestamp = node.hasNonNull("timestamp")
+                ? LocalDateTime.parse(node.get("timestamp").asText())
+                : LocalDateTime.now();
+        return new LocationFix(node.get("latitude").asDouble(), node.get("longitude").asDouble(), timestamp);
+    }
+
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.tours.controller;
 
+import com.tours.dto.NearbyTourist;
 import com.tours.model.TouristLocation;
 import com.tours.service.TouristLocationService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/tours/tourist-location")
 public class TouristLocationController {
@@ -36,4 +40,29 @@ public class TouristLocationController {
         }
         return ResponseEntity.notFound().build();
     }
-}
\ No newline at end of file
+
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyTourists(@RequestParam Double latitude,
+                                               @RequestParam Double longitude,
+                                               @RequestParam Double radius,
+                                               @RequestParam(defaultValue = "100") Integer limit) {
+        try {
+            List<NearbyTourist> tourists = touristLocationService.findTouristsWithinRadius(latitude, longitude, radius, limit);
+            return ResponseEntity.ok(tourists);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/nearest")
+    public ResponseEntity<?> getNearestTourists(@RequestParam Double latitude,
+                                                @RequestParam Double longitude,
+                                                @RequestParam(defaultValue = "10") Integer k) {
+        try {
+            List<NearbyTourist> tourists = touristLocationService.findNearestTourists(latitude, longitude, k);
+            return ResponseEntity.ok(tourists);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
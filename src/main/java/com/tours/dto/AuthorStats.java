@@ -0,0 +1,34 @@
+package com.tours.dto;
+
+// Broj tura autora po statusu i ukupan broj ključnih tačaka u njegovim turama
+public class AuthorStats {
+    private long draftTours;
+    private long publishedTours;
+    private long archivedTours;
+    private long keyPoints;
+
+    // Konstruktori
+    public AuthorStats() {}
+
+    public AuthorStats(long draftTours, long publishedTours, long archivedTours, long keyPoints) {
+        this.draftTours = draftTours;
+        this.publishedTours = publishedTours;
+        this.archivedTours = archivedTours;
+        this.keyPoints = keyPoints;
+    }
+
+    public long getTotalTours() { return draftTours + publishedTours + archivedTours; }
+
+    // Getteri i Setteri
+    public long getDraftTours() { return draftTours; }
+    public void setDraftTours(long draftTours) { this.draftTours = draftTours; }
+
+    public long getPublishedTours() { return publishedTours; }
+    public void setPublishedTours(long publishedTours) { this.publishedTours = publishedTours; }
+
+    public long getArchivedTours() { return archivedTours; }
+    public void setArchivedTours(long archivedTours) { this.archivedTours = archivedTours; }
+
+    public long getKeyPoints() { return keyPoints; }
+    public void setKeyPoints(long keyPoints) { this.keyPoints = keyPoints; }
+}
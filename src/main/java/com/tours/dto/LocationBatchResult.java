@@ -0,0 +1,35 @@
+package com.tours.dto;
+
+import com.tours.model.TourExecution;
+
+import java.util.List;
+
+public class LocationBatchResult {
+    private TourExecution execution;
+    private List<Long> completedKeyPoints; // Ključne tačke dostignute tokom ove serije lokacija
+    private int processedFixes;
+    private int suppressedFixes; // Pozicije odbačene zbog mrtve zone (turista se nije pomerio)
+
+    // Konstruktori
+    public LocationBatchResult() {}
+
+    public LocationBatchResult(TourExecution execution, List<Long> completedKeyPoints, int processedFixes, int suppressedFixes) {
+        this.execution = execution;
+        this.completedKeyPoints = completedKeyPoints;
+        this.processedFixes = processedFixes;
+        this.suppressedFixes = suppressedFixes;
+    }
+
+    // Getteri i Setteri
+    public TourExecution getExecution() { return execution; }
+    public void setExecution(TourExecution execution) { this.execution = execution; }
+
+    public List<Long> getCompletedKeyPoints() { return completedKeyPoints; }
+    public void setCompletedKeyPoints(List<Long> completedKeyPoints) { this.completedKeyPoints = completedKeyPoints; }
+
+    public int getProcessedFixes() { return processedFixes; }
+    public void setProcessedFixes(int processedFixes) { this.processedFixes = processedFixes; }
+
+    public int getSuppressedFixes() { return suppressedFixes; }
+    public void setSuppressedFixes(int suppressedFixes) { this.suppressedFixes = suppressedFixes; }
+}
@@ -0,0 +1,28 @@
+package com.tours.dto;
+
+import java.time.LocalDateTime;
+
+public class LocationFix {
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime timestamp; // Vreme kada je uređaj zabeležio poziciju
+
+    // Konstruktori
+    public LocationFix() {}
+
+    public LocationFix(Double latitude, Double longitude, LocalDateTime timestamp) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timestamp = timestamp;
+    }
+
+    // Getteri i Setteri
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,23 @@
+package com.tours.dto;
+
+import com.tours.model.Tour;
+
+public class NearbyTour {
+    private Tour tour;
+    private Double distanceMeters; // Udaljenost početne ključne tačke od upitne tačke
+
+    // Konstruktori
+    public NearbyTour() {}
+
+    public NearbyTour(Tour tour, Double distanceMeters) {
+        this.tour = tour;
+        this.distanceMeters = distanceMeters;
+    }
+
+    // Getteri i Setteri
+    public Tour getTour() { return tour; }
+    public void setTour(Tour tour) { this.tour = tour; }
+
+    public Double getDistanceMeters() { return distanceMeters; }
+    public void setDistanceMeters(Double distanceMeters) { this.distanceMeters = distanceMeters; }
+}
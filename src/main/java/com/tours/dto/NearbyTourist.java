@@ -0,0 +1,31 @@
+package com.tours.dto;
+
+public class NearbyTourist {
+    private String username;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceMeters; // Udaljenost od upitne tačke
+
+    // Konstruktori
+    public NearbyTourist() {}
+
+    public NearbyTourist(String username, Double latitude, Double longitude, Double distanceMeters) {
+        this.username = username;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distanceMeters = distanceMeters;
+    }
+
+    // Getteri i Setteri
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public Double getDistanceMeters() { return distanceMeters; }
+    public void setDistanceMeters(Double distanceMeters) { this.distanceMeters = distanceMeters; }
+}
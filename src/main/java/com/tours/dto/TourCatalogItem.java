@@ -0,0 +1,66 @@
+package com.tours.dto;
+
+import com.tours.enums.Difficulty;
+import com.tours.enums.Prevoz;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Skraćeni prikaz objavljene ture za katalog (bez opisa i ostalih polja entiteta)
+public class TourCatalogItem {
+    private Long id;
+    private String naziv;
+    private String tagovi;
+    private Difficulty tezina;
+    private BigDecimal cijena;
+    private String autorUsername;
+    private Double duzina;
+    private LocalDateTime vremeObjave;
+    private Map<Prevoz, Integer> prevozi = new HashMap<>();
+
+    // Konstruktori
+    public TourCatalogItem() {}
+
+    // Koristi ga JPQL projekcija u TourRepository; prevozi se dopunjuju posebnim upitom
+    public TourCatalogItem(Long id, String naziv, String tagovi, Difficulty tezina, BigDecimal cijena,
+                           String autorUsername, Double duzina, LocalDateTime vremeObjave) {
+        this.id = id;
+        this.naziv = naziv;
+        this.tagovi = tagovi;
+        this.tezina = tezina;
+        this.cijena = cijena;
+        this.autorUsername = autorUsername;
+        this.duzina = duzina;
+        this.vremeObjave = vremeObjave;
+    }
+
+    // Getteri i Setteri
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getNaziv() { return naziv; }
+    public void setNaziv(String naziv) { this.naziv = naziv; }
+
+    public String getTagovi() { return tagovi; }
+    public void setTagovi(String tagovi) { this.tagovi = tagovi; }
+
+    public Difficulty getTezina() { return tezina; }
+    public void setTezina(Difficulty tezina) { this.tezina = tezina; }
+
+    public BigDecimal getCijena() { return cijena; }
+    public void setCijena(BigDecimal cijena) { this.cijena = cijena; }
+
+    public String getAutorUsername() { return autorUsername; }
+    public void setAutorUsername(String autorUsername) { this.autorUsername = autorUsername; }
+
+    public Double getDuzina() { return duzina; }
+    public void setDuzina(Double duzina) { this.duzina = duzina; }
+
+    public LocalDateTime getVremeObjave() { return vremeObjave; }
+    public void setVremeObjave(LocalDateTime vremeObjave) { this.vremeObjave = vremeObjave; }
+
+    public Map<Prevoz, Integer> getPrevozi() { return prevozi; }
+    public void setPrevozi(Map<Prevoz, Integer> prevozi) { this.prevozi = prevozi; }
+}
@@ -0,0 +1,36 @@
+package com.tours.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Jedna strana kataloga; nextAfterVremeObjave/nextAfterId se šalju kao kursor za sledeću stranu
+public class TourCatalogPage {
+    private List<TourCatalogItem> items;
+    private boolean hasMore;
+    private LocalDateTime nextAfterVremeObjave;
+    private Long nextAfterId;
+
+    // Konstruktori
+    public TourCatalogPage() {}
+
+    public TourCatalogPage(List<TourCatalogItem> items, boolean hasMore,
+                           LocalDateTime nextAfterVremeObjave, Long nextAfterId) {
+        this.items = items;
+        this.hasMore = hasMore;
+        this.nextAfterVremeObjave = nextAfterVremeObjave;
+        this.nextAfterId = nextAfterId;
+    }
+
+    // Getteri i Setteri
+    public List<TourCatalogItem> getItems() { return items; }
+    public void setItems(List<TourCatalogItem> items) { this.items = items; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public LocalDateTime getNextAfterVremeObjave() { return nextAfterVremeObjave; }
+    public void setNextAfterVremeObjave(LocalDateTime nextAfterVremeObjave) { this.nextAfterVremeObjave = nextAfterVremeObjave; }
+
+    public Long getNextAfterId() { return nextAfterId; }
+    public void setNextAfterId(Long nextAfterId) { this.nextAfterId = nextAfterId; }
+}
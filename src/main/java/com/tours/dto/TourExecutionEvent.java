@@ -0,0 +1,33 @@
+package com.tours.dto;
+
+import com.tours.enums.TourExecutionEventType;
+
+// Događaj izvršenja ture koji se nakon commit-a prosleđuje otvorenom WebSocket kanalu
+public class TourExecutionEvent {
+    private final TourExecutionEventType type;
+    private final Long executionId;
+    private final Long keyPointId; // Samo za KEY_POINT_REACHED
+
+    public TourExecutionEvent(TourExecutionEventType type, Long executionId, Long keyPointId) {
+        this.type = type;
+        this.executionId = executionId;
+        this.keyPointId = keyPointId;
+    }
+
+    public static TourExecutionEvent keyPointReached(Long executionId, Long keyPointId) {
+        return new TourExecutionEvent(TourExecutionEventType.KEY_POINT_REACHED, executionId, keyPointId);
+    }
+
+    public static TourExecutionEvent finished(TourExecutionEventType type, Long executionId) {
+        return new TourExecutionEvent(type, executionId, null);
+    }
+
+    // Getteri
+    public TourExecutionEventType getType() { return type; }
+
+    public Long getExecutionId() { return executionId; }
+
+    public Long getKeyPointId() { return keyPointId; }
+
+    public boolean isTerminal() { return type != TourExecutionEventType.KEY_POINT_REACHED; }
+}
@@ -0,0 +1,23 @@
+package com.tours.dto;
+
+import com.tours.model.Tour;
+
+public class TourSearchResult {
+    private Tour tour;
+    private Double score; // BM25 relevantnost ture za upit
+
+    // Konstruktori
+    public TourSearchResult() {}
+
+    public TourSearchResult(Tour tour, Double score) {
+        this.tour = tour;
+        this.score = score;
+    }
+
+    // Getteri i Setteri
+    public Tour getTour() { return tour; }
+    public void setTour(Tour tour) { this.tour = tour; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+}
@@ -0,0 +1,7 @@
+package com.tours.enums;
+
+public enum GeofenceEventType {
+    ENTER,
+    EXIT,
+    DWELL
+}
@@ -0,0 +1,7 @@
+package com.tours.enums;
+
+public enum TourExecutionEventType {
+    KEY_POINT_REACHED,
+    TOUR_COMPLETED,
+    TOUR_ABANDONED
+}
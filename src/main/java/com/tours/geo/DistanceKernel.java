@@ -0,0 +1,15 @@
+package com.tours.geo;
+
+/**
+ * Paketni proračuni udaljenosti nad nizovima koordinata (structure-of-arrays).
+ * Sve udaljenosti su na jediničnoj sferi; množenje poluprečnikom Zemlje radi GeoBatchKernels.
+ */
+interface DistanceKernel {
+
+    // Upisuje u out pozicije iz [from, to) čiji je kvadrat tetive do (qx, qy, qz) najviše maxChordSquared
+    int collectWithin(double qx, double qy, double qz, double maxChordSquared,
+                      double[] x, double[] y, double[] z, int from, int to, int[] out, int count);
+
+    // Zbir ugaonih udaljenosti između uzastopnih tačaka
+    double pathAngle(double[] x, double[] y, double[] z, int count);
+}
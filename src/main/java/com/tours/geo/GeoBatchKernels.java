@@ -0,0 +1,54 @@
+package com.tours.geo;
+
+/**
+ * Paketni proračuni udaljenosti: provera blizine jedne tačke naspram niza tačaka i dužina putanje.
+ * Ako je modul jdk.incubator.vector dostupan koristi se SIMD implementacija, inače skalarna;
+ * isključuje se sa -Dtours.geo.vector.enabled=false.
+ */
+public final class GeoBatchKernels {
+
+    private static final DistanceKernel KERNEL = selectKernel();
+
+    private GeoBatchKernels() {
+    }
+
+    // Pozicije iz [from, to) unutar zadatog kvadrata tetive, upisane u out od indeksa count; vraća novi count
+    public static int collectWithin(double qx, double qy, double qz, double maxChordSquared,
+                                    double[] x, double[] y, double[] z, int from, int to, int[] out, int count) {
+        return KERNEL.collectWithin(qx, qy, qz, maxChordSquared, x, y, z, from, to, out, count);
+    }
+
+    // Dužina putanje u metrima kroz tačke zadate koordinatama na jediničnoj sferi
+    public static double pathLengthMeters(double[] x, double[] y, double[] z, int count) {
+        return KERNEL.pathAngle(x, y, z, count) * GeoMath.EARTH_RADIUS_METERS;
+    }
+
+    // Dužina putanje u metrima kroz tačke zadate u stepenima (npr. rute za RoutingProvider)
+    public static double pathLengthMeters(double[] latitudes, double[] longitudes) {
+        int count = latitudes.length;
+        double[] x = new double[count];
+        double[] y = new double[count];
+        double[] z = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = KeyPointGeometry.unitX(latitudes[i], longitudes[i]);
+            y[i] = KeyPointGeometry.unitY(latitudes[i], longitudes[i]);
+            z[i] = KeyPointGeometry.unitZ(latitudes[i]);
+        }
+        return pathLengthMeters(x, y, z, count);
+    }
+
+    private static DistanceKernel selectKernel() {
+        if (!Boolean.parseBoolean(System.getProperty("tours.geo.vector.enabled", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new ScalarDistanceKernel();
+        }
+        try {
+            // Preko refleksije, da se klase iz inkubator modula ne povezuju kada modul nije učitan
+            return (DistanceKernel) Class.forName("com.tours.geo.VectorDistanceKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Vector API nije dostupan, koristi se skalarni proračun udaljenosti: " + e.getMessage());
+            return new ScalarDistanceKernel();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.tours.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe grid pokretnih tačaka (npr. turista ili početaka tura) po ćelijama fiksne veličine u stepenima.
+ * Upiti u krugu i k najbližih obilaze samo ćelije oko upitne tačke.
+ */
+public class GeoGrid<K> {
+
+    private final double cellSizeDegrees;
+    private final Map<K, Entry<K>> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<K>> cells = new ConcurrentHashMap<>();
+
+    public GeoGrid(double cellSizeDegrees) {
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    public void put(K key, double latitude, double longitude) {
+        long newCell = cellKey(cell(latitude), cell(longitude));
+        // compute serijalizuje izmene istog ključa, pa članstvo u ćelijama ostaje usklađeno
+        entries.compute(key, (k, old) -> {
+            if (old == null || old.cellKey != newCell) {
+                if (old != null) {
+                    removeFromCell(old.cellKey, k);
+                }
+                cells.compute(newCell, (c, members) -> {
+                    Set<K> set = members != null ? members : ConcurrentHashMap.newKeySet();
+                    set.add(k);
+                    return set;
+                });
+            }
+            return new Entry<>(k, latitude, longitude, newCell);
+        });
+    }
+
+    public void remove(K key) {
+        entries.computeIfPresent(key, (k, old) -> {
+            removeFromCell(old.cellKey, k);
+            return null;
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Sve tačke u krugu, sortirane po udaljenosti; limit <= 0 znači bez ograničenja
+    public List<Neighbor<K>> withinRadius(double latitude, double longitude, double radiusMeters, int limit) {
+        int latSpan = (int) Math.ceil(radiusMeters / GeoMath.METERS_PER_DEGREE_LAT / cellSizeDegrees);
+        double cosLat = Math.max(Math.cos(Math.toRadians(Math.min(Math.abs(latitude) + latSpan * cellSizeDegrees, 89.0))), 0.01);
+        int lonSpan = (int) Math.ceil(radiusMeters / (GeoMath.METERS_PER_DEGREE_LAT * cosLat) / cellSizeDegrees);
+        int latCell = cell(latitude);
+        int lonCell = cell(longitude);
+
+        List<Neighbor<K>> result = new ArrayList<>();
+        for (int i = latCell - latSpan; i <= latCell + latSpan; i++) {
+            for (int j = lonCell - lonSpan; j <= lonCell + lonSpan; j++) {
+                Set<K> members = cells.get(cellKey(i, j));
+                if (members == null) continue;
+                for (K key : members) {
+                    Entry<K> entry = entries.get(key);
+                    if (entry == null) continue;
+                    double distance = GeoMath.distanceMeters(latitude, longitude, entry.latitude, entry.longitude);
+                    if (distance <= radiusMeters) {
+                        result.add(new Neighbor<>(key, entry.latitude, entry.longitude, distance));
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(Neighbor::getDistanceMeters));
+        return limit > 0 && result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    // k najbližih tačaka, pretraga se širi u prstenovima ćelija do najviše maxRadiusMeters
+    public List<Neighbor<K>> nearest(double latitude, double longitude, int k, double maxRadiusMeters) {
+        PriorityQueue<Neighbor<K>> best = new PriorityQueue<>(
+                Comparator.comparingDouble((Neighbor<K> n) -> n.getDistanceMeters()).reversed());
+        if (k <= 0 || entries.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int latCell = cell(latitude);
+        int lonCell = cell(longitude);
+        int maxRing = (int) Math.ceil(maxRadiusMeters / GeoMath.METERS_PER_DEGREE_LAT / cellSizeDegrees);
+        double cosLat = Math.max(Math.cos(Math.toRadians(Math.min(Math.abs(latitude) + maxRing * cellSizeDegrees, 89.0))), 0.01);
+        int maxLonRing = (int) Math.ceil(maxRadiusMeters / (GeoMath.METERS_PER_DEGREE_LAT * cosLat) / cellSizeDegrees);
+        // Najmanja širina ćelije u metrima u pretraživanoj oblasti (geografska dužina se sužava ka polovima)
+        double minCellWidthMeters = cellSizeDegrees * GeoMath.METERS_PER_DEGREE_LAT * cosLat;
+
+        for (int ring = 0; ring <= Math.max(maxRing, maxLonRing); ring++) {
+            // Obilazi se samo obod prstena: gornji i donji red, pa leva i desna kolona bez uglova
+            if (ring == 0) {
+                collectNearest(latCell, lonCell, latitude, longitude, k, maxRadiusMeters, best);
+            } else {
+                for (int j = lonCell - ring; j <= lonCell + ring; j++) {
+                    collectNearest(latCell - ring, j, latitude, longitude, k, maxRadiusMeters, best);
+                    collectNearest(latCell + ring, j, latitude, longitude, k, maxRadiusMeters, best);
+                }
+                for (int i = latCell - ring + 1; i <= latCell + ring - 1; i++) {
+                    collectNearest(i, lonCell - ring, latitude, longitude, k, maxRadiusMeters, best);
+                    collectNearest(i, lonCell + ring, latitude, longitude, k, maxRadiusMeters, best);
+                }
+            }
+            // Sve neobiđene ćelije su dalje od ring * minCellWidthMeters
+            if (best.size() == k && best.peek().getDistanceMeters() <= ring * minCellWidthMeters) {
+                break;
+            }
+        }
+
+        List<Neighbor<K>> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::getDistanceMeters));
+        return result;
+    }
+
+    // Dodaje tačke jedne ćelije u max-heap k najboljih
+    private void collectNearest(int latCell, int lonCell, double latitude, double longitude,
+                                int k, double maxRadiusMeters, PriorityQueue<Neighbor<K>> best) {
+        Set<K> members = cells.get(cellKey(latCell, lonCell));
+        if (members == null) return;
+        for (K key : members) {
+            Entry<K> entry = entries.get(key);
+            if (entry == null) continue;
+            double distance = GeoMath.distanceMeters(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance > maxRadiusMeters) continue;
+            if (best.size() < k) {
+                best.add(new Neighbor<>(key, entry.latitude, entry.longitude, distance));
+            } else if (distance < best.peek().getDistanceMeters()) {
+                best.poll();
+                best.add(new Neighbor<>(key, entry.latitude, entry.longitude, distance));
+            }
+        }
+    }
+
+    private void removeFromCell(long cellKey, K key) {
+        cells.computeIfPresent(cellKey, (c, members) -> {
+            members.remove(key);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private int cell(double degrees) {
+        return (int) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final double latitude;
+        private final double longitude;
+        private final long cellKey;
+
+        private Entry(K key, double latitude, double longitude, long cellKey) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cellKey = cellKey;
+        }
+    }
+
+    public static final class Neighbor<K> {
+        private final K key;
+        private final double latitude;
+        private final double longitude;
+        private final double distanceMeters;
+
+        public Neighbor(K key, double latitude, double longitude, double distanceMeters) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceMeters = distanceMeters;
+        }
+
+        public K getKey() { return key; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public double getDistanceMeters() { return distanceMeters; }
+    }
+}
@@ -0,0 +1,37 @@
+package com.tours.geo;
+
+/**
+ * Zajedničke geodetske formule. Zemlja se posmatra kao sfera poluprečnika 6371 km.
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    public static final double METERS_PER_DEGREE_LAT = 111_320.0;
+
+    private GeoMath() {
+    }
+
+    // Haversine formula, rezultat u metrima
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_METERS * c;
+    }
+
+    // Kvadrat dužine tetive jedinične sfere koja odgovara luku od datog broja metara
+    public static double chordSquaredForDistance(double meters) {
+        double angle = Math.min(meters / EARTH_RADIUS_METERS, Math.PI);
+        double chord = 2 * Math.sin(angle / 2);
+        return chord * chord;
+    }
+
+    // Dužina luka u metrima za dati kvadrat tetive jedinične sfere
+    public static double distanceForChordSquared(double chordSquared) {
+        double halfChord = Math.min(Math.sqrt(chordSquared) / 2, 1.0);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(halfChord);
+    }
+}
@@ -0,0 +1,149 @@
+package com.tours.geo;
+
+import com.tours.model.KeyPoint;
+
+import java.util.List;
+
+/**
+ * Kompaktna, nepromenljiva geometrija ključnih tačaka jedne ture u primitivnim nizovima.
+ * Za svaku tačku se jednom izračunaju radijani, cos(lat) i koordinate na jediničnoj sferi,
+ * pa se provera blizine svodi na poređenje kvadrata tetiva bez trigonometrije i boxing-a.
+ * Redosled tačaka (ordinal) je isti kao u listi iz koje je geometrija napravljena.
+ */
+public final class KeyPointGeometry {
+
+    private final long[] ids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] latRadians;
+    private final double[] lonRadians;
+    private final double[] cosLat;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+    private final double[] radiusMeters;
+
+    private KeyPointGeometry(int size) {
+        ids = new long[size];
+        latitudes = new double[size];
+        longitudes = new double[size];
+        latRadians = new double[size];
+        lonRadians = new double[size];
+        cosLat = new double[size];
+        x = new double[size];
+        y = new double[size];
+        z = new double[size];
+        radiusMeters = new double[size];
+    }
+
+    public static KeyPointGeometry of(List<KeyPoint> keyPoints) {
+        KeyPointGeometry geometry = new KeyPointGeometry(keyPoints.size());
+        for (int i = 0; i < keyPoints.size(); i++) {
+            KeyPoint kp = keyPoints.get(i);
+            double lat = kp.getLatitude();
+            double lon = kp.getLongitude();
+            double latRad = Math.toRadians(lat);
+            double lonRad = Math.toRadians(lon);
+            double cos = Math.cos(latRad);
+
+            geometry.ids[i] = kp.getId() != null ? kp.getId() : -1L;
+            geometry.latitudes[i] = lat;
+            geometry.longitudes[i] = lon;
+            geometry.latRadians[i] = latRad;
+            geometry.lonRadians[i] = lonRad;
+            geometry.cosLat[i] = cos;
+            geometry.x[i] = cos * Math.cos(lonRad);
+            geometry.y[i] = cos * Math.sin(lonRad);
+            geometry.z[i] = Math.sin(latRad);
+            geometry.radiusMeters[i] = kp.getRadiusMeters() != null ? kp.getRadiusMeters() : Double.NaN;
+        }
+        return geometry;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long id(int ordinal) {
+        return ids[ordinal];
+    }
+
+    // Ordinal tačke sa datim ID-em ili -1 ako je nema
+    public int ordinalOf(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public double latitude(int ordinal) {
+        return latitudes[ordinal];
+    }
+
+    public double longitude(int ordinal) {
+        return longitudes[ordinal];
+    }
+
+    public double cosLat(int ordinal) {
+        return cosLat[ordinal];
+    }
+
+    // Poluprečnik postavljen na samoj ključnoj tački ili NaN ako nije zadat
+    public double radiusMeters(int ordinal) {
+        return radiusMeters[ordinal];
+    }
+
+    // Kvadrat tetive između tačke i upitne tačke zadate koordinatama na jediničnoj sferi
+    public double chordSquared(int ordinal, double qx, double qy, double qz) {
+        double dx = x[ordinal] - qx;
+        double dy = y[ordinal] - qy;
+        double dz = z[ordinal] - qz;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public boolean isWithin(int ordinal, double qx, double qy, double qz, double maxChordSquared) {
+        return chordSquared(ordinal, qx, qy, qz) <= maxChordSquared;
+    }
+
+    // Udaljenost između dve tačke iste ture (haversine nad unapred izračunatim vrednostima)
+    public double distanceMeters(int from, int to) {
+        double dLat = latRadians[to] - latRadians[from];
+        double dLon = lonRadians[to] - lonRadians[from];
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat + cosLat[from] * cosLat[to] * sinLon * sinLon;
+        return 2 * GeoMath.EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    // Ukupna dužina putanje kroz tačke redom kojim su zadate
+    public double pathLengthMeters() {
+        return GeoBatchKernels.pathLengthMeters(x, y, z, ids.length);
+    }
+
+    // Koordinate na jediničnoj sferi za paketne proračune u GeoBatchKernels (ne menjati sadržaj)
+    double[] xs() {
+        return x;
+    }
+
+    double[] ys() {
+        return y;
+    }
+
+    double[] zs() {
+        return z;
+    }
+
+    public static double unitX(double latitude, double longitude) {
+        return Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(longitude));
+    }
+
+    public static double unitY(double latitude, double longitude) {
+        return Math.cos(Math.toRadians(latitude)) * Math.sin(Math.toRadians(longitude));
+    }
+
+    public static double unitZ(double latitude) {
+        return Math.sin(Math.toRadians(latitude));
+    }
+}
@@ -0,0 +1,49 @@
+package com.tours.geo;
+
+/**
+ * Skalarna implementacija, koristi se kada modul jdk.incubator.vector nije učitan.
+ * Ugao se računa iz tetive (2 * asin(c / 2)), što je ista veličina kao haversine.
+ */
+final class ScalarDistanceKernel implements DistanceKernel {
+
+    @Override
+    public int collectWithin(double qx, double qy, double qz, double maxChordSquared,
+                             double[] x, double[] y, double[] z, int from, int to, int[] out, int count) {
+        return collect(qx, qy, qz, maxChordSquared, x, y, z, from, to, out, count);
+    }
+
+    @Override
+    public double pathAngle(double[] x, double[] y, double[] z, int count) {
+        return pathAngle(x, y, z, 0, count);
+    }
+
+    // Pomoćne metode sa početnim indeksom dele se sa vektorskom implementacijom za ostatak niza
+
+    static int collect(double qx, double qy, double qz, double maxChordSquared,
+                       double[] x, double[] y, double[] z, int from, int to, int[] out, int count) {
+        for (int i = from; i < to; i++) {
+            double dx = x[i] - qx;
+            double dy = y[i] - qy;
+            double dz = z[i] - qz;
+            if (dx * dx + dy * dy + dz * dz <= maxChordSquared) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    static double pathAngle(double[] x, double[] y, double[] z, int from, int count) {
+        double total = 0.0;
+        for (int i = from; i < count - 1; i++) {
+            double dx = x[i + 1] - x[i];
+            double dy = y[i + 1] - y[i];
+            double dz = z[i + 1] - z[i];
+            total += angleForChordSquared(dx * dx + dy * dy + dz * dz);
+        }
+        return total;
+    }
+
+    static double angleForChordSquared(double chordSquared) {
+        return 2 * Math.asin(Math.min(Math.sqrt(chordSquared) * 0.5, 1.0));
+    }
+}
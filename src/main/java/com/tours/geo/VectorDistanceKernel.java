@@ -0,0 +1,57 @@
+package com.tours.geo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementacija nad jdk.incubator.vector API-jem. Klasa se učitava samo preko GeoBatchKernels
+ * i samo ako je modul dodat JVM-u (--add-modules jdk.incubator.vector); ostatak niza koji ne
+ * popunjava ceo vektor obrađuje skalarni kod.
+ */
+final class VectorDistanceKernel implements DistanceKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public int collectWithin(double qx, double qy, double qz, double maxChordSquared,
+                             double[] x, double[] y, double[] z, int from, int to, int[] out, int count) {
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, x, i).sub(qx);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, y, i).sub(qy);
+            DoubleVector dz = DoubleVector.fromArray(SPECIES, z, i).sub(qz);
+            DoubleVector chordSquared = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+            VectorMask<Double> within = chordSquared.compare(VectorOperators.LE, maxChordSquared);
+            for (long lanes = within.toLong(); lanes != 0; lanes &= lanes - 1) {
+                out[count++] = i + Long.numberOfTrailingZeros(lanes);
+            }
+        }
+        return ScalarDistanceKernel.collect(qx, qy, qz, maxChordSquared, x, y, z, i, to, out, count);
+    }
+
+    @Override
+    public double pathAngle(double[] x, double[] y, double[] z, int count) {
+        if (count < 2) {
+            return 0.0;
+        }
+        // Segment i spaja tačke i i i + 1, pa drugi učitani vektor počinje jedno mesto dalje
+        int i = 0;
+        int upper = SPECIES.loopBound(count - 1);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, x, i + 1).sub(DoubleVector.fromArray(SPECIES, x, i));
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, y, i + 1).sub(DoubleVector.fromArray(SPECIES, y, i));
+            DoubleVector dz = DoubleVector.fromArray(SPECIES, z, i + 1).sub(DoubleVector.fromArray(SPECIES, z, i));
+            sum = sum.add(angleForChordSquared(dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz))));
+        }
+        return sum.reduceLanes(VectorOperators.ADD) + ScalarDistanceKernel.pathAngle(x, y, z, i, count);
+    }
+
+    private static DoubleVector angleForChordSquared(DoubleVector chordSquared) {
+        return chordSquared.lanewise(VectorOperators.SQRT).mul(0.5).min(1.0)
+                .lanewise(VectorOperators.ASIN).mul(2.0);
+    }
+}
@@ -0,0 +1,146 @@
+package com.tours.geofence;
+
+import com.tours.enums.GeofenceEventType;
+import com.tours.geo.GeoMath;
+import com.tours.geo.KeyPointGeometry;
+import com.tours.model.TourExecution;
+import com.tours.service.KeyPointSpatialIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Geofence-i oko ključnih tačaka aktivnih izvršenja tura. Za svako izvršenje se pamti u kojim je
+ * ogradama turista trenutno, pa se pri novoj poziciji proveravaju samo te ograde (izlazak, zadržavanje)
+ * i kandidati iz prostornog indeksa (ulazak), bez ponovnog prolaska kroz sve tačke ture.
+ * Ulazak je na poluprečniku ograde, a izlazak tek na poluprečniku uvećanom za histerezis.
+ */
+@Component
+public class GeofenceEngine {
+
+    private final KeyPointSpatialIndex keyPointSpatialIndex;
+    private final List<GeofenceListener> listeners;
+    private final double defaultRadiusMeters;
+    private final double exitHysteresisMeters;
+    private final Duration dwellTime;
+    private final Map<Long, FenceState> states = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GeofenceEngine(KeyPointSpatialIndex keyPointSpatialIndex,
+                          List<GeofenceListener> listeners,
+                          @Value("${tours.geofence.default-radius-meters:300}") double defaultRadiusMeters,
+                          @Value("${tours.geofence.exit-hysteresis-meters:25}") double exitHysteresisMeters,
+                          @Value("${tours.geofence.dwell-seconds:60}") long dwellSeconds) {
+        this.keyPointSpatialIndex = keyPointSpatialIndex;
+        this.listeners = listeners;
+        this.defaultRadiusMeters = defaultRadiusMeters;
+        this.exitHysteresisMeters = exitHysteresisMeters;
+        this.dwellTime = Duration.ofSeconds(dwellSeconds);
+    }
+
+    // Proverava novu poziciju izvršenja i prosleđuje nastale događaje pretplatnicima
+    public List<GeofenceEvent> evaluate(TourExecution execution, double latitude, double longitude, LocalDateTime timestamp) {
+        KeyPointSpatialIndex.TourKeyPoints tourKeyPoints = keyPointSpatialIndex.forTour(execution.getTourId());
+        FenceState state = states.get(execution.getId());
+        if (state == null || state.tourKeyPoints != tourKeyPoints) {
+            state = new FenceState(tourKeyPoints);
+            states.put(execution.getId(), state);
+        }
+
+        KeyPointGeometry geometry = tourKeyPoints.getGeometry();
+        double qx = KeyPointGeometry.unitX(latitude, longitude);
+        double qy = KeyPointGeometry.unitY(latitude, longitude);
+        double qz = KeyPointGeometry.unitZ(latitude);
+        List<GeofenceEvent> events = null;
+
+        // Izlazak i zadržavanje: samo ograde u kojima je turista već bio
+        for (int ordinal = state.inside.nextSetBit(0); ordinal >= 0; ordinal = state.inside.nextSetBit(ordinal + 1)) {
+            if (!geometry.isWithin(ordinal, qx, qy, qz, state.exitChordSquared[ordinal])) {
+                state.inside.clear(ordinal);
+                state.dwellReported.clear(ordinal);
+                events = add(events, event(GeofenceEventType.EXIT, execution, tourKeyPoints, ordinal, timestamp));
+            } else if (!state.dwellReported.get(ordinal)
+                    && !timestamp.isBefore(state.enteredAt[ordinal].plus(dwellTime))) {
+                state.dwellReported.set(ordinal);
+                events = add(events, event(GeofenceEventType.DWELL, execution, tourKeyPoints, ordinal, timestamp));
+            }
+        }
+
+        // Ulazak: kandidati iz prostornog indeksa u najvećem poluprečniku ture
+        int candidates = tourKeyPoints.findOrdinalsWithinRadius(latitude, longitude, state.maxRadiusMeters, state.candidates);
+        for (int k = 0; k < candidates; k++) {
+            int ordinal = state.candidates[k];
+            if (!state.inside.get(ordinal) && geometry.isWithin(ordinal, qx, qy, qz, state.enterChordSquared[ordinal])) {
+                state.inside.set(ordinal);
+                state.enteredAt[ordinal] = timestamp;
+                events = add(events, event(GeofenceEventType.ENTER, execution, tourKeyPoints, ordinal, timestamp));
+            }
+        }
+
+        if (events == null) {
+            return Collections.emptyList();
+        }
+        for (GeofenceEvent event : events) {
+            for (GeofenceListener listener : listeners) {
+                listener.onGeofenceEvent(event, execution);
+            }
+        }
+        return events;
+    }
+
+    public void forget(Long executionId) {
+        states.remove(executionId);
+    }
+
+    private static GeofenceEvent event(GeofenceEventType type, TourExecution execution,
+                                       KeyPointSpatialIndex.TourKeyPoints tourKeyPoints, int ordinal, LocalDateTime timestamp) {
+        return new GeofenceEvent(type, execution.getId(), execution.getTourId(),
+                tourKeyPoints.getGeometry().id(ordinal), ordinal, tourKeyPoints.size(), timestamp);
+    }
+
+    private static List<GeofenceEvent> add(List<GeofenceEvent> events, GeofenceEvent event) {
+        List<GeofenceEvent> result = events != null ? events : new ArrayList<>();
+        result.add(event);
+        return result;
+    }
+
+    private final class FenceState {
+        private final KeyPointSpatialIndex.TourKeyPoints tourKeyPoints;
+        private final double[] enterChordSquared;
+        private final double[] exitChordSquared;
+        private final double maxRadiusMeters;
+        private final BitSet inside = new BitSet();
+        private final BitSet dwellReported = new BitSet();
+        private final LocalDateTime[] enteredAt;
+        // Bafer kandidata iz prostornog indeksa; izvršenje se obrađuje pod zaključavanjem turiste, pa se deli bezbedno
+        private final int[] candidates;
+
+        private FenceState(KeyPointSpatialIndex.TourKeyPoints tourKeyPoints) {
+            this.tourKeyPoints = tourKeyPoints;
+            KeyPointGeometry geometry = tourKeyPoints.getGeometry();
+            int size = geometry.size();
+            enterChordSquared = new double[size];
+            exitChordSquared = new double[size];
+            enteredAt = new LocalDateTime[size];
+            candidates = new int[size];
+
+            double maxRadius = defaultRadiusMeters;
+            for (int i = 0; i < size; i++) {
+                double radius = Double.isNaN(geometry.radiusMeters(i)) ? defaultRadiusMeters : geometry.radiusMeters(i);
+                enterChordSquared[i] = GeoMath.chordSquaredForDistance(radius);
+                exitChordSquared[i] = GeoMath.chordSquaredForDistance(radius + exitHysteresisMeters);
+                maxRadius = Math.max(maxRadius, radius);
+            }
+            maxRadiusMeters = maxRadius;
+        }
+    }
+}
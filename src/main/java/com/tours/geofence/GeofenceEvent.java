@@ -0,0 +1,34 @@
+package com.tours.geofence;
+
+import com.tours.enums.GeofenceEventType;
+
+import java.time.LocalDateTime;
+
+public class GeofenceEvent {
+    private final GeofenceEventType type;
+    private final Long executionId;
+    private final Long tourId;
+    private final Long keyPointId;
+    private final int ordinal;      // Ordinal ključne tačke u geometriji ture
+    private final int keyPointCount; // Ukupan broj ključnih tačaka ture
+    private final LocalDateTime timestamp;
+
+    public GeofenceEvent(GeofenceEventType type, Long executionId, Long tourId, Long keyPointId,
+                         int ordinal, int keyPointCount, LocalDateTime timestamp) {
+        this.type = type;
+        this.executionId = executionId;
+        this.tourId = tourId;
+        this.keyPointId = keyPointId;
+        this.ordinal = ordinal;
+        this.keyPointCount = keyPointCount;
+        this.timestamp = timestamp;
+    }
+
+    public GeofenceEventType getType() { return type; }
+    public Long getExecutionId() { return executionId; }
+    public Long getTourId() { return tourId; }
+    public Long getKeyPointId() { return keyPointId; }
+    public int getOrdinal() { return ordinal; }
+    public int getKeyPointCount() { return keyPointCount; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,12 @@
+package com.tours.geofence;
+
+import com.tours.model.TourExecution;
+
+/**
+ * Pretplatnik na geofence događaje. Poziva se sinhrono, pod zaključavanjem turiste,
+ * pa sme da menja stanje izvršenja ture.
+ */
+public interface GeofenceListener {
+
+    void onGeofenceEvent(GeofenceEvent event, TourExecution execution);
+}
@@ -3,6 +3,7 @@ package com.tours.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
@@ -11,8 +12,10 @@ import java.time.LocalDateTime;
 @Table(name = "key_points")
 public class KeyPoint {
     
+    // Sekvenca sa rezervacijom po 50 ID-eva omogućava JDBC batch insert (IDENTITY ga isključuje)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "key_points_seq")
+    @SequenceGenerator(name = "key_points_seq", sequenceName = "key_points_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Naziv ključne tačke je obavezan")
@@ -37,6 +40,11 @@ public class KeyPoint {
     @Column(name = "slika_url")
     private String slikaUrl;
     
+    // Poluprečnik geofence-a oko tačke; ako nije postavljen koristi se podrazumevani iz konfiguracije
+    @Positive(message = "Poluprečnik mora biti pozitivan")
+    @Column(name = "radius_meters")
+    private Double radiusMeters;
+    
     @Column(name = "tour_id", nullable = false)
     private Long tourId;
     
@@ -119,6 +127,14 @@ public class KeyPoint {
         this.slikaUrl = slikaUrl;
     }
     
+    public Double getRadiusMeters() {
+        return radiusMeters;
+    }
+    
+    public void setRadiusMeters(Double radiusMeters) {
+        this.radiusMeters = radiusMeters;
+    }
+    
     public Long getTourId() {
         return tourId;
     }
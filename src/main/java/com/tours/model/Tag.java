@@ -0,0 +1,41 @@
+package com.tours.model;
+
+import jakarta.persistence.*;
+
+// Normalizovan tag (mala slova, bez suvišnih razmaka); naziv je jedinstven
+@Entity
+@Table(name = "tags", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_tags_naziv", columnNames = "naziv")
+})
+public class Tag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String naziv;
+
+    public Tag() {
+    }
+
+    public Tag(String naziv) {
+        this.naziv = naziv;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNaziv() {
+        return naziv;
+    }
+
+    public void setNaziv(String naziv) {
+        this.naziv = naziv;
+    }
+}
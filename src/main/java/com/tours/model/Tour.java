@@ -15,7 +15,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Entity
-@Table(name = "tours")
+@Table(name = "tours", indexes = {
+        @Index(name = "idx_tours_status_vreme_objave_id", columnList = "status, vreme_objave, id")
+})
 public class Tour {
     
     @Id
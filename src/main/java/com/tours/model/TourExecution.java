@@ -2,15 +2,20 @@
 package com.tours.model;
 
 import com.tours.enums.TourExecutionStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.IntConsumer;
 
 @Entity
-@Table(name = "tour_executions")
+@Table(name = "tour_executions", indexes = {
+        @Index(name = "idx_tour_executions_status_last_activity_id", columnList = "status, last_activity_time, id")
+})
 public class TourExecution {
 
     @Id
@@ -46,10 +51,17 @@ public class TourExecution {
     @Column(name = "last_activity_time", nullable = false)
     private LocalDateTime lastActivityTime;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "tour_execution_completed_key_points", joinColumns = @JoinColumn(name = "tour_execution_id"))
-    @Column(name = "key_point_id")
-    private Set<Long> completedKeyPoints = new HashSet<>();
+    // Bitset završenih ključnih tačaka: bit i odgovara ključnoj tački sa ordinalom i
+    // (ključne tačke ture po vremenu kreiranja pa ID-u, vidi KeyPointSpatialIndex.TourKeyPoints). Ordinali su
+    // stabilni jer se tačke menjaju samo u statusu DRAFT, a izvršenja postoje samo za objavljene i
+    // arhivirane ture, koje se nikad ne vraćaju u DRAFT
+    @JsonIgnore
+    @Column(name = "completed_key_points_bits")
+    private long[] completedKeyPointBits = new long[0];
+
+    // ID-jevi završenih ključnih tačaka za odgovor klijentu; popunjava ih TourExecutionService iz bitseta
+    @Transient
+    private Set<Long> completedKeyPoints;
 
     public TourExecution() {
     }
@@ -62,6 +74,7 @@ public class TourExecution {
         this.lastActivityTime = LocalDateTime.now();
         this.currentLatitude = initialLatitude;
         this.currentLongitude = initialLongitude;
+        this.completedKeyPoints = new HashSet<>();
     }
 
     @PrePersist
@@ -151,7 +164,77 @@ public class TourExecution {
         this.completedKeyPoints = completedKeyPoints;
     }
 
-    public void addCompletedKeyPoint(Long keyPointId) {
-        this.completedKeyPoints.add(keyPointId);
+    public long[] getCompletedKeyPointBits() {
+        return completedKeyPointBits;
+    }
+
+    public void setCompletedKeyPointBits(long[] completedKeyPointBits) {
+        this.completedKeyPointBits = completedKeyPointBits;
+    }
+
+    public boolean isKeyPointCompleted(int ordinal) {
+        int word = ordinal >>> 6;
+        return completedKeyPointBits != null && word < completedKeyPointBits.length
+                && (completedKeyPointBits[word] & (1L << ordinal)) != 0;
+    }
+
+    // Vraća true ako ključna tačka do sada nije bila označena kao završena
+    public boolean markKeyPointCompleted(int ordinal) {
+        if (isKeyPointCompleted(ordinal)) {
+            return false;
+        }
+        int word = ordinal >>> 6;
+        long[] bits = completedKeyPointBits == null ? new long[0] : completedKeyPointBits;
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, word + 1);
+        }
+        bits[word] |= 1L << ordinal;
+        completedKeyPointBits = bits;
+        return true;
+    }
+
+    public int countCompletedKeyPoints() {
+        int count = 0;
+        if (completedKeyPointBits != null) {
+            for (long word : completedKeyPointBits) {
+                count += Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+
+    // Da li su završene sve ključne tačke sa ordinalima 0..keyPointCount-1
+    public boolean allKeyPointsCompleted(int keyPointCount) {
+        if (keyPointCount == 0 || completedKeyPointBits == null) {
+            return false;
+        }
+        int fullWords = keyPointCount >>> 6;
+        int remainder = keyPointCount & 63;
+        if (completedKeyPointBits.length < fullWords + (remainder != 0 ? 1 : 0)) {
+            return false;
+        }
+        for (int i = 0; i < fullWords; i++) {
+            if (completedKeyPointBits[i] != -1L) {
+                return false;
+            }
+        }
+        if (remainder == 0) {
+            return true;
+        }
+        long mask = (1L << remainder) - 1;
+        return (completedKeyPointBits[fullWords] & mask) == mask;
+    }
+
+    public void forEachCompletedKeyPoint(IntConsumer action) {
+        if (completedKeyPointBits == null) {
+            return;
+        }
+        for (int i = 0; i < completedKeyPointBits.length; i++) {
+            long word = completedKeyPointBits[i];
+            while (word != 0) {
+                action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
     }
 }
\ No newline at end of file
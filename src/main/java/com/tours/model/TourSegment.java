@@ -0,0 +1,132 @@
+package com.tours.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Deonica ture između dve uzastopne ključne tačke, sa snimkom koordinata iz trenutka proračuna.
+ * Dužina ture je zbir deonica, pa izmena jedne tačke zahteva ponovni proračun samo njenih deonica.
+ */
+@Entity
+@Table(name = "tour_segments", indexes = {
+        @Index(name = "idx_tour_segments_tour_id", columnList = "tour_id")
+})
+public class TourSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tour_id", nullable = false)
+    private Long tourId;
+
+    @Column(name = "from_key_point_id", nullable = false)
+    private Long fromKeyPointId;
+
+    @Column(name = "to_key_point_id", nullable = false)
+    private Long toKeyPointId;
+
+    @Column(name = "from_latitude", nullable = false)
+    private Double fromLatitude;
+
+    @Column(name = "from_longitude", nullable = false)
+    private Double fromLongitude;
+
+    @Column(name = "to_latitude", nullable = false)
+    private Double toLatitude;
+
+    @Column(name = "to_longitude", nullable = false)
+    private Double toLongitude;
+
+    @Column(name = "air_distance_km", nullable = false)
+    private Double airDistanceKm;
+
+    // Dužina po putevima; null dok deonica ne bude rutirana
+    @Column(name = "road_distance_km")
+    private Double roadDistanceKm;
+
+    // Provajder rutiranja koji je izračunao roadDistanceKm
+    @Column(name = "routed_by")
+    private String routedBy;
+
+    public TourSegment() {
+    }
+
+    public TourSegment(Long tourId, KeyPoint from, KeyPoint to, Double airDistanceKm) {
+        this.tourId = tourId;
+        this.fromKeyPointId = from.getId();
+        this.toKeyPointId = to.getId();
+        this.fromLatitude = from.getLatitude();
+        this.fromLongitude = from.getLongitude();
+        this.toLatitude = to.getLatitude();
+        this.toLongitude = to.getLongitude();
+        this.airDistanceKm = airDistanceKm;
+    }
+
+    // Da li deonica i dalje odgovara paru tačaka (iste tačke, nepomerene)
+    public boolean matches(KeyPoint from, KeyPoint to) {
+        return fromKeyPointId.equals(from.getId()) && toKeyPointId.equals(to.getId())
+                && fromLatitude.equals(from.getLatitude()) && fromLongitude.equals(from.getLongitude())
+                && toLatitude.equals(to.getLatitude()) && toLongitude.equals(to.getLongitude());
+    }
+
+    // Dužina po putevima ako je poznata, inače vazdušna linija
+    public double effectiveDistanceKm() {
+        return roadDistanceKm != null ? roadDistanceKm : airDistanceKm;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTourId() {
+        return tourId;
+    }
+
+    public Long getFromKeyPointId() {
+        return fromKeyPointId;
+    }
+
+    public Long getToKeyPointId() {
+        return toKeyPointId;
+    }
+
+    public Double getFromLatitude() {
+        return fromLatitude;
+    }
+
+    public Double getFromLongitude() {
+        return fromLongitude;
+    }
+
+    public Double getToLatitude() {
+        return toLatitude;
+    }
+
+    public Double getToLongitude() {
+        return toLongitude;
+    }
+
+    public Double getAirDistanceKm() {
+        return airDistanceKm;
+    }
+
+    public Double getRoadDistanceKm() {
+        return roadDistanceKm;
+    }
+
+    public void setRoadDistanceKm(Double roadDistanceKm) {
+        this.roadDistanceKm = roadDistanceKm;
+    }
+
+    public String getRoutedBy() {
+        return routedBy;
+    }
+
+    public void setRoutedBy(String routedBy) {
+        this.routedBy = routedBy;
+    }
+}
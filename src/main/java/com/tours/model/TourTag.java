@@ -0,0 +1,55 @@
+package com.tours.model;
+
+import jakarta.persistence.*;
+
+// Veza ture i taga; indeks (tag_id, tour_id) služi upitima "ture sa tagom"
+@Entity
+@Table(name = "tour_tags", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_tour_tags_tour_tag", columnNames = {"tour_id", "tag_id"})
+}, indexes = {
+        @Index(name = "idx_tour_tags_tag_tour", columnList = "tag_id, tour_id")
+})
+public class TourTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tour_id", nullable = false)
+    private Long tourId;
+
+    @Column(name = "tag_id", nullable = false)
+    private Long tagId;
+
+    public TourTag() {
+    }
+
+    public TourTag(Long tourId, Long tagId) {
+        this.tourId = tourId;
+        this.tagId = tagId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTourId() {
+        return tourId;
+    }
+
+    public void setTourId(Long tourId) {
+        this.tourId = tourId;
+    }
+
+    public Long getTagId() {
+        return tagId;
+    }
+
+    public void setTagId(Long tagId) {
+        this.tagId = tagId;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 
 
 @Entity
+@Table(name = "tourist_location", uniqueConstraints = @UniqueConstraint(name = "uk_tourist_location_username", columnNames = "username"))
 public class TouristLocation {
 
     @Id
@@ -1,5 +1,6 @@
 package com.tours.repository;
 
+import com.tours.enums.TourStatus;
 import com.tours.model.KeyPoint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +13,9 @@ import java.util.List;
 public interface KeyPointRepository extends JpaRepository<KeyPoint, Long> {
     
     List<KeyPoint> findByTourId(Long tourId);
+
+    // Redosled putanje ture, isti kao KeyPointSpatialIndex.PATH_ORDER
+    List<KeyPoint> findByTourIdOrderByCreatedAtAscIdAsc(Long tourId);
     
     @Query("SELECT kp FROM KeyPoint kp JOIN Tour t ON kp.tourId = t.id WHERE t.autorUsername = :autorUsername")
     List<KeyPoint> findByAuthorUsername(@Param("autorUsername") String autorUsername);
@@ -27,6 +31,12 @@ public interface KeyPointRepository extends JpaRepository<KeyPoint, Long> {
     @Query("SELECT COUNT(kp) FROM KeyPoint kp JOIN Tour t ON kp.tourId = t.id WHERE t.autorUsername = :autorUsername")
     long countByAuthorUsername(@Param("autorUsername") String autorUsername);
     
-    java.util.Optional<KeyPoint> findFirstByTourIdOrderByCreatedAtAsc(Long tourId);
+    java.util.Optional<KeyPoint> findFirstByTourIdOrderByCreatedAtAscIdAsc(Long tourId);
+
+    // Početna (prva kreirana) ključna tačka svake ture u datom statusu, jednim upitom
+    @Query("SELECT kp FROM KeyPoint kp JOIN Tour t ON kp.tourId = t.id WHERE t.status = :status " +
+           "AND kp.id = (SELECT MIN(k2.id) FROM KeyPoint k2 WHERE k2.tourId = kp.tourId " +
+           "AND k2.createdAt = (SELECT MIN(k3.createdAt) FROM KeyPoint k3 WHERE k3.tourId = kp.tourId))")
+    List<KeyPoint> findStartKeyPointsByTourStatus(@Param("status") TourStatus status);
 }
 
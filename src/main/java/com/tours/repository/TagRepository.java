@@ -0,0 +1,25 @@
+package com.tours.repository;
+
+import com.tours.model.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+
+    Optional<Tag> findByNaziv(String naziv);
+
+    List<Tag> findByNazivIn(Collection<String> nazivi);
+
+    // Tag koji je paralelno upisao drugi zahtev se preskače umesto greške, pa transakcija ostaje ispravna
+    @Modifying
+    @Query(value = "INSERT INTO tags (naziv) VALUES (:naziv) ON CONFLICT (naziv) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("naziv") String naziv);
+}
@@ -3,15 +3,57 @@ package com.tours.repository;
 
 import com.tours.enums.TourExecutionStatus;
 import com.tours.model.TourExecution;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TourExecutionRepository extends JpaRepository<TourExecution, Long> {
     Optional<TourExecution> findByTouristUsernameAndStatus(String touristUsername, TourExecutionStatus status);
+    List<TourExecution> findByStatus(TourExecutionStatus status);
     List<TourExecution> findByTourId(Long tourId);
     List<TourExecution> findByTouristUsername(String touristUsername);
+
+    // Keyset stranice po (last_activity_time, id), što indeks (status, last_activity_time, id) služi
+    // bez sortiranja; redovi su [id, lastActivityTime]
+    @Query("SELECT te.id, te.lastActivityTime FROM TourExecution te WHERE te.status = :status AND te.lastActivityTime < :cutoff " +
+           "ORDER BY te.lastActivityTime, te.id")
+    List<Object[]> findIdsByStatusAndLastActivityBefore(@Param("status") TourExecutionStatus status,
+                                                        @Param("cutoff") LocalDateTime cutoff,
+                                                        Pageable pageable);
+
+    @Query("SELECT te.id, te.lastActivityTime FROM TourExecution te WHERE te.status = :status AND te.lastActivityTime < :cutoff " +
+           "AND (te.lastActivityTime > :afterTime OR (te.lastActivityTime = :afterTime AND te.id > :afterId)) " +
+           "ORDER BY te.lastActivityTime, te.id")
+    List<Object[]> findIdsByStatusAndLastActivityBeforeAfter(@Param("status") TourExecutionStatus status,
+                                                             @Param("cutoff") LocalDateTime cutoff,
+                                                             @Param("afterTime") LocalDateTime afterTime,
+                                                             @Param("afterId") Long afterId,
+                                                             Pageable pageable);
+
+    // Uslov na cutoff ponavlja proveru u istoj naredbi, pa red koji je u međuvremenu dobio novu
+    // aktivnost (npr. sa druge instance) ostaje netaknut
+    @Modifying
+    @Query("UPDATE TourExecution te SET te.status = :newStatus, te.endTime = :endTime " +
+           "WHERE te.id IN :ids AND te.status = :expectedStatus AND te.lastActivityTime < :cutoff")
+    int updateStatusByIds(@Param("ids") List<Long> ids,
+                          @Param("expectedStatus") TourExecutionStatus expectedStatus,
+                          @Param("newStatus") TourExecutionStatus newStatus,
+                          @Param("cutoff") LocalDateTime cutoff,
+                          @Param("endTime") LocalDateTime endTime);
+
+    // Vreme aktivnosti se samo pomera unapred; pozicije se inače čuvaju samo u registru
+    @Modifying
+    @Query("UPDATE TourExecution te SET te.lastActivityTime = :lastActivityTime " +
+           "WHERE te.id = :id AND te.status = :status AND te.lastActivityTime < :lastActivityTime")
+    int advanceLastActivityTime(@Param("id") Long id,
+                                @Param("status") TourExecutionStatus status,
+                                @Param("lastActivityTime") LocalDateTime lastActivityTime);
 }
\ No newline at end of file
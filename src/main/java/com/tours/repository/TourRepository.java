@@ -1,12 +1,16 @@
 package com.tours.repository;
 
+import com.tours.dto.TourCatalogItem;
 import com.tours.enums.TourStatus;
 import com.tours.model.Tour;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,12 +22,59 @@ public interface TourRepository extends JpaRepository<Tour, Long> {
 
     List<Tour> findByAutorUsernameAndTezina(String autorUsername, String tezina);
 
-    @Query("SELECT t FROM Tour t WHERE t.tagovi LIKE %:tag% AND t.autorUsername = :autorUsername")
+    // Tačno poklapanje normalizovanog taga preko tour_tags (umesto LIKE nad slobodnim tekstom)
+    @Query("SELECT t FROM Tour t WHERE t.autorUsername = :autorUsername AND t.id IN " +
+           "(SELECT tt.tourId FROM TourTag tt, Tag g WHERE g.id = tt.tagId AND g.naziv = :tag)")
     List<Tour> findByTagAndAutorUsername(@Param("tag") String tag, @Param("autorUsername") String autorUsername);
 
+    // Ture autora koje imaju bar jedan od tagova
+    @Query("SELECT t FROM Tour t WHERE t.autorUsername = :autorUsername AND t.id IN " +
+           "(SELECT tt.tourId FROM TourTag tt, Tag g WHERE g.id = tt.tagId AND g.naziv IN :tags)")
+    List<Tour> findByAnyTagAndAutorUsername(@Param("tags") Collection<String> tags, @Param("autorUsername") String autorUsername);
+
+    // Ture autora koje imaju sve tagove (tagCount = broj različitih traženih tagova)
+    @Query("SELECT t FROM Tour t WHERE t.autorUsername = :autorUsername AND t.id IN " +
+           "(SELECT tt.tourId FROM TourTag tt, Tag g WHERE g.id = tt.tagId AND g.naziv IN :tags " +
+           "GROUP BY tt.tourId HAVING COUNT(DISTINCT g.id) = :tagCount)")
+    List<Tour> findByAllTagsAndAutorUsername(@Param("tags") Collection<String> tags,
+                                             @Param("tagCount") long tagCount,
+                                             @Param("autorUsername") String autorUsername);
+
+    // Tekst za indeks pretrage bez učitavanja entiteta (i EAGER prevoza): [id, naziv, opis]
+    @Query("SELECT t.id, t.naziv, t.opis FROM Tour t WHERE t.status = :status")
+    List<Object[]> findSearchableTextByStatus(@Param("status") TourStatus status);
+
+    // Ture sa tagovima koje još nisu prenete u tour_tags (za backfill)
+    @Query("SELECT t FROM Tour t WHERE t.tagovi IS NOT NULL AND t.tagovi <> '' AND NOT EXISTS " +
+           "(SELECT tt.id FROM TourTag tt WHERE tt.tourId = t.id)")
+    List<Tour> findWithUnsyncedTags();
+
     long countByAutorUsername(String autorUsername);
 
+    // Broj tura autora po statusu jednim upitom: [status, broj]
+    @Query("SELECT t.status, COUNT(t) FROM Tour t WHERE t.autorUsername = :autorUsername GROUP BY t.status")
+    List<Object[]> countByStatusForAuthor(@Param("autorUsername") String autorUsername);
+
     long countByAutorUsernameAndStatus(String autorUsername, String status);
 
     List<Tour> findByStatus(TourStatus status);
+
+    // Keyset stranice kataloga po (vremeObjave DESC, id DESC), oslanja se na indeks (status, vreme_objave, id)
+    @Query("SELECT new com.tours.dto.TourCatalogItem(t.id, t.naziv, t.tagovi, t.tezina, t.cijena, t.autorUsername, t.duzina, t.vremeObjave) " +
+           "FROM Tour t WHERE t.status = :status AND t.vremeObjave IS NOT NULL " +
+           "ORDER BY t.vremeObjave DESC, t.id DESC")
+    List<TourCatalogItem> findCatalogFirstPage(@Param("status") TourStatus status, Pageable pageable);
+
+    @Query("SELECT new com.tours.dto.TourCatalogItem(t.id, t.naziv, t.tagovi, t.tezina, t.cijena, t.autorUsername, t.duzina, t.vremeObjave) " +
+           "FROM Tour t WHERE t.status = :status AND t.vremeObjave IS NOT NULL " +
+           "AND (t.vremeObjave < :afterVremeObjave OR (t.vremeObjave = :afterVremeObjave AND t.id < :afterId)) " +
+           "ORDER BY t.vremeObjave DESC, t.id DESC")
+    List<TourCatalogItem> findCatalogPageAfter(@Param("status") TourStatus status,
+                                               @Param("afterVremeObjave") LocalDateTime afterVremeObjave,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    // Vremena prevoza za sve ture jedne strane kataloga jednim upitom: [tour_id, prevoz, trajanje_minuti]
+    @Query(value = "SELECT tour_id, prevoz, trajanje_minuti FROM tour_prevozi WHERE tour_id IN (:tourIds)", nativeQuery = true)
+    List<Object[]> findPrevoziByTourIds(@Param("tourIds") Collection<Long> tourIds);
 }
\ No newline at end of file
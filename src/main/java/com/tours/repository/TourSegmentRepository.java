@@ -0,0 +1,20 @@
+package com.tours.repository;
+
+import com.tours.model.TourSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TourSegmentRepository extends JpaRepository<TourSegment, Long> {
+
+    List<TourSegment> findByTourId(Long tourId);
+
+    @Modifying
+    @Query("DELETE FROM TourSegment s WHERE s.tourId = :tourId")
+    int deleteByTourId(@Param("tourId") Long tourId);
+}
@@ -0,0 +1,25 @@
+package com.tours.repository;
+
+import com.tours.model.TourTag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TourTagRepository extends JpaRepository<TourTag, Long> {
+
+    List<TourTag> findByTourId(Long tourId);
+
+    @Modifying
+    @Query("DELETE FROM TourTag tt WHERE tt.tourId = :tourId")
+    int deleteByTourId(@Param("tourId") Long tourId);
+
+    @Modifying
+    @Query("DELETE FROM TourTag tt WHERE tt.tourId = :tourId AND tt.tagId IN :tagIds")
+    int deleteByTourIdAndTagIdIn(@Param("tourId") Long tourId, @Param("tagIds") Collection<Long> tagIds);
+}
@@ -0,0 +1,87 @@
+package com.tours.routing;
+
+/**
+ * Jednostavan prekidač strujnog kola: posle failureThreshold uzastopnih grešaka se otvara i odbija
+ * pozive tokom openDurationMillis, zatim propušta jedan probni poziv (HALF_OPEN) koji ga zatvara ili ponovo otvara.
+ * Svaka dozvola nosi generaciju stanja u kojem je izdata; ishod poziva iz ranije generacije (npr. uspeh
+ * koji stigne pošto se prekidač već otvorio) se zanemaruje.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public static final long NO_PERMISSION = -1L;
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationMillis * 1_000_000L;
+    }
+
+    // Vraća dozvolu (generaciju) koja se prosleđuje u onSuccess/onFailure/releasePermission, ili NO_PERMISSION
+    public synchronized long tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return generation;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openDurationNanos) {
+                    return NO_PERMISSION;
+                }
+                transitionTo(State.HALF_OPEN);
+                trialInFlight = true;
+                return generation;
+            default:
+                if (trialInFlight) {
+                    return NO_PERMISSION;
+                }
+                trialInFlight = true;
+                return generation;
+        }
+    }
+
+    public synchronized void onSuccess(long permission) {
+        if (permission != generation) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure(long permission) {
+        if (permission != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            transitionTo(State.OPEN);
+            openedAt = System.nanoTime();
+        }
+    }
+
+    // Dobijena dozvola nije iskorišćena (npr. poziv odbijen pre slanja); probni poziv se može ponoviti
+    public synchronized void releasePermission(long permission) {
+        if (permission == generation && state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+}
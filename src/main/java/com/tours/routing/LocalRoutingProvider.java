@@ -0,0 +1,34 @@
+package com.tours.routing;
+
+import com.tours.geo.GeoBatchKernels;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lokalna zamena za servis rutiranja (razvoj, testovi, simulator): vazdušna linija uvećana
+ * prosečnim faktorom obilaska gradske mreže puteva, bez ikakvog mrežnog poziva.
+ */
+@Component
+public class LocalRoutingProvider implements RoutingProvider {
+
+    public static final String NAME = "local";
+
+    private final double detourFactor;
+
+    public LocalRoutingProvider(@Value("${tours.routing.local.detour-factor:1.3}") double detourFactor) {
+        this.detourFactor = detourFactor;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<Double> routeDistanceKm(double[] latitudes, double[] longitudes) {
+        return CompletableFuture.completedFuture(
+                GeoBatchKernels.pathLengthMeters(latitudes, longitudes) * detourFactor / 1000.0);
+    }
+}
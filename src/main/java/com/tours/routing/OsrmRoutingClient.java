@@ -0,0 +1,152 @@
+package com.tours.routing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Klijent za OSRM rutiranje sa jednim deljenim HttpClient-om (pool konekcija) i asinhronim pozivima.
+ * Dužine ruta se keširaju u ograničenom LRU kešu po hešu niza koordinata zaokruženih na ~1 m,
+ * a istovremeni zahtevi za istu rutu dele jedan HTTP poziv.
+ */
+@Component
+public class OsrmRoutingClient implements RoutingProvider {
+
+    public static final String NAME = "osrm";
+
+    // 1e-5 stepeni je ~1 m, manje razlike u koordinatama ne menjaju rutu
+    private static final double COORDINATE_QUANTUM = 1e5;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String profile;
+    private final Duration requestTimeout;
+    private final Map<Long, Double> cache;
+    private final Map<Long, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OsrmRoutingClient(ObjectMapper objectMapper,
+                             @Value("${tours.osrm.base-url:https://router.project-osrm.org}") String baseUrl,
+                             @Value("${tours.osrm.profile:driving}") String profile,
+                             @Value("${tours.osrm.connect-timeout-ms:5000}") long connectTimeoutMillis,
+                             @Value("${tours.osrm.request-timeout-ms:10000}") long requestTimeoutMillis,
+                             @Value("${tours.osrm.cache-size:10000}") int cacheSize) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.profile = profile;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    // Završava se izuzetkom ako OSRM ne vrati rutu
+    @Override
+    public CompletableFuture<Double> routeDistanceKm(double[] latitudes, double[] longitudes) {
+        if (latitudes.length < 2) {
+            return CompletableFuture.completedFuture(0.0);
+        }
+
+        long key = routeKey(latitudes, longitudes);
+        Double cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Double> created = new CompletableFuture<>();
+        CompletableFuture<Double> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        fetch(latitudes, longitudes).whenComplete((distanceKm, error) -> {
+            if (error != null) {
+                inFlight.remove(key);
+                created.completeExceptionally(error);
+                return;
+            }
+            // Rezultat je u kešu pre uklanjanja iz inFlight, pa novi poziv ne šalje isti zahtev ponovo
+            synchronized (cache) {
+                cache.put(key, distanceKm);
+            }
+            inFlight.remove(key);
+            created.complete(distanceKm);
+        });
+        return created;
+    }
+
+    private CompletableFuture<Double> fetch(double[] latitudes, double[] longitudes) {
+        StringBuilder coordinates = new StringBuilder();
+        for (int i = 0; i < latitudes.length; i++) {
+            if (i > 0) coordinates.append(";");
+            coordinates.append(longitudes[i]).append(",").append(latitudes[i]);
+        }
+        String url = String.format("%s/route/v1/%s/%s?overview=false&alternatives=false", baseUrl, profile, coordinates);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(this::parseDistanceKm);
+    }
+
+    private double parseDistanceKm(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("OSRM je vratio status " + response.statusCode());
+        }
+        try {
+            JsonNode jsonNode = objectMapper.readTree(response.body());
+            JsonNode routes = jsonNode.get("routes");
+            if (routes == null || !routes.isArray() || routes.isEmpty()) {
+                throw new IllegalStateException("OSRM nije pronašao rutu");
+            }
+            return routes.get(0).get("distance").asDouble() / 1000.0;
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("Neispravan OSRM odgovor: " + e.getMessage(), e);
+        }
+    }
+
+    private static long routeKey(double[] latitudes, double[] longitudes) {
+        long hash = 0xcbf29ce484222325L ^ latitudes.length;
+        for (int i = 0; i < latitudes.length; i++) {
+            hash = mix(hash, Math.round(latitudes[i] * COORDINATE_QUANTUM));
+            hash = mix(hash, Math.round(longitudes[i] * COORDINATE_QUANTUM));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
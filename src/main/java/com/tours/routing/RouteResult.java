@@ -0,0 +1,21 @@
+package com.tours.routing;
+
+/**
+ * Dužina rute i provajder koji ju je izračunao (primarni ili rezervni).
+ */
+public class RouteResult {
+
+    private final double distanceKm;
+    private final String provider;
+    private final boolean fallback;
+
+    public RouteResult(double distanceKm, String provider, boolean fallback) {
+        this.distanceKm = distanceKm;
+        this.provider = provider;
+        this.fallback = fallback;
+    }
+
+    public double getDistanceKm() { return distanceKm; }
+    public String getProvider() { return provider; }
+    public boolean isFallback() { return fallback; }
+}
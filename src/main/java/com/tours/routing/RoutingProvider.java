@@ -0,0 +1,15 @@
+package com.tours.routing;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Izvor dužine rute kroz niz tačaka. Implementacija se bira svojstvom tours.routing.provider
+ * po imenu koje vraća getName(); pozive obavija RoutingService (prekidač, bulkhead, vremenski budžet).
+ */
+public interface RoutingProvider {
+
+    String getName();
+
+    // Dužina rute kroz tačke redom, u kilometrima; greška se prijavljuje izuzetnim završetkom
+    CompletableFuture<Double> routeDistanceKm(double[] latitudes, double[] longitudes);
+}
@@ -0,0 +1,127 @@
+package com.tours.routing;
+
+import com.tours.model.KeyPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ulazna tačka za rutiranje. Poziv izabranog provajdera prolazi kroz prekidač strujnog kola,
+ * bulkhead (najviše maxConcurrentCalls istovremenih poziva, višak se odmah odbija) i vremenski budžet;
+ * u svakom od tih slučajeva, kao i pri grešci, rezultat daje rezervni provajder.
+ */
+@Service
+public class RoutingService {
+
+    private final RoutingProvider primary;
+    private final RoutingProvider fallback;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final long timeoutMillis;
+    private final Counter fallbackCounter;
+
+    @Autowired
+    public RoutingService(List<RoutingProvider> providers,
+                          MeterRegistry meterRegistry,
+                          @Value("${tours.routing.provider:osrm}") String providerName,
+                          @Value("${tours.routing.fallback-provider:" + StraightLineRoutingProvider.NAME + "}") String fallbackName,
+                          @Value("${tours.routing.timeout-ms:3000}") long timeoutMillis,
+                          @Value("${tours.routing.max-concurrent-calls:8}") int maxConcurrentCalls,
+                          @Value("${tours.routing.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                          @Value("${tours.routing.circuit-breaker.open-duration-ms:30000}") long openDurationMillis) {
+        Map<String, RoutingProvider> byName = providers.stream()
+                .collect(Collectors.toMap(RoutingProvider::getName, Function.identity()));
+        this.primary = byName.get(providerName);
+        this.fallback = byName.get(fallbackName);
+        if (primary == null || fallback == null) {
+            throw new IllegalArgumentException("Nepoznat provajder rutiranja: " + (primary == null ? providerName : fallbackName)
+                    + ", dostupni: " + byName.keySet());
+        }
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDurationMillis);
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.timeoutMillis = timeoutMillis;
+        this.fallbackCounter = Counter.builder("tours.routing.fallbacks")
+                .description("Broj ruta izračunatih rezervnim provajderom")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<Double> routeDistanceKm(List<KeyPoint> keyPoints) {
+        double[] latitudes = new double[keyPoints.size()];
+        double[] longitudes = new double[keyPoints.size()];
+        for (int i = 0; i < keyPoints.size(); i++) {
+            latitudes[i] = keyPoints.get(i).getLatitude();
+            longitudes[i] = keyPoints.get(i).getLongitude();
+        }
+        return routeDistanceKm(latitudes, longitudes);
+    }
+
+    public CompletableFuture<Double> routeDistanceKm(double[] latitudes, double[] longitudes) {
+        return route(latitudes, longitudes).thenApply(RouteResult::getDistanceKm);
+    }
+
+    // Kao routeDistanceKm, uz podatak da li je rezultat dao primarni ili rezervni provajder
+    public CompletableFuture<RouteResult> route(double[] latitudes, double[] longitudes) {
+        if (latitudes.length < 2) {
+            return CompletableFuture.completedFuture(new RouteResult(0.0, primary.getName(), false));
+        }
+        if (primary == fallback) {
+            return primary.routeDistanceKm(latitudes, longitudes)
+                    .thenApply(distanceKm -> new RouteResult(distanceKm, primary.getName(), false));
+        }
+        long permission = circuitBreaker.tryAcquirePermission();
+        if (permission == CircuitBreaker.NO_PERMISSION) {
+            return fallback(latitudes, longitudes, "prekidač je otvoren");
+        }
+        if (!bulkhead.tryAcquire()) {
+            // Odbijen poziv nije greška provajdera i ne utiče na stanje prekidača
+            circuitBreaker.releasePermission(permission);
+            return fallback(latitudes, longitudes, "dostignut je limit istovremenih poziva");
+        }
+
+        CompletableFuture<Double> call;
+        try {
+            call = primary.routeDistanceKm(latitudes, longitudes);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        // Dozvola se vraća tek kad se poziv stvarno završi, i kad je budžet već istekao
+        call.whenComplete((result, error) -> bulkhead.release());
+
+        return call.copy()
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((distanceKm, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess(permission);
+                        return CompletableFuture.completedFuture(new RouteResult(distanceKm, primary.getName(), false));
+                    }
+                    circuitBreaker.onFailure(permission);
+                    return fallback(latitudes, longitudes, primary.getName() + " greška: " + error.getMessage());
+                })
+                .thenCompose(Function.identity());
+    }
+
+    public String getPrimaryProviderName() {
+        return primary.getName();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private CompletableFuture<RouteResult> fallback(double[] latitudes, double[] longitudes, String reason) {
+        fallbackCounter.increment();
+        System.err.println("Rutiranje preko " + fallback.getName() + " (" + reason + ")");
+        return fallback.routeDistanceKm(latitudes, longitudes)
+                .thenApply(distanceKm -> new RouteResult(distanceKm, fallback.getName(), true));
+    }
+}
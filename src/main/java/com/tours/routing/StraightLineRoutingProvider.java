@@ -0,0 +1,25 @@
+package com.tours.routing;
+
+import com.tours.geo.GeoBatchKernels;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Vazdušna linija između uzastopnih tačaka; ne zavisi od mreže pa služi kao podrazumevana rezerva.
+ */
+@Component
+public class StraightLineRoutingProvider implements RoutingProvider {
+
+    public static final String NAME = "straight-line";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<Double> routeDistanceKm(double[] latitudes, double[] longitudes) {
+        return CompletableFuture.completedFuture(GeoBatchKernels.pathLengthMeters(latitudes, longitudes) / 1000.0);
+    }
+}
@@ -0,0 +1,150 @@
+package com.tours.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory invertovani indeks dokumenata (već tokenizovanih termina) sa BM25 rangiranjem.
+ * Termini su u sortiranoj mapi, pa se prefiks upita razvija u opseg termina bez prolaska kroz rečnik.
+ * Izmene su pod write lock-om, a upiti se izvršavaju paralelno pod read lock-om.
+ */
+public class InvertedIndex<K> {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Poklapanje samo po prefiksu vredi manje od celog termina
+    private static final double PREFIX_WEIGHT = 0.7;
+    // Najviše termina u koje se razvija jedan prefiks
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final NavigableMap<String, Map<K, Integer>> postings = new TreeMap<>();
+    private final Map<K, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<K, Integer> lengths = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    // Zamenjuje sadržaj dokumenta; termin koji se ponavlja dobija veću učestanost (koristi se i kao težina polja)
+    public void put(K key, Collection<String> terms) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            if (frequencies.isEmpty()) {
+                return;
+            }
+            documents.put(key, frequencies);
+            lengths.put(key, terms.size());
+            totalLength += terms.size();
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(key, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Dokumenti koji sadrže bar jedan termin upita (ili termin sa tim prefiksom), sortirani po skoru
+    public List<Hit<K>> search(List<String> queryTerms, int limit) {
+        Map<K, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return new ArrayList<>();
+            }
+            double averageLength = (double) totalLength / documents.size();
+            for (String queryTerm : queryTerms) {
+                Map<String, Map<K, Integer>> matches =
+                        postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+                int expansions = 0;
+                for (Map.Entry<String, Map<K, Integer>> match : matches.entrySet()) {
+                    if (expansions++ >= MAX_PREFIX_EXPANSIONS) break;
+                    double weight = match.getKey().equals(queryTerm) ? 1.0 : PREFIX_WEIGHT;
+                    score(match.getValue(), weight, averageLength, scores);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit<K>> hits = new ArrayList<>(scores.size());
+        for (Map.Entry<K, Double> entry : scores.entrySet()) {
+            hits.add(new Hit<>(entry.getKey(), entry.getValue()));
+        }
+        hits.sort((a, b) -> Double.compare(b.score, a.score));
+        return limit > 0 && hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private void score(Map<K, Integer> posting, double weight, double averageLength, Map<K, Double> scores) {
+        int documentCount = documents.size();
+        int documentFrequency = posting.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        for (Map.Entry<K, Integer> entry : posting.entrySet()) {
+            int length = lengths.get(entry.getKey());
+            double tf = entry.getValue();
+            double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+            scores.merge(entry.getKey(), weight * idf * norm, Double::sum);
+        }
+    }
+
+    private void removeLocked(K key) {
+        Map<String, Integer> old = documents.remove(key);
+        if (old == null) {
+            return;
+        }
+        totalLength -= lengths.remove(key);
+        for (String term : old.keySet()) {
+            Map<K, Integer> posting = postings.get(term);
+            posting.remove(key);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    public static final class Hit<K> {
+        private final K key;
+        private final double score;
+
+        private Hit(K key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.tours.service;
+
+import com.tours.enums.TourExecutionStatus;
+import com.tours.model.TourExecution;
+import com.tours.repository.TourExecutionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registar izvršenja tura u statusu STARTED, po korisničkom imenu turiste i po ID-u izvršenja.
+ * Posle učitavanja pri pokretanju servisa registar je glavni izvor za pretragu aktivnih tura i
+ * proveru vlasništva. Operacije nad jednim turistom se serijalizuju kroz zaključavanje po trakama
+ * (lock striping), pa dva paralelna pokretanja ture za istog turistu ne mogu oba da uspeju.
+ */
+@Component
+@DependsOn("completedKeyPointsBackfill")
+public class ActiveTourExecutionRegistry {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final TourExecutionRepository tourExecutionRepository;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Map<String, TourExecution> byUsername = new ConcurrentHashMap<>();
+    private final Map<Long, TourExecution> byId = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ActiveTourExecutionRegistry(TourExecutionRepository tourExecutionRepository) {
+        this.tourExecutionRepository = tourExecutionRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void loadActiveExecutions() {
+        for (TourExecution execution : tourExecutionRepository.findByStatus(TourExecutionStatus.STARTED)) {
+            TourExecution current = byUsername.get(execution.getTouristUsername());
+            // Ako turista ima više zaostalih STARTED izvršenja, važi ono sa najskorijom aktivnošću
+            if (current == null || execution.getLastActivityTime().isAfter(current.getLastActivityTime())) {
+                if (current != null) {
+                    remove(current);
+                }
+                put(execution);
+            }
+        }
+        System.out.println("Učitano " + byId.size() + " aktivnih izvršenja tura u registar.");
+    }
+
+    public <T> T withTouristLock(String touristUsername, Supplier<T> action) {
+        synchronized (locks[Math.floorMod(touristUsername.hashCode(), LOCK_STRIPES)]) {
+            return action.get();
+        }
+    }
+
+    public Optional<TourExecution> findByTouristUsername(String touristUsername) {
+        return Optional.ofNullable(byUsername.get(touristUsername));
+    }
+
+    public Optional<TourExecution> findById(Long executionId) {
+        return Optional.ofNullable(byId.get(executionId));
+    }
+
+    public Collection<TourExecution> getActiveExecutions() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    // Ako se transakcija u kojoj je izvršenje registrovano poništi, izvršenje se uklanja iz registra
+    public void register(TourExecution execution) {
+        put(execution);
+        onRollback(() -> remove(execution));
+    }
+
+    // Pozivaoci pre odjave menjaju status deljene instance iz registra; ako se transakcija poništi,
+    // vraća se stanje STARTED kako u registru ne bi ostalo izvršenje sa statusom koji nije upisan
+    public void unregister(TourExecution execution) {
+        remove(execution);
+        onRollback(() -> withTouristLock(execution.getTouristUsername(), () -> {
+            execution.setStatus(TourExecutionStatus.STARTED);
+            execution.setEndTime(null);
+            put(execution);
+            return null;
+        }));
+    }
+
+    // Uklanjanje bez kompenzacije, za pozive van transakcije (npr. iz reaper-a)
+    public void evict(TourExecution execution) {
+        remove(execution);
+    }
+
+    private void put(TourExecution execution) {
+        byUsername.put(execution.getTouristUsername(), execution);
+        byId.put(execution.getId(), execution);
+    }
+
+    private void remove(TourExecution execution) {
+        byUsername.remove(execution.getTouristUsername(), execution);
+        byId.remove(execution.getId(), execution);
+    }
+
+    private static void onRollback(Runnable compensation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        compensation.run();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.tours.service;
+
+import com.tours.dto.AuthorStats;
+import com.tours.enums.TourStatus;
+import com.tours.repository.KeyPointRepository;
+import com.tours.repository.TourRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Statistika autora (ture po statusu i broj ključnih tačaka) iz memorije. Pri prvom čitanju za autora
+ * izvršavaju se jedan grupisani upit po statusu i jedno brojanje ključnih tačaka, a zatim se brojači
+ * ažuriraju nakon commit-a iz TourService i KeyPointService. Izmena se primenjuje samo na brojače
+ * učitane pre njenog commit-a; ako je učitavanje moglo da vidi već upisanu izmenu, brojači se odbacuju.
+ */
+@Service
+public class AuthorStatsService {
+
+    private final TourRepository tourRepository;
+    private final KeyPointRepository keyPointRepository;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    // Epoha izmena: povećava se pre commit-a svake izmene. Hladno učitavanje se ne pamti ako se epoha
+    // promenila u toku upita, a zapamćeni brojači nose epohu u kojoj su učitani
+    private final AtomicLong epoch = new AtomicLong();
+
+    @Autowired
+    public AuthorStatsService(TourRepository tourRepository, KeyPointRepository keyPointRepository) {
+        this.tourRepository = tourRepository;
+        this.keyPointRepository = keyPointRepository;
+    }
+
+    public AuthorStats getStats(String autorUsername) {
+        Counters current = counters.get(autorUsername);
+        if (current == null) {
+            long loadEpoch = epoch.get();
+            Counters loaded = load(autorUsername, loadEpoch);
+            if (epoch.get() != loadEpoch) {
+                return loaded.snapshot();
+            }
+            current = counters.computeIfAbsent(autorUsername, key -> loaded);
+        }
+        return current.snapshot();
+    }
+
+    public void onTourCreated(String autorUsername) {
+        update(autorUsername, c -> c.draft++);
+    }
+
+    // Brisanje ture uklanja i njene ključne tačke iz statistike, pa se autor ponovo učitava
+    public void onTourDeleted(String autorUsername) {
+        afterCommit(changeEpoch -> counters.remove(autorUsername));
+    }
+
+    public void onStatusChanged(String autorUsername, TourStatus from, TourStatus to) {
+        update(autorUsername, c -> {
+            c.add(from, -1);
+            c.add(to, 1);
+        });
+    }
+
+    public void onKeyPointsChanged(String autorUsername, long delta) {
+        update(autorUsername, c -> c.keyPoints += delta);
+    }
+
+    private Counters load(String autorUsername, long loadEpoch) {
+        Counters loaded = new Counters(loadEpoch);
+        for (Object[] row : tourRepository.countByStatusForAuthor(autorUsername)) {
+            loaded.add((TourStatus) row[0], ((Number) row[1]).longValue());
+        }
+        loaded.keyPoints = keyPointRepository.countByAuthorUsername(autorUsername);
+        return loaded;
+    }
+
+    private void update(String autorUsername, Consumer<Counters> change) {
+        afterCommit(changeEpoch -> {
+            Counters current = counters.get(autorUsername);
+            if (current == null) {
+                return;
+            }
+            if (current.loadEpoch >= changeEpoch) {
+                // Brojači su učitani posle početka commit-a i možda već sadrže ovu izmenu
+                counters.remove(autorUsername, current);
+                return;
+            }
+            synchronized (current) {
+                change.accept(current);
+            }
+        });
+    }
+
+    // Akcija dobija epohu izmene, dodeljenu pre commit-a, odnosno pre nego što izmena postane vidljiva upitima
+    private void afterCommit(LongConsumer action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private long changeEpoch;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    changeEpoch = epoch.incrementAndGet();
+                }
+
+                @Override
+                public void afterCommit() {
+                    action.accept(changeEpoch);
+                }
+            });
+        } else {
+            action.accept(epoch.incrementAndGet());
+        }
+    }
+
+    // Menja se i čita pod monitorom samog objekta
+    private static final class Counters {
+        private final long loadEpoch;
+        private long draft;
+        private long published;
+        private long archived;
+        private long keyPoints;
+
+        private Counters(long loadEpoch) {
+            this.loadEpoch = loadEpoch;
+        }
+
+        private void add(TourStatus status, long delta) {
+            if (status == null) {
+                return;
+            }
+            switch (status) {
+                case DRAFT -> draft += delta;
+                case PUBLISHED -> published += delta;
+                case ARCHIVED -> archived += delta;
+            }
+        }
+
+        private synchronized AuthorStats snapshot() {
+            return new AuthorStats(draft, published, archived, keyPoints);
+        }
+    }
+}
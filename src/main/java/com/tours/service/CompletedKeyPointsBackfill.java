@@ -0,0 +1,73 @@
+package com.tours.service;
+
+import com.tours.geo.KeyPointGeometry;
+import com.tours.model.TourExecution;
+import com.tours.repository.TourExecutionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jednokratni prenos završenih ključnih tačaka iz stare tabele tour_execution_completed_key_points
+ * u bitset kolonu completed_key_points_bits. Obrađuju se samo izvršenja kojima bitset još nije postavljen.
+ */
+@Component
+public class CompletedKeyPointsBackfill {
+
+    private static final String LEGACY_ROWS_SQL =
+            "SELECT c.tour_execution_id, c.key_point_id FROM tour_execution_completed_key_points c " +
+            "JOIN tour_executions te ON te.id = c.tour_execution_id WHERE te.completed_key_points_bits IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TourExecutionRepository tourExecutionRepository;
+    private final KeyPointSpatialIndex keyPointSpatialIndex;
+
+    @Autowired
+    public CompletedKeyPointsBackfill(JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      TourExecutionRepository tourExecutionRepository,
+                                      KeyPointSpatialIndex keyPointSpatialIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.tourExecutionRepository = tourExecutionRepository;
+        this.keyPointSpatialIndex = keyPointSpatialIndex;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        Map<Long, List<Long>> completedByExecution = new HashMap<>();
+        try {
+            jdbcTemplate.query(LEGACY_ROWS_SQL, rs -> {
+                completedByExecution.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2));
+            });
+        } catch (DataAccessException e) {
+            return; // Stara tabela ne postoji (nova baza), nema šta da se prenese
+        }
+        if (completedByExecution.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (TourExecution execution : tourExecutionRepository.findAllById(completedByExecution.keySet())) {
+                KeyPointGeometry geometry = keyPointSpatialIndex.getGeometry(execution.getTourId());
+                execution.setCompletedKeyPointBits(new long[0]);
+                for (Long keyPointId : completedByExecution.get(execution.getId())) {
+                    int ordinal = geometry.ordinalOf(keyPointId);
+                    if (ordinal >= 0) {
+                        execution.markKeyPointCompleted(ordinal);
+                    }
+                }
+            }
+        });
+        System.out.println("Preneto stanje ključnih tačaka u bitset za " + completedByExecution.size() + " izvršenja tura.");
+    }
+}
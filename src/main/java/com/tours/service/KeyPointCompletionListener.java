@@ -0,0 +1,37 @@
+package com.tours.service;
+
+import com.tours.enums.GeofenceEventType;
+import com.tours.enums.TourExecutionStatus;
+import com.tours.geofence.GeofenceEvent;
+import com.tours.geofence.GeofenceListener;
+import com.tours.model.TourExecution;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Ulazak u geofence ključne tačke je označava kao završenu; kada su sve završene, tura je kompletirana
+@Component
+public class KeyPointCompletionListener implements GeofenceListener {
+
+    @Override
+    public void onGeofenceEvent(GeofenceEvent event, TourExecution execution) {
+        if (event.getType() != GeofenceEventType.ENTER || execution.getStatus() != TourExecutionStatus.STARTED) {
+            return;
+        }
+
+        if (execution.markKeyPointCompleted(event.getOrdinal())) {
+            if (execution.getCompletedKeyPoints() != null) {
+                execution.getCompletedKeyPoints().add(event.getKeyPointId());
+            }
+            // Možda dodati logiku za beleženje vremena dostizanja KP ako je potrebno
+            System.out.println("Turista " + execution.getTouristUsername() + " je dostigao ključnu tačku: " + event.getKeyPointId());
+        }
+
+        // Ako su sve ključne tačke kompletirane, promeni status ture u COMPLETED
+        if (execution.allKeyPointsCompleted(event.getKeyPointCount())) {
+            execution.setStatus(TourExecutionStatus.COMPLETED);
+            execution.setEndTime(LocalDateTime.now());
+            System.out.println("Tura " + execution.getTourId() + " je kompletirana od strane " + execution.getTouristUsername());
+        }
+    }
+}
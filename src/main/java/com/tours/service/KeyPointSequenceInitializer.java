@@ -0,0 +1,44 @@
+package com.tours.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Usklađuje sekvencu key_points_seq sa postojećim ID-evima pri pokretanju. Ključne tačke su ranije
+ * dobijale ID iz IDENTITY kolone, pa nova sekvenca kreće od početka i dala bi već zauzete ID-eve.
+ * Hibernate (pooled optimizator) iz vrednosti v koristi opseg [v - ALLOCATION_SIZE + 1, v].
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class KeyPointSequenceInitializer {
+
+    // Mora da odgovara allocationSize u KeyPoint i INCREMENT BY sekvence
+    static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public KeyPointSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequence() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM key_points", Long.class);
+            Long next = jdbcTemplate.queryForObject("SELECT nextval('key_points_seq')", Long.class);
+            // Opseg koji bi Hibernate dobio iz ove vrednosti ne sme da sadrži postojeći ID
+            if (maxId != null && next != null && next - ALLOCATION_SIZE + 1 <= maxId) {
+                long restartWith = maxId + ALLOCATION_SIZE;
+                jdbcTemplate.execute("ALTER SEQUENCE key_points_seq RESTART WITH " + restartWith);
+                System.out.println("Sekvenca key_points_seq pomerena na " + restartWith + " (najveći ID ključne tačke: " + maxId + ")");
+            }
+        } catch (DataAccessException e) {
+            System.err.println("Provera sekvence key_points_seq nije uspela: " + e.getMessage());
+        }
+    }
+}
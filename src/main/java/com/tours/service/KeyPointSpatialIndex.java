@@ -0,0 +1,225 @@
+package com.tours.service;
+
+import com.tours.geo.GeoBatchKernels;
+import com.tours.geo.GeoMath;
+import com.tours.geo.KeyPointGeometry;
+import com.tours.model.KeyPoint;
+import com.tours.repository.KeyPointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory grid indeks ključnih tačaka po turi. Ključne tačke jedne ture se učitavaju
+ * iz baze samo jednom, a zatim se upiti "koje su tačke u krugu od R metara" odgovaraju
+ * pregledom nekoliko susednih ćelija umesto poziva bazi i prolaska kroz sve tačke.
+ * U memoriji se drži najviše maxTours tura (LRU); ostale se ponovo učitaju pri sledećem upitu.
+ */
+@Component
+public class KeyPointSpatialIndex {
+
+    // Veličina ćelije u stepenima (~550 m po geografskoj širini)
+    private static final double CELL_SIZE_DEGREES = 0.005;
+
+    // Redosled tačaka na putanji ture. ID-evi iz sekvence sa allocationSize 50 više instanci nisu
+    // u redosledu kreiranja, pa odlučuje vreme kreiranja, a ID samo razrešava jednaka vremena
+    public static final Comparator<KeyPoint> PATH_ORDER =
+            Comparator.comparing(KeyPoint::getCreatedAt).thenComparing(KeyPoint::getId);
+
+    private final KeyPointRepository keyPointRepository;
+    // Pristupa se samo pod monitorom same mape; učitavanje iz baze je van njega
+    private final Map<Long, TourKeyPoints> grids;
+
+    @Autowired
+    public KeyPointSpatialIndex(KeyPointRepository keyPointRepository,
+                                @Value("${tours.keypoints.index.max-tours:10000}") int maxTours) {
+        this.keyPointRepository = keyPointRepository;
+        this.grids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TourKeyPoints> eldest) {
+                return size() > maxTours;
+            }
+        };
+    }
+
+    // Konzistentan snimak ključnih tačaka ture (lista, geometrija i grid iz istog učitavanja)
+    public TourKeyPoints forTour(Long tourId) {
+        TourKeyPoints tourKeyPoints;
+        synchronized (grids) {
+            tourKeyPoints = grids.get(tourId);
+        }
+        if (tourKeyPoints == null) {
+            List<KeyPoint> keyPoints = new ArrayList<>(keyPointRepository.findByTourId(tourId));
+            keyPoints.sort(PATH_ORDER);
+            TourKeyPoints loaded = new TourKeyPoints(keyPoints);
+            synchronized (grids) {
+                tourKeyPoints = grids.putIfAbsent(tourId, loaded);
+            }
+            if (tourKeyPoints == null) {
+                tourKeyPoints = loaded;
+            }
+        }
+        return tourKeyPoints;
+    }
+
+    public List<KeyPoint> getKeyPoints(Long tourId) {
+        return forTour(tourId).getKeyPoints();
+    }
+
+    public KeyPointGeometry getGeometry(Long tourId) {
+        return forTour(tourId).getGeometry();
+    }
+
+    public List<KeyPoint> findWithinRadius(Long tourId, double latitude, double longitude, double radiusMeters) {
+        TourKeyPoints tourKeyPoints = forTour(tourId);
+        int[] ordinals = new int[tourKeyPoints.size()];
+        int count = tourKeyPoints.findOrdinalsWithinRadius(latitude, longitude, radiusMeters, ordinals);
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        List<KeyPoint> result = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            result.add(tourKeyPoints.getKeyPoints().get(ordinals[k]));
+        }
+        return result;
+    }
+
+    // Poziva se iz KeyPointService pri svakoj izmeni ključnih tačaka ture i iz TourService pri brisanju ture
+    public void invalidate(Long tourId) {
+        remove(tourId);
+        // Ako je izmena deo transakcije, izbaci turu ponovo nakon commit-a kako paralelni
+        // upit ne bi ostavio u indeksu stanje učitano pre nego što je izmena vidljiva
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(tourId);
+                }
+            });
+        }
+    }
+
+    private void remove(Long tourId) {
+        synchronized (grids) {
+            grids.remove(tourId);
+        }
+    }
+
+    private static int cell(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    /**
+     * Ključne tačke jedne ture u redosledu PATH_ORDER (vreme kreiranja, pa ID); indeks tačke u listi
+     * je njen ordinal u geometriji.
+     * Koordinate na jediničnoj sferi su dodatno poređane po ćelijama, tako da su tačke jedne ćelije
+     * uzastopne u nizovima i mogu se proveriti paketno (GeoBatchKernels).
+     * Ordinali se čuvaju u bitsetu izvršenja; KeyPointService menja tačke samo dok je tura u DRAFT,
+     * a izvršenja nastaju tek za objavljenu turu, pa se skup tačaka ture sa izvršenjima ne menja.
+     */
+    public static final class TourKeyPoints {
+        private final List<KeyPoint> keyPoints;
+        private final KeyPointGeometry geometry;
+        // Ključ ćelije -> [od, do) u nizovima poređanim po ćelijama
+        private final Map<Long, int[]> cells = new HashMap<>();
+        private final int[] cellOrdinals;
+        private final double[] cellX;
+        private final double[] cellY;
+        private final double[] cellZ;
+
+        private TourKeyPoints(List<KeyPoint> keyPoints) {
+            this.keyPoints = Collections.unmodifiableList(keyPoints);
+            this.geometry = KeyPointGeometry.of(keyPoints);
+
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int i = 0; i < geometry.size(); i++) {
+                long key = cellKey(cell(geometry.latitude(i)), cell(geometry.longitude(i)));
+                buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+
+            int size = geometry.size();
+            cellOrdinals = new int[size];
+            cellX = new double[size];
+            cellY = new double[size];
+            cellZ = new double[size];
+            int position = 0;
+            for (Map.Entry<Long, List<Integer>> bucket : buckets.entrySet()) {
+                int from = position;
+                for (int ordinal : bucket.getValue()) {
+                    double latitude = geometry.latitude(ordinal);
+                    double longitude = geometry.longitude(ordinal);
+                    cellOrdinals[position] = ordinal;
+                    cellX[position] = KeyPointGeometry.unitX(latitude, longitude);
+                    cellY[position] = KeyPointGeometry.unitY(latitude, longitude);
+                    cellZ[position] = KeyPointGeometry.unitZ(latitude);
+                    position++;
+                }
+                cells.put(bucket.getKey(), new int[]{from, position});
+            }
+        }
+
+        public List<KeyPoint> getKeyPoints() {
+            return keyPoints;
+        }
+
+        public KeyPointGeometry getGeometry() {
+            return geometry;
+        }
+
+        public int size() {
+            return keyPoints.size();
+        }
+
+        // Upisuje ordinale tačaka u krugu u out (dužine bar size(), npr. bafer koji pozivalac ponovo koristi)
+        // i vraća njihov broj; na putanji provere pozicije se ništa ne alocira
+        public int findOrdinalsWithinRadius(double latitude, double longitude, double radiusMeters, int[] out) {
+            if (keyPoints.isEmpty()) {
+                return 0;
+            }
+            if (out.length < keyPoints.size()) {
+                throw new IllegalArgumentException("Bafer mora imati mesta za " + keyPoints.size() + " ordinala");
+            }
+
+            double qx = KeyPointGeometry.unitX(latitude, longitude);
+            double qy = KeyPointGeometry.unitY(latitude, longitude);
+            double qz = KeyPointGeometry.unitZ(latitude);
+            double maxChordSquared = GeoMath.chordSquaredForDistance(radiusMeters);
+
+            int latSpan = (int) Math.ceil(radiusMeters / GeoMath.METERS_PER_DEGREE_LAT / CELL_SIZE_DEGREES);
+            double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+            int lonSpan = (int) Math.ceil(radiusMeters / (GeoMath.METERS_PER_DEGREE_LAT * cosLat) / CELL_SIZE_DEGREES);
+            int latCell = cell(latitude);
+            int lonCell = cell(longitude);
+
+            // Svaka tačka je u tačno jednoj ćeliji, pa pozicija ima najviše size() i staju u out
+            int count = 0;
+            for (int i = latCell - latSpan; i <= latCell + latSpan; i++) {
+                for (int j = lonCell - lonSpan; j <= lonCell + lonSpan; j++) {
+                    int[] range = cells.get(cellKey(i, j));
+                    if (range == null) continue;
+                    count = GeoBatchKernels.collectWithin(qx, qy, qz, maxChordSquared,
+                            cellX, cellY, cellZ, range[0], range[1], out, count);
+                }
+            }
+
+            for (int k = 0; k < count; k++) {
+                out[k] = cellOrdinals[out[k]];
+            }
+            return count;
+        }
+    }
+}
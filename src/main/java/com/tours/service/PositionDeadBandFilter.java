@@ -0,0 +1,75 @@
+package com.tours.service;
+
+import com.tours.geo.GeoMath;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mrtva zona za pozicije turista koji stoje u mestu. Pozicija koja je bliža od podešenog broja metara
+ * poslednjoj prihvaćenoj poziciji istog izvršenja i stigla je pre isteka minimalnog intervala se odbacuje,
+ * pa se za nju ne radi provera ključnih tačaka niti upis u bazu.
+ */
+@Component
+public class PositionDeadBandFilter {
+
+    private final double minDistanceMeters;
+    private final long minIntervalMillis;
+    private final Counter acceptedCounter;
+    private final Counter suppressedCounter;
+    private final Map<Long, AcceptedFix> lastAcceptedFixes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PositionDeadBandFilter(MeterRegistry meterRegistry,
+                                  @Value("${tours.execution.dead-band.meters:5}") double minDistanceMeters,
+                                  @Value("${tours.execution.dead-band.min-interval-ms:30000}") long minIntervalMillis) {
+        this.minDistanceMeters = minDistanceMeters;
+        this.minIntervalMillis = minIntervalMillis;
+        this.acceptedCounter = Counter.builder("tours.positions.accepted")
+                .description("Pozicije koje su prošle punu obradu")
+                .register(meterRegistry);
+        this.suppressedCounter = Counter.builder("tours.positions.suppressed")
+                .description("Pozicije odbačene jer su unutar mrtve zone")
+                .register(meterRegistry);
+    }
+
+    // Vraća true ako poziciju treba obraditi, false ako je unutar mrtve zone
+    public boolean accept(Long executionId, double latitude, double longitude, LocalDateTime timestamp) {
+        long time = (timestamp != null ? timestamp : LocalDateTime.now()).toInstant(ZoneOffset.UTC).toEpochMilli();
+        AcceptedFix last = lastAcceptedFixes.get(executionId);
+        if (last != null
+                && time >= last.time
+                && time - last.time < minIntervalMillis
+                && GeoMath.distanceMeters(last.latitude, last.longitude, latitude, longitude) < minDistanceMeters) {
+            suppressedCounter.increment();
+            return false;
+        }
+
+        lastAcceptedFixes.put(executionId, new AcceptedFix(latitude, longitude, time));
+        acceptedCounter.increment();
+        return true;
+    }
+
+    public void forget(Long executionId) {
+        lastAcceptedFixes.remove(executionId);
+    }
+
+    private static final class AcceptedFix {
+        private final double latitude;
+        private final double longitude;
+        private final long time;
+
+        private AcceptedFix(double latitude, double longitude, long time) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.tours.service;
+
+import com.tours.cache.ReadThroughCache;
+import com.tours.enums.TourStatus;
+import com.tours.model.Tour;
+import com.tours.repository.TourRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keš objavljenih tura za turiste: ceo skup objavljenih tura i pojedinačne objavljene ture.
+ * TourService ga invalidira nakon commit-a svake promene statusa, brisanja ili izmene dužine ture;
+ * TTL samo ograničava starost ako se baza menja mimo ovog servisa. U kešu su kopije odvojene od
+ * persistence context-a, a svaki pozivalac dobija svoju kopiju, pa izmena vraćenog entiteta ne
+ * menja keš niti ono što vide drugi pozivaoci.
+ */
+@Component
+public class PublishedTourCache {
+
+    private static final String ALL_PUBLISHED = "published";
+
+    private final TourRepository tourRepository;
+    private final ReadThroughCache<String, List<Tour>> catalog;
+    private final ReadThroughCache<Long, Optional<Tour>> tours;
+
+    @Autowired
+    public PublishedTourCache(TourRepository tourRepository,
+                              @Value("${tours.cache.published.max-size:1000}") int maxSize,
+                              @Value("${tours.cache.published.ttl-seconds:60}") long ttlSeconds) {
+        this.tourRepository = tourRepository;
+        this.catalog = new ReadThroughCache<>(1, Duration.ofSeconds(ttlSeconds));
+        this.tours = new ReadThroughCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public List<Tour> getPublishedTours() {
+        return copyAll(catalog.get(ALL_PUBLISHED,
+                key -> Collections.unmodifiableList(copyAll(tourRepository.findByStatus(TourStatus.PUBLISHED)))));
+    }
+
+    public Optional<Tour> getPublishedTour(Long tourId) {
+        return tours.get(tourId,
+                id -> tourRepository.findById(id).filter(tour -> tour.getStatus() == TourStatus.PUBLISHED)
+                        .map(PublishedTourCache::copy))
+                .map(PublishedTourCache::copy);
+    }
+
+    // Poziva se iz TourService pri promeni ture; keš se prazni nakon commit-a da ne bi ponovo učitao staro stanje
+    public void invalidate(Long tourId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(tourId);
+                }
+            });
+        } else {
+            evict(tourId);
+        }
+    }
+
+    private void evict(Long tourId) {
+        tours.invalidate(tourId);
+        catalog.invalidateAll();
+    }
+
+    private static List<Tour> copyAll(List<Tour> source) {
+        List<Tour> copies = new ArrayList<>(source.size());
+        for (Tour tour : source) {
+            copies.add(copy(tour));
+        }
+        return copies;
+    }
+
+    private static Tour copy(Tour source) {
+        Tour tour = new Tour();
+        tour.setId(source.getId());
+        tour.setNaziv(source.getNaziv());
+        tour.setOpis(source.getOpis());
+        tour.setTagovi(source.getTagovi());
+        tour.setTezina(source.getTezina());
+        tour.setStatus(source.getStatus());
+        tour.setCijena(source.getCijena());
+        tour.setRecenzijaId(source.getRecenzijaId());
+        tour.setAutorUsername(source.getAutorUsername());
+        tour.setCreatedAt(source.getCreatedAt());
+        tour.setUpdatedAt(source.getUpdatedAt());
+        tour.setDuzina(source.getDuzina());
+        tour.setVremeObjave(source.getVremeObjave());
+        tour.setVremeArhiviranja(source.getVremeArhiviranja());
+        tour.setPrevozi(new HashMap<>(source.getPrevozi()));
+        return tour;
+    }
+}
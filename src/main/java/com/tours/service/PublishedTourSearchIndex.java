@@ -0,0 +1,85 @@
+package com.tours.service;
+
+import com.tours.enums.TourStatus;
+import com.tours.model.Tour;
+import com.tours.repository.TourRepository;
+import com.tours.search.InvertedIndex;
+import com.tours.search.TextNormalizer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Pretraga objavljenih tura po rečima iz naziva i opisa. Indeks se puni pri pokretanju,
+ * a zatim ažurira inkrementalno pri objavi, arhiviranju, aktivaciji, izmeni i brisanju ture.
+ */
+@Component
+public class PublishedTourSearchIndex {
+
+    // Reči iz naziva se dodaju više puta, pa poklapanje u nazivu vredi više od poklapanja u opisu
+    private static final int NAZIV_WEIGHT = 2;
+
+    private final TourRepository tourRepository;
+    private final InvertedIndex<Long> index = new InvertedIndex<>();
+
+    @Autowired
+    public PublishedTourSearchIndex(TourRepository tourRepository) {
+        this.tourRepository = tourRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        for (Object[] row : tourRepository.findSearchableTextByStatus(TourStatus.PUBLISHED)) {
+            index.put((Long) row[0], terms((String) row[1], (String) row[2]));
+        }
+        System.out.println("Učitano " + index.size() + " objavljenih tura u indeks pretrage");
+    }
+
+    // ID-evi objavljenih tura sortirani po relevantnosti za upit
+    public List<InvertedIndex.Hit<Long>> search(String query, int limit) {
+        List<String> queryTerms = TextNormalizer.tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return index.search(queryTerms, limit);
+    }
+
+    // Poziva se iz TourService pri promeni ture; stanje se čita nakon commit-a
+    public void refresh(Long tourId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(tourId);
+                }
+            });
+        } else {
+            reload(tourId);
+        }
+    }
+
+    private void reload(Long tourId) {
+        Optional<Tour> tour = tourRepository.findById(tourId);
+        if (tour.isEmpty() || tour.get().getStatus() != TourStatus.PUBLISHED) {
+            index.remove(tourId);
+            return;
+        }
+        index.put(tourId, terms(tour.get().getNaziv(), tour.get().getOpis()));
+    }
+
+    private static List<String> terms(String naziv, String opis) {
+        List<String> terms = new ArrayList<>();
+        List<String> nazivTerms = TextNormalizer.tokenize(naziv);
+        for (int i = 0; i < NAZIV_WEIGHT; i++) {
+            terms.addAll(nazivTerms);
+        }
+        terms.addAll(TextNormalizer.tokenize(opis));
+        return terms;
+    }
+}
@@ -0,0 +1,79 @@
+package com.tours.service;
+
+import com.tours.enums.TourStatus;
+import com.tours.geo.GeoGrid;
+import com.tours.model.KeyPoint;
+import com.tours.model.Tour;
+import com.tours.repository.KeyPointRepository;
+import com.tours.repository.TourRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Grid objavljenih tura po početnoj (prvoj kreiranoj) ključnoj tački, za upite "ture u blizini".
+ * Ažurira se inkrementalno pri objavi, arhiviranju, aktivaciji i brisanju ture.
+ */
+@Component
+public class PublishedTourSpatialIndex {
+
+    // Veličina ćelije u stepenima (~5,5 km po geografskoj širini), ture su ređe od turista
+    private static final double CELL_SIZE_DEGREES = 0.05;
+
+    private final TourRepository tourRepository;
+    private final KeyPointRepository keyPointRepository;
+    private final GeoGrid<Long> grid = new GeoGrid<>(CELL_SIZE_DEGREES);
+
+    @Autowired
+    public PublishedTourSpatialIndex(TourRepository tourRepository, KeyPointRepository keyPointRepository) {
+        this.tourRepository = tourRepository;
+        this.keyPointRepository = keyPointRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        for (KeyPoint start : keyPointRepository.findStartKeyPointsByTourStatus(TourStatus.PUBLISHED)) {
+            grid.put(start.getTourId(), start.getLatitude(), start.getLongitude());
+        }
+        System.out.println("Učitano " + grid.size() + " objavljenih tura u prostorni indeks");
+    }
+
+    // Objavljene ture čija je početna tačka u krugu od radiusMeters, sortirane po udaljenosti
+    public List<GeoGrid.Neighbor<Long>> findWithinRadius(double latitude, double longitude, double radiusMeters, int limit) {
+        return grid.withinRadius(latitude, longitude, radiusMeters, limit);
+    }
+
+    // Poziva se iz TourService pri promeni statusa ili brisanju ture; stanje se čita nakon commit-a
+    public void refresh(Long tourId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(tourId);
+                }
+            });
+        } else {
+            reload(tourId);
+        }
+    }
+
+    private void reload(Long tourId) {
+        Optional<Tour> tour = tourRepository.findById(tourId);
+        if (tour.isEmpty() || tour.get().getStatus() != TourStatus.PUBLISHED) {
+            grid.remove(tourId);
+            return;
+        }
+
+        Optional<KeyPoint> start = keyPointRepository.findFirstByTourIdOrderByCreatedAtAscIdAsc(tourId);
+        if (start.isPresent()) {
+            grid.put(tourId, start.get().getLatitude(), start.get().getLongitude());
+        } else {
+            grid.remove(tourId);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.tours.service;
+
+import com.tours.dto.TourExecutionEvent;
+import com.tours.enums.TourExecutionEventType;
+import com.tours.enums.TourExecutionStatus;
+import com.tours.geofence.GeofenceEngine;
+import com.tours.model.TourExecution;
+import com.tours.repository.TourExecutionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Periodično označava kao ABANDONED izvršenja tura koja su u statusu STARTED, a nisu imala
+ * aktivnost duže od podešenog vremena (klijent je nestao). Kandidati se čitaju po indeksu
+ * (status, last_activity_time, id) u delovima, a status se menja jednim bulk UPDATE-om po delu.
+ * Izvršenja se iz registra uklanjaju tek nakon commit-a tog UPDATE-a. Kandidatima koji su po
+ * registru i dalje aktivni se u istom prolazu upisuje vreme poslednje aktivnosti.
+ */
+@Component
+public class StaleTourExecutionReaper {
+
+    private final TourExecutionRepository tourExecutionRepository;
+    private final ActiveTourExecutionRegistry activeExecutions;
+    private final PositionDeadBandFilter deadBandFilter;
+    private final GeofenceEngine geofenceEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter reapedCounter;
+    private final Duration idleTimeout;
+    private final int chunkSize;
+
+    @Autowired
+    public StaleTourExecutionReaper(TourExecutionRepository tourExecutionRepository,
+                                    ActiveTourExecutionRegistry activeExecutions,
+                                    PositionDeadBandFilter deadBandFilter,
+                                    GeofenceEngine geofenceEngine,
+                                    TransactionTemplate transactionTemplate,
+                                    ApplicationEventPublisher eventPublisher,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${tours.execution.reaper.idle-timeout-minutes:120}") long idleTimeoutMinutes,
+                                    @Value("${tours.execution.reaper.chunk-size:500}") int chunkSize) {
+        this.tourExecutionRepository = tourExecutionRepository;
+        this.activeExecutions = activeExecutions;
+        this.deadBandFilter = deadBandFilter;
+        this.geofenceEngine = geofenceEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.reapedCounter = Counter.builder("tours.executions.reaped")
+                .description("Broj izvršenja tura koja su zbog neaktivnosti označena kao ABANDONED")
+                .register(meterRegistry);
+        this.idleTimeout = Duration.ofMinutes(idleTimeoutMinutes);
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${tours.execution.reaper.interval-ms:60000}",
+               initialDelayString = "${tours.execution.reaper.interval-ms:60000}")
+    public void reapStaleExecutions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(idleTimeout);
+        LocalDateTime afterTime = null;
+        Long afterId = null;
+        int reaped = 0;
+
+        while (true) {
+            List<Object[]> candidates = afterId == null
+                    ? tourExecutionRepository.findIdsByStatusAndLastActivityBefore(
+                            TourExecutionStatus.STARTED, cutoff, PageRequest.of(0, chunkSize))
+                    : tourExecutionRepository.findIdsByStatusAndLastActivityBeforeAfter(
+                            TourExecutionStatus.STARTED, cutoff, afterTime, afterId, PageRequest.of(0, chunkSize));
+            if (candidates.isEmpty()) {
+                break;
+            }
+            Object[] last = candidates.get(candidates.size() - 1);
+            afterId = (Long) last[0];
+            afterTime = (LocalDateTime) last[1];
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> staleIds = new ArrayList<>(candidates.size());
+            List<TourExecution> claimed = new ArrayList<>();
+            Map<Long, LocalDateTime> alive = new LinkedHashMap<>();
+            for (Object[] row : candidates) {
+                Long executionId = (Long) row[0];
+                LocalDateTime persistedActivity = (LocalDateTime) row[1];
+                Optional<TourExecution> active = activeExecutions.findById(executionId);
+                if (active.isEmpty()) {
+                    staleIds.add(executionId);
+                    continue;
+                }
+
+                // Pozicije se između promena stanja čuvaju samo u registru, pa je vreme poslednje
+                // aktivnosti u memoriji merodavno. Provera i označavanje se rade pod istim zaključavanjem
+                // turiste: izvršenje označeno kao ABANDONED više ne prima pozicije pre UPDATE-a.
+                TourExecution execution = active.get();
+                boolean stale = activeExecutions.withTouristLock(execution.getTouristUsername(), () -> {
+                    if (execution.getStatus() != TourExecutionStatus.STARTED) {
+                        return false;
+                    }
+                    LocalDateTime lastActivity = execution.getLastActivityTime();
+                    if (!lastActivity.isBefore(cutoff)) {
+                        if (lastActivity.isAfter(persistedActivity)) {
+                            alive.put(executionId, lastActivity);
+                        }
+                        return false;
+                    }
+                    execution.setStatus(TourExecutionStatus.ABANDONED);
+                    execution.setEndTime(now);
+                    return true;
+                });
+                if (stale) {
+                    staleIds.add(executionId);
+                    claimed.add(execution);
+                }
+            }
+            if (staleIds.isEmpty() && alive.isEmpty()) {
+                continue;
+            }
+
+            Integer updated;
+            try {
+                updated = transactionTemplate.execute(status -> {
+                    // Aktivna izvršenja dobijaju vreme iz registra, pa ih sledeći prolazi ne čitaju ponovo
+                    alive.forEach((executionId, lastActivity) -> tourExecutionRepository.advanceLastActivityTime(
+                            executionId, TourExecutionStatus.STARTED, lastActivity));
+                    if (staleIds.isEmpty()) {
+                        return 0;
+                    }
+
+                    int count = tourExecutionRepository.updateStatusByIds(
+                            staleIds, TourExecutionStatus.STARTED, TourExecutionStatus.ABANDONED, cutoff, now);
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            staleIds.forEach(executionId -> evict(executionId, now));
+                        }
+                    });
+                    // Otvoreni kanali se obaveštavaju nakon commit-a
+                    for (Long executionId : staleIds) {
+                        eventPublisher.publishEvent(TourExecutionEvent.finished(TourExecutionEventType.TOUR_ABANDONED, executionId));
+                    }
+                    return count;
+                });
+            } catch (RuntimeException e) {
+                claimed.forEach(this::release);
+                throw e;
+            }
+            if (updated != null) {
+                reaped += updated;
+                reapedCounter.increment(updated);
+            }
+        }
+
+        if (reaped > 0) {
+            System.out.println("Označeno kao napušteno " + reaped + " neaktivnih izvršenja tura.");
+        }
+    }
+
+    // Ako UPDATE nije upisan, izvršenje se vraća u STARTED kako bi turista mogao da nastavi
+    private void release(TourExecution execution) {
+        activeExecutions.withTouristLock(execution.getTouristUsername(), () -> {
+            execution.setStatus(TourExecutionStatus.STARTED);
+            execution.setEndTime(null);
+            return null;
+        });
+    }
+
+    // Nakon commit-a je baza merodavna: izvršenje je ABANDONED i uklanja se iz registra
+    private void evict(Long executionId, LocalDateTime endTime) {
+        activeExecutions.findById(executionId).ifPresent(execution ->
+                activeExecutions.withTouristLock(execution.getTouristUsername(), () -> {
+                    execution.setStatus(TourExecutionStatus.ABANDONED);
+                    execution.setEndTime(endTime);
+                    activeExecutions.evict(execution);
+                    return null;
+                }));
+        deadBandFilter.forget(executionId);
+        geofenceEngine.forget(executionId);
+    }
+}
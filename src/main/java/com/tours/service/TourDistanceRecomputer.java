@@ -0,0 +1,229 @@
+package com.tours.service;
+
+import com.tours.geo.GeoMath;
+import com.tours.model.KeyPoint;
+import com.tours.model.TourSegment;
+import com.tours.repository.TourSegmentRepository;
+import com.tours.routing.RouteResult;
+import com.tours.routing.RoutingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pozadinski preračun dužine ture i vremena prevoza nakon izmena ključnih tačaka.
+ * Izmene iste ture se spajaju: preračun kreće tek kada prođe period mirovanja od poslednje izmene.
+ * Dužina se vodi po deonicama (TourSegment), pa se rutiraju samo deonice koje je izmena promenila:
+ * dodavanje tačke na kraj je jedna nova deonica, izmena ili brisanje tačke u sredini najviše dve.
+ * Deonice se šalju u delovima od najviše routeBatchSize poziva, sledeći deo tek kad se prethodni
+ * završi, kako ne bi same popunile bulkhead rutiranja. Ako neka deonica dobije rezultat rezervnog
+ * provajdera, preostali delovi se ne šalju i tura se ponovo zakazuje sa eksponencijalnim razmakom.
+ */
+@Component
+public class TourDistanceRecomputer {
+
+    private final KeyPointSpatialIndex keyPointSpatialIndex;
+    private final TourService tourService;
+    private final RoutingService routingService;
+    private final TourSegmentRepository tourSegmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long quietPeriodMillis;
+    private final int routeBatchSize;
+    private final long retryBackoffMillis;
+    private final long maxRetryBackoffMillis;
+
+    // Tura -> trenutak (System.nanoTime) posle kog se preračunava
+    private final Map<Long, Long> dueAt = new ConcurrentHashMap<>();
+    // Tura -> broj uzastopnih preračuna u kojima rutiranje nije uspelo za sve deonice
+    private final Map<Long, Integer> retryAttempts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TourDistanceRecomputer(KeyPointSpatialIndex keyPointSpatialIndex,
+                                  TourService tourService,
+                                  RoutingService routingService,
+                                  TourSegmentRepository tourSegmentRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${tours.distance.recompute.quiet-period-ms:2000}") long quietPeriodMillis,
+                                  @Value("${tours.distance.recompute.route-batch-size:4}") int routeBatchSize,
+                                  @Value("${tours.distance.recompute.retry-backoff-ms:5000}") long retryBackoffMillis,
+                                  @Value("${tours.distance.recompute.max-retry-backoff-ms:300000}") long maxRetryBackoffMillis) {
+        if (routeBatchSize < 1) {
+            throw new IllegalArgumentException("tours.distance.recompute.route-batch-size mora biti najmanje 1");
+        }
+        this.keyPointSpatialIndex = keyPointSpatialIndex;
+        this.tourService = tourService;
+        this.routingService = routingService;
+        this.tourSegmentRepository = tourSegmentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.routeBatchSize = routeBatchSize;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxRetryBackoffMillis = maxRetryBackoffMillis;
+    }
+
+    // Poziva se iz KeyPointService pri dodavanju, izmeni i brisanju ključne tačke; važi tek nakon commit-a
+    public void requestRecompute(Long tourId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(tourId);
+                }
+            });
+        } else {
+            schedule(tourId);
+        }
+    }
+
+    private void schedule(Long tourId) {
+        dueAt.put(tourId, System.nanoTime() + quietPeriodMillis * 1_000_000L);
+    }
+
+    // Ponovni pokušaj ne odlaže raniji rok koji je u međuvremenu postavila nova izmena
+    private void scheduleRetry(Long tourId) {
+        int attempt = retryAttempts.merge(tourId, 1, Integer::sum);
+        long backoffMillis = Math.min(retryBackoffMillis << Math.min(attempt - 1, 20), maxRetryBackoffMillis);
+        long retryAt = System.nanoTime() + backoffMillis * 1_000_000L;
+        dueAt.merge(tourId, retryAt, (current, retry) -> current - retry <= 0 ? current : retry);
+    }
+
+    @Scheduled(fixedDelayString = "${tours.distance.recompute.poll-interval-ms:250}")
+    public void recomputeDueTours() {
+        long now = System.nanoTime();
+        for (Map.Entry<Long, Long> entry : dueAt.entrySet()) {
+            // Uklanja se samo ako u međuvremenu nije stigla nova izmena (koja bi pomerila rok)
+            if (entry.getValue() - now <= 0 && dueAt.remove(entry.getKey(), entry.getValue())) {
+                recompute(entry.getKey());
+            }
+        }
+    }
+
+    private void recompute(Long tourId) {
+        List<KeyPoint> keyPoints = keyPointSpatialIndex.getKeyPoints(tourId);
+        String provider = routingService.getPrimaryProviderName();
+        List<TourSegment> segmentsToRoute;
+        try {
+            synchronized (this) {
+                segmentsToRoute = transactionTemplate.execute(status -> reconcileSegments(tourId, keyPoints, provider));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Preračun dužine ture " + tourId + " preskočen: " + e.getMessage());
+            retryAttempts.remove(tourId);
+            return;
+        }
+
+        routeInBatches(tourId, segmentsToRoute, 0).thenAccept(allRouted -> {
+            if (allRouted) {
+                retryAttempts.remove(tourId);
+            } else {
+                scheduleRetry(tourId);
+            }
+        });
+    }
+
+    // Vraća true ako su sve deonice od indeksa from dobile dužinu od primarnog provajdera
+    private CompletableFuture<Boolean> routeInBatches(Long tourId, List<TourSegment> segments, int from) {
+        if (from >= segments.size()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        int to = Math.min(from + routeBatchSize, segments.size());
+        List<CompletableFuture<Boolean>> batch = new ArrayList<>(to - from);
+        for (TourSegment segment : segments.subList(from, to)) {
+            batch.add(routeSegment(tourId, segment));
+        }
+        return CompletableFuture.allOf(batch.toArray(new CompletableFuture<?>[0]))
+                .thenCompose(ignored -> batch.stream().allMatch(CompletableFuture::join)
+                        ? routeInBatches(tourId, segments, to)
+                        : CompletableFuture.completedFuture(false));
+    }
+
+    private CompletableFuture<Boolean> routeSegment(Long tourId, TourSegment segment) {
+        return routingService.route(new double[]{segment.getFromLatitude(), segment.getToLatitude()},
+                        new double[]{segment.getFromLongitude(), segment.getToLongitude()})
+                .thenApply(result -> applyRoadDistance(tourId, segment.getId(), result))
+                .exceptionally(e -> {
+                    System.err.println("Rutiranje deonice ture " + tourId + " neuspešno: " + e.getMessage());
+                    return false;
+                });
+    }
+
+    // Usklađuje deonice sa trenutnim tačkama ture: nepromenjene deonice se zadržavaju, nove dobijaju vazdušnu liniju.
+    // Vraća deonice kojima nedostaje dužina po putevima od trenutnog provajdera.
+    private List<TourSegment> reconcileSegments(Long tourId, List<KeyPoint> keyPoints, String provider) {
+        // Deonice su između uzastopnih tačaka, pa je početna tačka jedinstvena u okviru ture
+        Map<Long, TourSegment> existingByFrom = new HashMap<>();
+        for (TourSegment segment : tourSegmentRepository.findByTourId(tourId)) {
+            existingByFrom.put(segment.getFromKeyPointId(), segment);
+        }
+
+        List<TourSegment> segments = new ArrayList<>();
+        List<TourSegment> segmentsToRoute = new ArrayList<>();
+        for (int i = 0; i < keyPoints.size() - 1; i++) {
+            KeyPoint from = keyPoints.get(i);
+            KeyPoint to = keyPoints.get(i + 1);
+            TourSegment segment = existingByFrom.remove(from.getId());
+            if (segment != null && !segment.matches(from, to)) {
+                tourSegmentRepository.delete(segment);
+                segment = null;
+            }
+            if (segment == null) {
+                double airDistanceKm = GeoMath.distanceMeters(from.getLatitude(), from.getLongitude(),
+                        to.getLatitude(), to.getLongitude()) / 1000.0;
+                segment = tourSegmentRepository.save(new TourSegment(tourId, from, to, airDistanceKm));
+            }
+            if (segment.getRoadDistanceKm() == null || !provider.equals(segment.getRoutedBy())) {
+                segmentsToRoute.add(segment);
+            }
+            segments.add(segment);
+        }
+        tourSegmentRepository.deleteAll(existingByFrom.values());
+
+        tourService.updateTourDistance(tourId, totalDistanceKm(segments));
+        return segmentsToRoute;
+    }
+
+    // Vraća false ako deonicu treba ponovo rutirati
+    private boolean applyRoadDistance(Long tourId, Long segmentId, RouteResult result) {
+        // Rezultat rezervnog provajdera se ne pamti; deonica ostaje na vazdušnoj liniji do ponovnog pokušaja
+        if (result.isFallback()) {
+            return false;
+        }
+        try {
+            synchronized (this) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Optional<TourSegment> segment = tourSegmentRepository.findById(segmentId);
+                    if (segment.isEmpty()) {
+                        return; // Deonica je u međuvremenu zamenjena novom izmenom
+                    }
+                    segment.get().setRoadDistanceKm(result.getDistanceKm());
+                    segment.get().setRoutedBy(result.getProvider());
+                    tourService.updateTourDistance(tourId, totalDistanceKm(tourSegmentRepository.findByTourId(tourId)));
+                });
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Upis dužine deonice ture " + tourId + " nije uspeo: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private static double totalDistanceKm(List<TourSegment> segments) {
+        double total = 0.0;
+        for (TourSegment segment : segments) {
+            total += segment.effectiveDistanceKm();
+        }
+        return total;
+    }
+}
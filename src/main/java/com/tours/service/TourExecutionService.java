@@ -1,18 +1,27 @@
 // com.tours.service.TourExecutionService.java
 package com.tours.service;
 
+import com.tours.dto.LocationBatchResult;
+import com.tours.dto.LocationFix;
+import com.tours.dto.TourExecutionEvent;
+import com.tours.enums.GeofenceEventType;
+import com.tours.enums.TourExecutionEventType;
 import com.tours.enums.TourExecutionStatus;
+import com.tours.geofence.GeofenceEngine;
+import com.tours.geofence.GeofenceEvent;
 import com.tours.model.KeyPoint;
 import com.tours.model.Tour;
 import com.tours.model.TourExecution;
-import com.tours.repository.KeyPointRepository;
 import com.tours.repository.TourExecutionRepository;
 import com.tours.repository.TourRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -24,21 +33,30 @@ public class TourExecutionService {
 
     private final TourExecutionRepository tourExecutionRepository;
     private final TourRepository tourRepository;
-    private final KeyPointRepository keyPointRepository;
+    private final KeyPointSpatialIndex keyPointSpatialIndex;
+    private final ActiveTourExecutionRegistry activeExecutions;
+    private final PositionDeadBandFilter deadBandFilter;
+    private final GeofenceEngine geofenceEngine;
     private final TouristLocationService positionSimulatorService; // Za interakciju sa Position Simulatorom
-
-    // Threshold for considering a tourist "near" a key point (e.g., 50 meters)
-    private static final double DISTANCE_THRESHOLD_METERS = 300.0;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public TourExecutionService(TourExecutionRepository tourExecutionRepository,
                                 TourRepository tourRepository,
-                                KeyPointRepository keyPointRepository,
-                                TouristLocationService positionSimulatorService) {
+                                KeyPointSpatialIndex keyPointSpatialIndex,
+                                ActiveTourExecutionRegistry activeExecutions,
+                                PositionDeadBandFilter deadBandFilter,
+                                GeofenceEngine geofenceEngine,
+                                TouristLocationService positionSimulatorService,
+                                ApplicationEventPublisher eventPublisher) {
         this.tourExecutionRepository = tourExecutionRepository;
         this.tourRepository = tourRepository;
-        this.keyPointRepository = keyPointRepository;
+        this.keyPointSpatialIndex = keyPointSpatialIndex;
+        this.activeExecutions = activeExecutions;
+        this.deadBandFilter = deadBandFilter;
+        this.geofenceEngine = geofenceEngine;
         this.positionSimulatorService = positionSimulatorService;
+        this.eventPublisher = eventPublisher;
     }
 
     public TourExecution startTour(Long tourId, String touristUsername, Double initialLatitude, Double initialLongitude) {
@@ -53,123 +71,190 @@ public class TourExecutionService {
         }
         // TODO: Proveriti da li je tura kupljena (kada se implementira kupovina)
 
-        // Proveri da li turista već ima aktivnu turu
-        Optional<TourExecution> activeExecution = tourExecutionRepository.findByTouristUsernameAndStatus(touristUsername, TourExecutionStatus.STARTED);
-        if (activeExecution.isPresent()) {
-            throw new IllegalStateException("Turista već ima aktivnu turu. Završite prethodnu pre nego što pokrenete novu.");
-        }
+        return activeExecutions.withTouristLock(touristUsername, () -> {
+            // Proveri da li turista već ima aktivnu turu
+            if (activeExecutions.findByTouristUsername(touristUsername).isPresent()) {
+                throw new IllegalStateException("Turista već ima aktivnu turu. Završite prethodnu pre nego što pokrenete novu.");
+            }
 
-        TourExecution newExecution = new TourExecution(tourId, touristUsername, initialLatitude, initialLongitude);
-        // Ažuriraj lokaciju turiste u Position Simulatoru
-        positionSimulatorService.saveOrUpdateLocation(touristUsername, initialLatitude, initialLongitude);
-        return tourExecutionRepository.save(newExecution);
+            TourExecution newExecution = new TourExecution(tourId, touristUsername, initialLatitude, initialLongitude);
+            // Ažuriraj lokaciju turiste u Position Simulatoru
+            positionSimulatorService.saveOrUpdateLocation(touristUsername, initialLatitude, initialLongitude);
+            TourExecution savedExecution = tourExecutionRepository.saveAndFlush(newExecution);
+            activeExecutions.register(savedExecution);
+            return savedExecution;
+        });
     }
 
+    @Transactional(readOnly = true)
     public Optional<TourExecution> getActiveTourExecution(String touristUsername) {
-        return tourExecutionRepository.findByTouristUsernameAndStatus(touristUsername, TourExecutionStatus.STARTED);
+        return activeExecutions.findByTouristUsername(touristUsername).map(this::resolveCompletedKeyPoints);
     }
 
     public TourExecution completeTour(Long executionId, String touristUsername) {
-        Optional<TourExecution> executionOptional = tourExecutionRepository.findById(executionId);
-        if (executionOptional.isEmpty()) {
-            throw new IllegalArgumentException("Izvršenje ture sa ID " + executionId + " nije pronađeno.");
-        }
-
-        TourExecution execution = executionOptional.get();
+        TourExecution execution = findExecution(executionId);
         if (!execution.getTouristUsername().equals(touristUsername)) {
             throw new SecurityException("Nemate ovlašćenje da završite ovu turu.");
         }
-        if (execution.getStatus() != TourExecutionStatus.STARTED) {
-            throw new IllegalStateException("Tura već nije aktivna (status: " + execution.getStatus() + ").");
-        }
 
-        execution.setStatus(TourExecutionStatus.COMPLETED);
-        execution.setEndTime(LocalDateTime.now());
-        execution.setLastActivityTime(LocalDateTime.now());
-        return tourExecutionRepository.save(execution);
+        return activeExecutions.withTouristLock(touristUsername, () -> {
+            if (execution.getStatus() != TourExecutionStatus.STARTED) {
+                throw new IllegalStateException("Tura već nije aktivna (status: " + execution.getStatus() + ").");
+            }
+
+            execution.setStatus(TourExecutionStatus.COMPLETED);
+            execution.setEndTime(LocalDateTime.now());
+            execution.setLastActivityTime(LocalDateTime.now());
+            return finish(execution);
+        });
     }
 
     public TourExecution abandonTour(Long executionId, String touristUsername) {
-        Optional<TourExecution> executionOptional = tourExecutionRepository.findById(executionId);
-        if (executionOptional.isEmpty()) {
-            throw new IllegalArgumentException("Izvršenje ture sa ID " + executionId + " nije pronađeno.");
-        }
-
-        TourExecution execution = executionOptional.get();
+        TourExecution execution = findExecution(executionId);
         if (!execution.getTouristUsername().equals(touristUsername)) {
             throw new SecurityException("Nemate ovlašćenje da napustite ovu turu.");
         }
-        if (execution.getStatus() != TourExecutionStatus.STARTED) {
-            throw new IllegalStateException("Tura već nije aktivna (status: " + execution.getStatus() + ").");
-        }
 
-        execution.setStatus(TourExecutionStatus.ABANDONED);
-        execution.setEndTime(LocalDateTime.now());
-        execution.setLastActivityTime(LocalDateTime.now());
-        return tourExecutionRepository.save(execution);
+        return activeExecutions.withTouristLock(touristUsername, () -> {
+            if (execution.getStatus() != TourExecutionStatus.STARTED) {
+                throw new IllegalStateException("Tura već nije aktivna (status: " + execution.getStatus() + ").");
+            }
+
+            execution.setStatus(TourExecutionStatus.ABANDONED);
+            execution.setEndTime(LocalDateTime.now());
+            execution.setLastActivityTime(LocalDateTime.now());
+            return finish(execution);
+        });
     }
 
     public TourExecution updateTouristPositionAndCheckKeyPoints(
             Long executionId, String touristUsername, Double newLatitude, Double newLongitude) {
+        List<LocationFix> fixes = List.of(new LocationFix(newLatitude, newLongitude, LocalDateTime.now()));
+        return updateTouristPositionBatch(executionId, touristUsername, fixes).getExecution();
+    }
 
-        Optional<TourExecution> executionOptional = tourExecutionRepository.findById(executionId);
-        if (executionOptional.isEmpty()) {
-            throw new IllegalArgumentException("Izvršenje ture sa ID " + executionId + " nije pronađeno.");
+    // Obrađuje niz pozicija (npr. baferovanih na uređaju) u jednoj transakciji:
+    // jedno učitavanje izvršenja, jedna provera blizine po poziciji i najviše jedno čuvanje na kraju
+    public LocationBatchResult updateTouristPositionBatch(
+            Long executionId, String touristUsername, List<LocationFix> fixes) {
+        if (fixes == null || fixes.isEmpty()) {
+            throw new IllegalArgumentException("Lista lokacija ne sme biti prazna.");
+        }
+        for (LocationFix fix : fixes) {
+            if (fix == null || fix.getLatitude() == null || fix.getLongitude() == null) {
+                throw new IllegalArgumentException("Svaka lokacija mora imati geografsku širinu i dužinu.");
+            }
         }
-        TourExecution execution = executionOptional.get();
 
+        TourExecution execution = findExecution(executionId);
         if (!execution.getTouristUsername().equals(touristUsername)) {
             throw new SecurityException("Nemate ovlašćenje da ažurirate ovu turu.");
         }
-        if (execution.getStatus() != TourExecutionStatus.STARTED) {
-            throw new IllegalStateException("Tura nije aktivna.");
-        }
 
-        // Ažuriraj trenutnu lokaciju u TourExecution
-        execution.setCurrentLatitude(newLatitude);
-        execution.setCurrentLongitude(newLongitude);
-        execution.setLastActivityTime(LocalDateTime.now());
-
-        // Ažuriraj lokaciju turiste u Position Simulatoru
-        positionSimulatorService.saveOrUpdateLocation(touristUsername, newLatitude, newLongitude);
-
-        // Proveri da li je turista stigao do neke ključne tačke
-        List<KeyPoint> tourKeyPoints = keyPointRepository.findByTourId(execution.getTourId());
-        Set<Long> completedKeyPoints = execution.getCompletedKeyPoints();
-
-        boolean allKeyPointsCompleted = true; // Pretpostavka da su sve ključne tačke završene
-        for (KeyPoint kp : tourKeyPoints) {
-            if (!completedKeyPoints.contains(kp.getId())) {
-                double distance = calculateDistance(newLatitude, newLongitude, kp.getLatitude(), kp.getLongitude());
-                if (distance <= DISTANCE_THRESHOLD_METERS) {
-                    execution.addCompletedKeyPoint(kp.getId());
-                    // Možda dodati logiku za beleženje vremena dostizanja KP ako je potrebno
-                    System.out.println("Turista " + touristUsername + " je dostigao ključnu tačku: " + kp.getNaziv());
-                } else {
-                    allKeyPointsCompleted = false; // Ako postoji neka nekompletirana i nije blizu, onda nisu sve završene
+        return activeExecutions.withTouristLock(touristUsername, () -> {
+            if (execution.getStatus() != TourExecutionStatus.STARTED) {
+                throw new IllegalStateException("Tura nije aktivna.");
+            }
+
+            List<Long> completedInBatch = new ArrayList<>();
+            int processed = 0;
+            int suppressed = 0;
+            for (LocationFix fix : fixes) {
+                // Pozicije posle završetka ture se ignorišu
+                if (execution.getStatus() != TourExecutionStatus.STARTED) {
+                    break;
+                }
+                // Pozicija unutar mrtve zone samo osvežava vreme aktivnosti
+                if (!deadBandFilter.accept(executionId, fix.getLatitude(), fix.getLongitude(), fix.getTimestamp())) {
+                    suppressed++;
+                    continue;
                 }
+                applyFix(execution, fix, completedInBatch);
+                processed++;
+            }
+            execution.setLastActivityTime(LocalDateTime.now());
+
+            if (processed == 0) {
+                return new LocationBatchResult(execution, completedInBatch, processed, suppressed);
+            }
+
+            // Ažuriraj lokaciju turiste u Position Simulatoru (samo poslednja obrađena pozicija)
+            positionSimulatorService.saveOrUpdateLocation(
+                    touristUsername, execution.getCurrentLatitude(), execution.getCurrentLongitude());
+
+            for (Long keyPointId : completedInBatch) {
+                eventPublisher.publishEvent(TourExecutionEvent.keyPointReached(executionId, keyPointId));
+            }
+
+            // Sama promena pozicije ostaje u registru, u bazu se upisuju samo promene stanja
+            if (execution.getStatus() != TourExecutionStatus.STARTED) {
+                finish(execution);
+            } else if (!completedInBatch.isEmpty()) {
+                tourExecutionRepository.save(execution);
             }
+            return new LocationBatchResult(execution, completedInBatch, processed, suppressed);
+        });
+    }
+
+    // Izvršenje se prvo traži u registru aktivnih; ako ga tamo nema, čita se iz baze
+    private TourExecution findExecution(Long executionId) {
+        Optional<TourExecution> active = activeExecutions.findById(executionId);
+        if (active.isPresent()) {
+            return resolveCompletedKeyPoints(active.get());
         }
-        // Ako su sve ključne tačke kompletirane, promeni status ture u COMPLETED
-        if (allKeyPointsCompleted && tourKeyPoints.size() == completedKeyPoints.size() && !tourKeyPoints.isEmpty()) {
-            execution.setStatus(TourExecutionStatus.COMPLETED);
-            execution.setEndTime(LocalDateTime.now());
-            System.out.println("Tura " + execution.getTourId() + " je kompletirana od strane " + touristUsername);
+
+        Optional<TourExecution> executionOptional = tourExecutionRepository.findById(executionId);
+        if (executionOptional.isEmpty()) {
+            throw new IllegalArgumentException("Izvršenje ture sa ID " + executionId + " nije pronađeno.");
         }
+        return resolveCompletedKeyPoints(executionOptional.get());
+    }
+
+    // Zajednička putanja za završetak i napuštanje (REST, serija lokacija, WebSocket); događaj se
+    // otvorenom kanalu šalje tek nakon commit-a
+    private TourExecution finish(TourExecution execution) {
+        tourExecutionRepository.save(execution);
+        eventPublisher.publishEvent(TourExecutionEvent.finished(
+                execution.getStatus() == TourExecutionStatus.COMPLETED
+                        ? TourExecutionEventType.TOUR_COMPLETED : TourExecutionEventType.TOUR_ABANDONED,
+                execution.getId()));
+        activeExecutions.unregister(execution);
+        deadBandFilter.forget(execution.getId());
+        geofenceEngine.forget(execution.getId());
+        return execution;
+    }
+
+    private void applyFix(TourExecution execution, LocationFix fix, List<Long> completedInBatch) {
+        // Ažuriraj trenutnu lokaciju u TourExecution
+        execution.setCurrentLatitude(fix.getLatitude());
+        execution.setCurrentLongitude(fix.getLongitude());
 
-        return tourExecutionRepository.save(execution);
+        // Završavanje ključnih tačaka i ture radi KeyPointCompletionListener na ENTER događaje
+        long[] completedBefore = execution.getCompletedKeyPointBits() != null
+                ? execution.getCompletedKeyPointBits().clone() : new long[0];
+        LocalDateTime timestamp = fix.getTimestamp() != null ? fix.getTimestamp() : LocalDateTime.now();
+        for (GeofenceEvent event : geofenceEngine.evaluate(execution, fix.getLatitude(), fix.getLongitude(), timestamp)) {
+            int ordinal = event.getOrdinal();
+            boolean wasCompleted = (ordinal >>> 6) < completedBefore.length
+                    && (completedBefore[ordinal >>> 6] & (1L << ordinal)) != 0;
+            if (event.getType() == GeofenceEventType.ENTER && !wasCompleted && execution.isKeyPointCompleted(ordinal)) {
+                completedInBatch.add(event.getKeyPointId());
+            }
+        }
     }
 
-    // Helper method to calculate distance between two points using Haversine formula
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Radius of Earth in kilometers
-
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c * 1000; // Convert to meters
+    // Prevodi bitset završenih ključnih tačaka u njihove ID-jeve (za odgovor klijentu)
+    private TourExecution resolveCompletedKeyPoints(TourExecution execution) {
+        if (execution.getCompletedKeyPoints() == null) {
+            List<KeyPoint> keyPoints = keyPointSpatialIndex.getKeyPoints(execution.getTourId());
+            Set<Long> completedKeyPoints = new HashSet<>();
+            execution.forEachCompletedKeyPoint(ordinal -> {
+                if (ordinal < keyPoints.size()) {
+                    completedKeyPoints.add(keyPoints.get(ordinal).getId());
+                }
+            });
+            execution.setCompletedKeyPoints(completedKeyPoints);
+        }
+        return execution;
     }
-}
\ No newline at end of file
+}
@@ -1,39 +1,79 @@
 package com.tours.service;
 
+import com.tours.dto.AuthorStats;
+import com.tours.dto.NearbyTour;
+import com.tours.dto.TourCatalogItem;
+import com.tours.dto.TourCatalogPage;
+import com.tours.dto.TourSearchResult;
 import com.tours.enums.Difficulty;
 import com.tours.enums.Prevoz;
 import com.tours.enums.TourStatus;
+import com.tours.geo.GeoGrid;
 import com.tours.grpc.StakeholdersGrpcClient;
 import com.tours.model.Tour;
 import com.tours.repository.KeyPointRepository;
 import com.tours.repository.TourRepository;
+import com.tours.repository.TourSegmentRepository;
+import com.tours.search.InvertedIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class TourService {
 
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_NEARBY_RESULTS = 100;
+
     private final TourRepository tourRepository;
     private final KeyPointRepository keyPointRepository;
+    private final TourSegmentRepository tourSegmentRepository;
     private final StakeholdersGrpcClient stakeholdersGrpcClient;
+    private final PublishedTourSpatialIndex publishedTourSpatialIndex;
+    private final TourTagService tourTagService;
+    private final PublishedTourSearchIndex publishedTourSearchIndex;
+    private final PublishedTourCache publishedTourCache;
+    private final AuthorStatsService authorStatsService;
+    private final KeyPointSpatialIndex keyPointSpatialIndex;
+    private final double nearbyMaxRadiusMeters;
 
     @Autowired
     public TourService(
         TourRepository tourRepository, 
         KeyPointRepository keyPointRepository,
-        StakeholdersGrpcClient stakeholdersGrpcClient
+        TourSegmentRepository tourSegmentRepository,
+        StakeholdersGrpcClient stakeholdersGrpcClient,
+        PublishedTourSpatialIndex publishedTourSpatialIndex,
+        TourTagService tourTagService,
+        PublishedTourSearchIndex publishedTourSearchIndex,
+        PublishedTourCache publishedTourCache,
+        AuthorStatsService authorStatsService,
+        KeyPointSpatialIndex keyPointSpatialIndex,
+        @Value("${tours.published.nearby.max-radius-meters:100000}") double nearbyMaxRadiusMeters
     ) {
         this.tourRepository = tourRepository;
         this.keyPointRepository = keyPointRepository;
+        this.tourSegmentRepository = tourSegmentRepository;
         this.stakeholdersGrpcClient = stakeholdersGrpcClient;
+        this.publishedTourSpatialIndex = publishedTourSpatialIndex;
+        this.tourTagService = tourTagService;
+        this.publishedTourSearchIndex = publishedTourSearchIndex;
+        this.publishedTourCache = publishedTourCache;
+        this.authorStatsService = authorStatsService;
+        this.keyPointSpatialIndex = keyPointSpatialIndex;
+        this.nearbyMaxRadiusMeters = nearbyMaxRadiusMeters;
     }
 
     public Tour createTour(String naziv, String opis, String tagovi, Difficulty tezina, String autorUsername) {
@@ -51,6 +91,8 @@ public class TourService {
         
         Tour tour = new Tour(naziv, opis, tagovi, tezina, autorUsername);
         Tour savedTour = tourRepository.save(tour);
+        tourTagService.syncTags(savedTour);
+        authorStatsService.onTourCreated(autorUsername);
         
         return savedTour;
     }
@@ -78,25 +120,56 @@ public class TourService {
 
     @Transactional(readOnly = true)
     public List<Tour> getToursByTagAndAuthor(String tag, String autorUsername) {
-        return tourRepository.findByTagAndAutorUsername(tag, autorUsername);
+        Set<String> tags = TourTagService.normalize(tag);
+        if (tags.size() != 1) {
+            return new ArrayList<>();
+        }
+        return tourRepository.findByTagAndAutorUsername(tags.iterator().next(), autorUsername);
+    }
+
+    // matchAll = true: ture sa svim tagovima (AND), inače ture sa bar jednim (OR)
+    @Transactional(readOnly = true)
+    public List<Tour> getToursByTagsAndAuthor(String tagovi, boolean matchAll, String autorUsername) {
+        Set<String> tags = TourTagService.normalize(tagovi);
+        if (tags.isEmpty()) {
+            throw new IllegalArgumentException("Potrebno je navesti bar jedan tag");
+        }
+        return matchAll
+                ? tourRepository.findByAllTagsAndAutorUsername(tags, tags.size(), autorUsername)
+                : tourRepository.findByAnyTagAndAutorUsername(tags, autorUsername);
     }
 
     public Tour updateTour(Tour tour) {
         if (tour.getStatus() != TourStatus.DRAFT) {
             throw new IllegalArgumentException("Tura se može editovati samo ako je u statusu DRAFT");
         }
-        return tourRepository.save(tour);
+        Tour savedTour = tourRepository.save(tour);
+        tourTagService.syncTags(savedTour);
+        publishedTourSearchIndex.refresh(savedTour.getId());
+        return savedTour;
     }
 
     public boolean deleteTour(Long tourId, String autorUsername) {
         Optional<Tour> tour = getTourByIdAndAuthor(tourId, autorUsername);
         if (tour.isPresent()) {
             tourRepository.delete(tour.get());
+            tourSegmentRepository.deleteByTourId(tourId);
+            tourTagService.deleteTags(tourId);
+            keyPointSpatialIndex.invalidate(tourId);
+            publishedTourSpatialIndex.refresh(tourId);
+            publishedTourSearchIndex.refresh(tourId);
+            publishedTourCache.invalidate(tourId);
+            authorStatsService.onTourDeleted(autorUsername);
             return true;
         }
         return false;
     }
 
+    @Transactional(readOnly = true)
+    public AuthorStats getAuthorStats(String autorUsername) {
+        return authorStatsService.getStats(autorUsername);
+    }
+
     @Transactional(readOnly = true)
     public long countToursByAuthor(String autorUsername) {
         return tourRepository.countByAutorUsername(autorUsername);
@@ -109,7 +182,122 @@ public class TourService {
 
     @Transactional(readOnly = true)
     public List<Tour> getAllPublishedTours() {
-        return tourRepository.findByStatus(TourStatus.PUBLISHED);
+        return publishedTourCache.getPublishedTours();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Tour> getPublishedTourById(Long tourId) {
+        return publishedTourCache.getPublishedTour(tourId);
+    }
+
+    // Strana kataloga objavljenih tura; bez kursora vraća prvu (najnovije objavljene)
+    @Transactional(readOnly = true)
+    public TourCatalogPage getPublishedCatalogPage(LocalDateTime afterVremeObjave, Long afterId, int size) {
+        if (size <= 0 || size > MAX_CATALOG_PAGE_SIZE) {
+            throw new IllegalArgumentException("Veličina strane mora biti između 1 i " + MAX_CATALOG_PAGE_SIZE);
+        }
+        if ((afterVremeObjave == null) != (afterId == null)) {
+            throw new IllegalArgumentException("Kursor zahteva i afterVremeObjave i afterId");
+        }
+
+        // Jedan red više od tražene veličine govori da li postoji sledeća strana
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<TourCatalogItem> items = afterVremeObjave == null
+                ? tourRepository.findCatalogFirstPage(TourStatus.PUBLISHED, limit)
+                : tourRepository.findCatalogPageAfter(TourStatus.PUBLISHED, afterVremeObjave, afterId, limit);
+
+        boolean hasMore = items.size() > size;
+        if (hasMore) {
+            items = new ArrayList<>(items.subList(0, size));
+        }
+        if (items.isEmpty()) {
+            return new TourCatalogPage(items, false, null, null);
+        }
+
+        Map<Long, TourCatalogItem> byId = new HashMap<>();
+        for (TourCatalogItem item : items) {
+            byId.put(item.getId(), item);
+        }
+        for (Object[] row : tourRepository.findPrevoziByTourIds(byId.keySet())) {
+            TourCatalogItem item = byId.get(((Number) row[0]).longValue());
+            if (item != null && row[2] != null) {
+                item.getPrevozi().put(Prevoz.valueOf(row[1].toString()), ((Number) row[2]).intValue());
+            }
+        }
+
+        TourCatalogItem last = items.get(items.size() - 1);
+        return hasMore
+                ? new TourCatalogPage(items, true, last.getVremeObjave(), last.getId())
+                : new TourCatalogPage(items, false, null, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TourSearchResult> searchPublishedTours(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Upit za pretragu ne sme biti prazan");
+        }
+        if (limit <= 0 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("Limit mora biti između 1 i " + MAX_SEARCH_RESULTS);
+        }
+
+        List<InvertedIndex.Hit<Long>> hits = publishedTourSearchIndex.search(query, limit);
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Tour> toursById = new HashMap<>();
+        List<Long> tourIds = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit<Long> hit : hits) {
+            tourIds.add(hit.getKey());
+        }
+        for (Tour tour : tourRepository.findAllById(tourIds)) {
+            toursById.put(tour.getId(), tour);
+        }
+
+        List<TourSearchResult> result = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit<Long> hit : hits) {
+            Tour tour = toursById.get(hit.getKey());
+            // Indeks se ažurira nakon commit-a, pa se tura u međuvremenu mogla arhivirati
+            if (tour != null && tour.getStatus() == TourStatus.PUBLISHED) {
+                result.add(new TourSearchResult(tour, hit.getScore()));
+            }
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public List<NearbyTour> getPublishedToursNear(double latitude, double longitude, double radiusMeters, int limit) {
+        if (radiusMeters <= 0 || radiusMeters > nearbyMaxRadiusMeters) {
+            throw new IllegalArgumentException("Radijus mora biti veći od 0 i najviše " + nearbyMaxRadiusMeters + " m");
+        }
+        if (limit <= 0 || limit > MAX_NEARBY_RESULTS) {
+            throw new IllegalArgumentException("Limit mora biti između 1 i " + MAX_NEARBY_RESULTS);
+        }
+
+        List<GeoGrid.Neighbor<Long>> neighbors =
+                publishedTourSpatialIndex.findWithinRadius(latitude, longitude, radiusMeters, limit);
+        if (neighbors.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Tour> toursById = new HashMap<>();
+        List<Long> tourIds = new ArrayList<>(neighbors.size());
+        for (GeoGrid.Neighbor<Long> neighbor : neighbors) {
+            tourIds.add(neighbor.getKey());
+        }
+        for (Tour tour : tourRepository.findAllById(tourIds)) {
+            toursById.put(tour.getId(), tour);
+        }
+
+        List<NearbyTour> result = new ArrayList<>(neighbors.size());
+        for (GeoGrid.Neighbor<Long> neighbor : neighbors) {
+            Tour tour = toursById.get(neighbor.getKey());
+            // Indeks se ažurira nakon commit-a, pa se tura u međuvremenu mogla arhivirati
+            if (tour != null && tour.getStatus() == TourStatus.PUBLISHED) {
+                result.add(new NearbyTour(tour, neighbor.getDistanceMeters()));
+            }
+        }
+        return result;
     }
 
     public Tour publishTour(Long tourId, String autorUsername) {
@@ -119,6 +307,7 @@ public class TourService {
         }
 
         Tour tour = optionalTour.get();
+        TourStatus previousStatus = tour.getStatus();
 
         if (tour.getStatus() != TourStatus.DRAFT && tour.getStatus() != TourStatus.ARCHIVED) {
             throw new IllegalArgumentException("Tura već je objavljena");
@@ -155,7 +344,12 @@ public class TourService {
         tour.setStatus(TourStatus.PUBLISHED);
         tour.setVremeObjave(LocalDateTime.now());
 
-        return tourRepository.save(tour);
+        Tour savedTour = tourRepository.save(tour);
+        publishedTourSpatialIndex.refresh(tourId);
+        publishedTourSearchIndex.refresh(tourId);
+        publishedTourCache.invalidate(tourId);
+        authorStatsService.onStatusChanged(autorUsername, previousStatus, TourStatus.PUBLISHED);
+        return savedTour;
     }
 
     public Tour archiveTour(Long tourId, String autorUsername) {
@@ -173,7 +367,12 @@ public class TourService {
         tour.setStatus(TourStatus.ARCHIVED);
         tour.setVremeArhiviranja(LocalDateTime.now());
 
-        return tourRepository.save(tour);
+        Tour savedTour = tourRepository.save(tour);
+        publishedTourSpatialIndex.refresh(tourId);
+        publishedTourSearchIndex.refresh(tourId);
+        publishedTourCache.invalidate(tourId);
+        authorStatsService.onStatusChanged(autorUsername, TourStatus.PUBLISHED, TourStatus.ARCHIVED);
+        return savedTour;
     }
 
     public Tour activateTour(Long tourId, String autorUsername) {
@@ -191,7 +390,12 @@ public class TourService {
         tour.setStatus(TourStatus.PUBLISHED);
         tour.setVremeArhiviranja(null);
 
-        return tourRepository.save(tour);
+        Tour savedTour = tourRepository.save(tour);
+        publishedTourSpatialIndex.refresh(tourId);
+        publishedTourSearchIndex.refresh(tourId);
+        publishedTourCache.invalidate(tourId);
+        authorStatsService.onStatusChanged(autorUsername, TourStatus.ARCHIVED, TourStatus.PUBLISHED);
+        return savedTour;
     }
 
     public Tour updateTourDistance(Long tourId, Double duzina) {
@@ -199,7 +403,16 @@ public class TourService {
                 .orElseThrow(() -> new RuntimeException("Tura nije pronađena"));
 
         tour.setDuzina(duzina);
-        return tourRepository.save(tour);
+        if (duzina != null) {
+            Map<Prevoz, Integer> prevozi = new HashMap<>();
+            prevozi.put(Prevoz.PESKE, (int) Math.round((duzina / 4.0) * 60));      // 4 km/h
+            prevozi.put(Prevoz.BICIKL, (int) Math.round((duzina / 15.0) * 60));    // 15 km/h
+            prevozi.put(Prevoz.AUTOMOBIL, (int) Math.round((duzina / 30.0) * 60)); // 30 km/h (gradska brzina)
+            tour.setPrevozi(prevozi);
+        }
+        Tour savedTour = tourRepository.save(tour);
+        publishedTourCache.invalidate(tourId);
+        return savedTour;
     }
 
 
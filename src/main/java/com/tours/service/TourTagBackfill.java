@@ -0,0 +1,45 @@
+package com.tours.service;
+
+import com.tours.model.Tour;
+import com.tours.repository.TourRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Prenosi tagove postojećih tura iz kolone tagovi u tabele tags i tour_tags.
+ * Obrađuju se samo ture koje još nemaju nijednu vezu u tour_tags, pa je ponovno pokretanje bezbedno.
+ */
+@Component
+public class TourTagBackfill {
+
+    private final TourRepository tourRepository;
+    private final TourTagService tourTagService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public TourTagBackfill(TourRepository tourRepository,
+                           TourTagService tourTagService,
+                           TransactionTemplate transactionTemplate) {
+        this.tourRepository = tourRepository;
+        this.tourTagService = tourTagService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        Integer migrated = transactionTemplate.execute(status -> {
+            List<Tour> tours = tourRepository.findWithUnsyncedTags();
+            for (Tour tour : tours) {
+                tourTagService.syncTags(tour);
+            }
+            return tours.size();
+        });
+        if (migrated != null && migrated > 0) {
+            System.out.println("Preneti tagovi za " + migrated + " tura u tabelu tour_tags.");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.tours.service;
+
+import com.tours.model.Tag;
+import com.tours.model.Tour;
+import com.tours.model.TourTag;
+import com.tours.repository.TagRepository;
+import com.tours.repository.TourTagRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Održava normalizovane tagove tura (tabele tags i tour_tags) na osnovu slobodnog teksta Tour.tagovi.
+ * Tagovi se razdvajaju zarezom, a normalizuju na mala slova sa jednim razmakom između reči.
+ */
+@Service
+@Transactional
+public class TourTagService {
+
+    private static final int MAX_TAG_LENGTH = 100;
+
+    private final TagRepository tagRepository;
+    private final TourTagRepository tourTagRepository;
+
+    @Autowired
+    public TourTagService(TagRepository tagRepository, TourTagRepository tourTagRepository) {
+        this.tagRepository = tagRepository;
+        this.tourTagRepository = tourTagRepository;
+    }
+
+    public static Set<String> normalize(String tagovi) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (tagovi == null) {
+            return tags;
+        }
+        for (String part : tagovi.split(",")) {
+            String tag = part.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            if (!tag.isEmpty() && tag.length() <= MAX_TAG_LENGTH) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    // Usklađuje tour_tags sa trenutnim Tour.tagovi: dodaje nove veze i briše one kojih više nema
+    public void syncTags(Tour tour) {
+        Set<String> wanted = normalize(tour.getTagovi());
+        Map<Long, String> wantedIds = new HashMap<>();
+        for (Tag tag : findOrCreate(wanted)) {
+            wantedIds.put(tag.getId(), tag.getNaziv());
+        }
+
+        Set<Long> existing = new HashSet<>();
+        List<Long> stale = new ArrayList<>();
+        for (TourTag tourTag : tourTagRepository.findByTourId(tour.getId())) {
+            if (wantedIds.containsKey(tourTag.getTagId())) {
+                existing.add(tourTag.getTagId());
+            } else {
+                stale.add(tourTag.getTagId());
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            tourTagRepository.deleteByTourIdAndTagIdIn(tour.getId(), stale);
+        }
+        List<TourTag> added = new ArrayList<>();
+        for (Long tagId : wantedIds.keySet()) {
+            if (!existing.contains(tagId)) {
+                added.add(new TourTag(tour.getId(), tagId));
+            }
+        }
+        tourTagRepository.saveAll(added);
+    }
+
+    public void deleteTags(Long tourId) {
+        tourTagRepository.deleteByTourId(tourId);
+    }
+
+    private List<Tag> findOrCreate(Set<String> nazivi) {
+        if (nazivi.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Tag> tags = new ArrayList<>(tagRepository.findByNazivIn(nazivi));
+        Set<String> missing = new LinkedHashSet<>(nazivi);
+        for (Tag tag : tags) {
+            missing.remove(tag.getNaziv());
+        }
+        for (String naziv : missing) {
+            tags.add(createTag(naziv));
+        }
+        return tags;
+    }
+
+    // Tag se upisuje u transakciji izmene ture, pa poništena izmena ne ostavlja tag bez ture. Ako je drugi
+    // zahtev u međuvremenu upisao isti tag, INSERT se preskače i čita se njegov red
+    private Tag createTag(String naziv) {
+        tagRepository.insertIfAbsent(naziv);
+        return tagRepository.findByNaziv(naziv)
+                .orElseThrow(() -> new IllegalStateException("Tag nije moguće upisati: " + naziv));
+    }
+}
@@ -0,0 +1,52 @@
+package com.tours.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Uklanja duplirane lokacije turista (ranija find-then-save putanja je mogla da upiše više redova
+ * za istog korisnika) i obezbeđuje jedinstveni indeks nad username. Bez njega Hibernate ne može da
+ * napravi ograničenje uk_tourist_location_username, a write-behind upis sa ON CONFLICT (username) ne radi.
+ * Kada indeks jednom postoji duplikati više ne mogu nastati, pa se pri sledećim pokretanjima ništa ne briše.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class TouristLocationDeduplicator {
+
+    // Za svakog korisnika ostaje red sa najvećim ID-em (poslednji upisan)
+    private static final String DELETE_DUPLICATES_SQL =
+            "DELETE FROM tourist_location WHERE EXISTS (SELECT 1 FROM tourist_location newer " +
+            "WHERE newer.username = tourist_location.username AND newer.id > tourist_location.id)";
+    private static final String UNIQUE_INDEX_EXISTS_SQL =
+            "SELECT COUNT(*) FROM pg_indexes WHERE tablename = 'tourist_location' AND indexname = 'uk_tourist_location_username'";
+    private static final String CREATE_UNIQUE_INDEX_SQL =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_tourist_location_username ON tourist_location (username)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TouristLocationDeduplicator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void deduplicate() {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(UNIQUE_INDEX_EXISTS_SQL, Integer.class);
+            if (existing != null && existing > 0) {
+                return;
+            }
+            int removed = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+            if (removed > 0) {
+                System.out.println("Obrisano " + removed + " dupliranih lokacija turista.");
+            }
+            jdbcTemplate.execute(CREATE_UNIQUE_INDEX_SQL);
+        } catch (DataAccessException e) {
+            System.err.println("Jedinstveni indeks lokacija turista nije obezbeđen, write-behind upis neće uspeti: " + e.getMessage());
+        }
+    }
+}
@@ -1,27 +1,194 @@
 package com.tours.service;
 
+import com.tours.dto.NearbyTourist;
+import com.tours.geo.GeoGrid;
 import com.tours.model.TouristLocation;
 import com.tours.repository.TouristLocationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
+@DependsOn("touristLocationDeduplicator")
 public class TouristLocationService {
 
+    private static final String UPSERT_SQL =
+            "INSERT INTO tourist_location (username, latitude, longitude) VALUES (?, ?, ?) " +
+            "ON CONFLICT (username) DO UPDATE SET latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude";
+    private static final int FLUSH_BATCH_SIZE = 500;
+    // Ćelija grida za upite u blizini (~1,1 km po geografskoj širini)
+    private static final double GRID_CELL_SIZE_DEGREES = 0.01;
+
     private final TouristLocationRepository touristLocationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean writeBehindEnabled;
+
+    // Write-behind: poslednja poznata pozicija po korisniku i korisnici čija pozicija još nije upisana u bazu.
+    // Međupozicije između dva flush-a se namerno gube, upisuje se samo poslednja.
+    private final Map<String, TouristLocation> latestLocations = new ConcurrentHashMap<>();
+    private final Set<String> dirtyUsernames = ConcurrentHashMap.newKeySet();
+    // Broj uzastopnih neuspelih upisa po korisniku, poništava se tek uspešnim upisom; posle maxFlushAttempts
+    // pozicija se više ne vraća u red, a svaka sledeća pozicija tog korisnika se pokušava samo jednom
+    private final Map<String, Integer> failedFlushAttempts = new ConcurrentHashMap<>();
+    private final int maxFlushAttempts;
 
-    public TouristLocationService(TouristLocationRepository touristLocationRepository) {
+    // Grid poslednjih pozicija svih turista za upite "ko je u blizini" bez pretrage tabele
+    private final GeoGrid<String> locationGrid = new GeoGrid<>(GRID_CELL_SIZE_DEGREES);
+    private final double nearestMaxRadiusMeters;
+    // Gornje granice za upite u blizini, da jedan zahtev ne bi prošao ceo grid i vratio sve turiste
+    private final double nearbyMaxRadiusMeters;
+    private final int nearbyMaxResults;
+
+    public TouristLocationService(TouristLocationRepository touristLocationRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${tours.tourist-location.write-behind.enabled:false}") boolean writeBehindEnabled,
+                                  @Value("${tours.tourist-location.write-behind.max-flush-attempts:5}") int maxFlushAttempts,
+                                  @Value("${tours.tourist-location.nearest.max-radius-meters:50000}") double nearestMaxRadiusMeters,
+                                  @Value("${tours.tourist-location.nearby.max-radius-meters:50000}") double nearbyMaxRadiusMeters,
+                                  @Value("${tours.tourist-location.nearby.max-results:500}") int nearbyMaxResults) {
         this.touristLocationRepository = touristLocationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeBehindEnabled = writeBehindEnabled;
+        this.maxFlushAttempts = maxFlushAttempts;
+        this.nearestMaxRadiusMeters = nearestMaxRadiusMeters;
+        this.nearbyMaxRadiusMeters = nearbyMaxRadiusMeters;
+        this.nearbyMaxResults = nearbyMaxResults;
+    }
+
+    @PostConstruct
+    public void loadLocationGrid() {
+        for (TouristLocation location : touristLocationRepository.findAll()) {
+            if (location.getLatitude() != null && location.getLongitude() != null) {
+                locationGrid.put(location.getUserId(), location.getLatitude(), location.getLongitude());
+            }
+        }
+        System.out.println("Učitano " + locationGrid.size() + " lokacija turista u grid");
     }
 
     public TouristLocation saveOrUpdateLocation(String username, Double latitude, Double longitude) {
-        TouristLocation location = touristLocationRepository.findByUsername(username)
-                .orElse(new TouristLocation(username, latitude, longitude));
-        location.setLatitude(latitude);
-        location.setLongitude(longitude);
-        return touristLocationRepository.save(location);
+        if (!writeBehindEnabled) {
+            TouristLocation location = touristLocationRepository.findByUsername(username)
+                    .orElse(new TouristLocation(username, latitude, longitude));
+            location.setLatitude(latitude);
+            location.setLongitude(longitude);
+            TouristLocation saved = touristLocationRepository.save(location);
+            locationGrid.put(username, latitude, longitude);
+            return saved;
+        }
+
+        TouristLocation location = new TouristLocation(username, latitude, longitude);
+        latestLocations.put(username, location);
+        dirtyUsernames.add(username);
+        locationGrid.put(username, latitude, longitude);
+        return location;
+    }
+
+    // Turisti u krugu od radiusMeters oko tačke, sortirani po udaljenosti
+    public List<NearbyTourist> findTouristsWithinRadius(double latitude, double longitude, double radiusMeters, int limit) {
+        if (radiusMeters <= 0 || radiusMeters > nearbyMaxRadiusMeters) {
+            throw new IllegalArgumentException("Radijus mora biti veći od 0 i najviše " + nearbyMaxRadiusMeters + " m");
+        }
+        if (limit <= 0 || limit > nearbyMaxResults) {
+            throw new IllegalArgumentException("Limit mora biti između 1 i " + nearbyMaxResults);
+        }
+        return toNearbyTourists(locationGrid.withinRadius(latitude, longitude, radiusMeters, limit));
+    }
+
+    // k najbližih turista tački (pretraga je ograničena na tours.tourist-location.nearest.max-radius-meters)
+    public List<NearbyTourist> findNearestTourists(double latitude, double longitude, int k) {
+        if (k <= 0 || k > nearbyMaxResults) {
+            throw new IllegalArgumentException("Broj turista mora biti između 1 i " + nearbyMaxResults);
+        }
+        return toNearbyTourists(locationGrid.nearest(latitude, longitude, k, nearestMaxRadiusMeters));
+    }
+
+    private List<NearbyTourist> toNearbyTourists(List<GeoGrid.Neighbor<String>> neighbors) {
+        List<NearbyTourist> result = new ArrayList<>(neighbors.size());
+        for (GeoGrid.Neighbor<String> neighbor : neighbors) {
+            result.add(new NearbyTourist(neighbor.getKey(), neighbor.getLatitude(),
+                    neighbor.getLongitude(), neighbor.getDistanceMeters()));
+        }
+        return result;
     }
 
     public TouristLocation getCurrentLocation(String username) {
-        return touristLocationRepository.findByUsername(username).orElse(null);
+        if (writeBehindEnabled) {
+            TouristLocation cached = latestLocations.get(username);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        TouristLocation location = touristLocationRepository.findByUsername(username).orElse(null);
+        if (writeBehindEnabled && location != null) {
+            latestLocations.putIfAbsent(username, location);
+        }
+        return location;
+    }
+
+    @Scheduled(fixedDelayString = "${tours.tourist-location.write-behind.flush-interval-ms:1000}")
+    public synchronized void flushPendingLocations() {
+        if (dirtyUsernames.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        for (Iterator<String> it = dirtyUsernames.iterator(); it.hasNext(); ) {
+            String username = it.next();
+            // Uklanja se pre čitanja pozicije, pa nova pozicija stigla u međuvremenu ponovo označava korisnika
+            it.remove();
+            TouristLocation location = latestLocations.get(username);
+            if (location != null) {
+                batch.add(new Object[]{username, location.getLatitude(), location.getLongitude()});
+            }
+        }
+
+        for (int from = 0; from < batch.size(); from += FLUSH_BATCH_SIZE) {
+            List<Object[]> chunk = batch.subList(from, Math.min(from + FLUSH_BATCH_SIZE, batch.size()));
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, chunk);
+                chunk.forEach(row -> failedFlushAttempts.remove((String) row[0]));
+            } catch (DataAccessException e) {
+                requeueFailed(chunk, e);
+            }
+        }
+    }
+
+    // Neuspeli upis se ponavlja u sledećem ciklusu, ali ne beskonačno: trajna greška (npr. nedostaje
+    // jedinstveni indeks za ON CONFLICT) bi inače zauvek vraćala iste redove u red
+    private void requeueFailed(List<Object[]> chunk, DataAccessException e) {
+        int dropped = 0;
+        for (Object[] row : chunk) {
+            String username = (String) row[0];
+            int attempts = failedFlushAttempts.merge(username, 1, Integer::sum);
+            if (attempts < maxFlushAttempts) {
+                dirtyUsernames.add(username);
+            } else {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            System.err.println("Odustaje se od upisa lokacija za " + dropped + " turista posle " + maxFlushAttempts
+                    + " neuspelih pokušaja (pozicije ostaju u memoriji, sledeća se pokušava jednom): " + e.getMessage());
+        } else {
+            System.err.println("Greška pri upisu lokacija turista, ponovni pokušaj u sledećem ciklusu: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushPendingLocations();
     }
 }
@@ -0,0 +1,18 @@
+package com.tours.simulator;
+
+/**
+ * Način na koji simulator poziva izvršavanje tura: direktno preko TourExecutionService ili preko REST API-ja.
+ */
+public interface ExecutionDriver {
+
+    // Pokreće turu i vraća ID izvršenja
+    Long startTour(String username, Long tourId, double latitude, double longitude) throws Exception;
+
+    // Šalje poziciju i vraća status izvršenja nakon obrade (STARTED, COMPLETED, ...)
+    String updateLocation(String username, Long executionId, double latitude, double longitude) throws Exception;
+
+    void abandonTour(String username, Long executionId) throws Exception;
+
+    // Napušta izvršenje zaostalo iz prethodnog pokretanja simulatora, ako postoji
+    void abandonActiveTour(String username) throws Exception;
+}
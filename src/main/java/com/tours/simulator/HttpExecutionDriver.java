@@ -0,0 +1,76 @@
+package com.tours.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+public class HttpExecutionDriver implements ExecutionDriver {
+
+    private static final String EXECUTION_PATH = "/api/tours/tour-execution";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+
+    public HttpExecutionDriver(ObjectMapper objectMapper, String baseUrl) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public Long startTour(String username, Long tourId, double latitude, double longitude) throws Exception {
+        JsonNode execution = send(username, "POST", EXECUTION_PATH + "/start",
+                Map.of("tourId", tourId, "initialLatitude", latitude, "initialLongitude", longitude));
+        return execution.get("id").asLong();
+    }
+
+    @Override
+    public String updateLocation(String username, Long executionId, double latitude, double longitude) throws Exception {
+        JsonNode execution = send(username, "PUT", EXECUTION_PATH + "/" + executionId + "/update-location",
+                Map.of("latitude", latitude, "longitude", longitude));
+        return execution.get("status").asText();
+    }
+
+    @Override
+    public void abandonTour(String username, Long executionId) throws Exception {
+        send(username, "PUT", EXECUTION_PATH + "/" + executionId + "/abandon", null);
+    }
+
+    @Override
+    public void abandonActiveTour(String username) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + EXECUTION_PATH + "/active"))
+                .header("X-Username", username)
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 200) {
+            abandonTour(username, objectMapper.readTree(response.body()).get("id").asLong());
+        }
+    }
+
+    private JsonNode send(String username, String method, String path, Object body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body != null
+                ? HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Username", username)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(10))
+                .method(method, publisher)
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " za " + method + " " + path + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,40 @@
+package com.tours.simulator;
+
+import com.tours.model.TourExecution;
+import com.tours.service.TourExecutionService;
+
+import java.util.Optional;
+
+public class InProcessExecutionDriver implements ExecutionDriver {
+
+    private final TourExecutionService tourExecutionService;
+
+    public InProcessExecutionDriver(TourExecutionService tourExecutionService) {
+        this.tourExecutionService = tourExecutionService;
+    }
+
+    @Override
+    public Long startTour(String username, Long tourId, double latitude, double longitude) {
+        return tourExecutionService.startTour(tourId, username, latitude, longitude).getId();
+    }
+
+    @Override
+    public String updateLocation(String username, Long executionId, double latitude, double longitude) {
+        TourExecution execution = tourExecutionService.updateTouristPositionAndCheckKeyPoints(
+                executionId, username, latitude, longitude);
+        return execution.getStatus().name();
+    }
+
+    @Override
+    public void abandonTour(String username, Long executionId) {
+        tourExecutionService.abandonTour(executionId, username);
+    }
+
+    @Override
+    public void abandonActiveTour(String username) {
+        Optional<TourExecution> active = tourExecutionService.getActiveTourExecution(username);
+        if (active.isPresent()) {
+            tourExecutionService.abandonTour(active.get().getId(), username);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tours.simulator;
+
+import java.util.List;
+
+/**
+ * Ponovo šalje zapisane pozicije jednog turiste istim tempom kao u originalnoj simulaciji.
+ * Nova tura se pokreće kad se promeni ID ture ili kad prethodno izvršenje više nije aktivno.
+ */
+public class ReplayedTourist implements Runnable {
+
+    private final String username;
+    private final List<SimulationTrace.Event> events;
+    private final ExecutionDriver driver;
+    private final SimulationRun run;
+
+    public ReplayedTourist(String username, List<SimulationTrace.Event> events, ExecutionDriver driver, SimulationRun run) {
+        this.username = username;
+        this.events = events;
+        this.driver = driver;
+        this.run = run;
+    }
+
+    @Override
+    public void run() {
+        try {
+            driver.abandonActiveTour(username);
+            Long executionId = null;
+            Long currentTourId = null;
+            String status = null;
+
+            for (SimulationTrace.Event event : events) {
+                if (run.isOver()) {
+                    break;
+                }
+                long wait = event.getOffsetMillis() - run.elapsedMillis();
+                if (wait > 0) {
+                    Thread.sleep(wait);
+                }
+
+                if (executionId == null || !event.getTourId().equals(currentTourId) || !"STARTED".equals(status)) {
+                    if (executionId != null && "STARTED".equals(status)) {
+                        driver.abandonTour(username, executionId);
+                    }
+                    long startedAt = System.nanoTime();
+                    try {
+                        executionId = driver.startTour(username, event.getTourId(), event.getLatitude(), event.getLongitude());
+                        run.getStartLatencies().record(System.nanoTime() - startedAt);
+                        currentTourId = event.getTourId();
+                        status = "STARTED";
+                    } catch (Exception e) {
+                        run.getStartLatencies().recordError();
+                        executionId = null;
+                    }
+                    continue;
+                }
+
+                long sentAt = System.nanoTime();
+                try {
+                    status = driver.updateLocation(username, executionId, event.getLatitude(), event.getLongitude());
+                    run.getUpdateLatencies().record(System.nanoTime() - sentAt);
+                } catch (Exception e) {
+                    run.getUpdateLatencies().recordError();
+                }
+            }
+
+            if (executionId != null && "STARTED".equals(status)) {
+                driver.abandonTour(username, executionId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Ponavljanje trase za " + username + " je prekinuto: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.tours.simulator;
+
+import com.tours.geo.KeyPointGeometry;
+
+/**
+ * Putanja objavljene ture kroz njene ključne tačke, sa kumulativnom dužinom za interpolaciju pozicije.
+ */
+public class SimulatedRoute {
+
+    private final Long tourId;
+    private final KeyPointGeometry geometry;
+    private final double[] cumulativeMeters;
+
+    public SimulatedRoute(Long tourId, KeyPointGeometry geometry) {
+        this.tourId = tourId;
+        this.geometry = geometry;
+        this.cumulativeMeters = new double[geometry.size()];
+        for (int i = 1; i < geometry.size(); i++) {
+            cumulativeMeters[i] = cumulativeMeters[i - 1] + geometry.distanceMeters(i - 1, i);
+        }
+    }
+
+    public Long getTourId() {
+        return tourId;
+    }
+
+    public double getLengthMeters() {
+        return cumulativeMeters[cumulativeMeters.length - 1];
+    }
+
+    // Pozicija nakon pređenih traveledMeters duž putanje (linearna interpolacija između susednih tačaka)
+    public double[] positionAt(double traveledMeters) {
+        int segment = 1;
+        while (segment < cumulativeMeters.length - 1 && cumulativeMeters[segment] < traveledMeters) {
+            segment++;
+        }
+        double segmentLength = cumulativeMeters[segment] - cumulativeMeters[segment - 1];
+        double fraction = segmentLength > 0
+                ? Math.min(1.0, Math.max(0.0, (traveledMeters - cumulativeMeters[segment - 1]) / segmentLength))
+                : 1.0;
+        return new double[]{
+                geometry.latitude(segment - 1) + fraction * (geometry.latitude(segment) - geometry.latitude(segment - 1)),
+                geometry.longitude(segment - 1) + fraction * (geometry.longitude(segment) - geometry.longitude(segment - 1))
+        };
+    }
+}
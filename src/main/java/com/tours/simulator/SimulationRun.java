@@ -0,0 +1,51 @@
+package com.tours.simulator;
+
+/**
+ * Zajedničko stanje jednog pokretanja simulacije: parametri, merenja i opcioni zapis trase.
+ */
+public class SimulationRun {
+
+    private final long startNanos = System.nanoTime();
+    private final long deadlineNanos;
+    private final long pingIntervalMillis;
+    private final double jitterMeters;
+    private final double speedMetersPerSecond;
+    private final SimulationTrace trace;
+    private final LatencyRecorder startLatencies = new LatencyRecorder();
+    private final LatencyRecorder updateLatencies = new LatencyRecorder();
+
+    public SimulationRun(long durationSeconds, long pingIntervalMillis, double jitterMeters,
+                         double speedMetersPerSecond, SimulationTrace trace) {
+        this.deadlineNanos = startNanos + durationSeconds * 1_000_000_000L;
+        this.pingIntervalMillis = pingIntervalMillis;
+        this.jitterMeters = jitterMeters;
+        this.speedMetersPerSecond = speedMetersPerSecond;
+        this.trace = trace;
+    }
+
+    public boolean isOver() {
+        return System.nanoTime() >= deadlineNanos;
+    }
+
+    public long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    public void trace(String username, Long tourId, double latitude, double longitude) {
+        if (trace != null) {
+            trace.append(elapsedMillis(), username, tourId, latitude, longitude);
+        }
+    }
+
+    public String report() {
+        long elapsed = System.nanoTime() - startNanos;
+        return startLatencies.report("Pokretanje ture", elapsed) + System.lineSeparator()
+                + updateLatencies.report("Ažuriranje lokacije", elapsed);
+    }
+
+    public long getPingIntervalMillis() { return pingIntervalMillis; }
+    public double getJitterMeters() { return jitterMeters; }
+    public double getSpeedMetersPerSecond() { return speedMetersPerSecond; }
+    public LatencyRecorder getStartLatencies() { return startLatencies; }
+    public LatencyRecorder getUpdateLatencies() { return updateLatencies; }
+}
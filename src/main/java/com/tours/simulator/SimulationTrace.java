@@ -0,0 +1,84 @@
+package com.tours.simulator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zapis poslatih pozicija u CSV obliku: offsetMs,username,tourId,latitude,longitude.
+ * Offset je vreme od početka simulacije, pa se zapis može ponovo pustiti istim tempom.
+ */
+public class SimulationTrace implements AutoCloseable {
+
+    private static final String HEADER = "offsetMs,username,tourId,latitude,longitude";
+
+    private final BufferedWriter writer;
+
+    private SimulationTrace(BufferedWriter writer) {
+        this.writer = writer;
+    }
+
+    public static SimulationTrace record(Path path) throws IOException {
+        BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        writer.write(HEADER);
+        writer.newLine();
+        return new SimulationTrace(writer);
+    }
+
+    public synchronized void append(long offsetMillis, String username, Long tourId, double latitude, double longitude) {
+        try {
+            writer.write(offsetMillis + "," + username + "," + tourId + "," + latitude + "," + longitude);
+            writer.newLine();
+        } catch (IOException e) {
+            System.err.println("Greška pri upisu trase simulacije: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    // Učitava zapis grupisan po turisti, u redosledu u kom su pozicije poslate
+    public static Map<String, List<Event>> load(Path path) throws IOException {
+        Map<String, List<Event>> eventsByUsername = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("offsetMs")) {
+                continue;
+            }
+            String[] parts = line.split(",");
+            Event event = new Event(Long.parseLong(parts[0]), parts[1], Long.valueOf(parts[2]),
+                    Double.parseDouble(parts[3]), Double.parseDouble(parts[4]));
+            eventsByUsername.computeIfAbsent(event.getUsername(), u -> new ArrayList<>()).add(event);
+        }
+        return eventsByUsername;
+    }
+
+    public static final class Event {
+        private final long offsetMillis;
+        private final String username;
+        private final Long tourId;
+        private final double latitude;
+        private final double longitude;
+
+        public Event(long offsetMillis, String username, Long tourId, double latitude, double longitude) {
+            this.offsetMillis = offsetMillis;
+            this.username = username;
+            this.tourId = tourId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public long getOffsetMillis() { return offsetMillis; }
+        public String getUsername() { return username; }
+        public Long getTourId() { return tourId; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+    }
+}
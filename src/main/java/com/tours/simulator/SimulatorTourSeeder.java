@@ -0,0 +1,79 @@
+package com.tours.simulator;
+
+import com.tours.enums.Difficulty;
+import com.tours.enums.Prevoz;
+import com.tours.enums.TourStatus;
+import com.tours.geo.GeoMath;
+import com.tours.model.KeyPoint;
+import com.tours.model.Tour;
+import com.tours.repository.KeyPointRepository;
+import com.tours.repository.TourRepository;
+import com.tours.service.PublishedTourSpatialIndex;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Kreira objavljene ture sa ključnim tačkama kada u bazi (npr. praznoj H2) nema tura za simulaciju.
+ * Upisuje direktno kroz repozitorijume, bez provere autora preko Stakeholders servisa.
+ */
+public class SimulatorTourSeeder {
+
+    private static final String AUTHOR = "simulator";
+    private static final int KEY_POINTS_PER_TOUR = 6;
+    private static final double KEY_POINT_SPACING_METERS = 400;
+
+    private final TourRepository tourRepository;
+    private final KeyPointRepository keyPointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PublishedTourSpatialIndex publishedTourSpatialIndex;
+
+    public SimulatorTourSeeder(TourRepository tourRepository, KeyPointRepository keyPointRepository,
+                               TransactionTemplate transactionTemplate, PublishedTourSpatialIndex publishedTourSpatialIndex) {
+        this.tourRepository = tourRepository;
+        this.keyPointRepository = keyPointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.publishedTourSpatialIndex = publishedTourSpatialIndex;
+    }
+
+    public List<Long> seed(int tourCount, double centerLatitude, double centerLongitude) {
+        // Fiksno seme, da bi zapisana trasa mogla da se ponovi nad istim turama u novoj bazi
+        Random random = new Random(42);
+        List<Long> tourIds = transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int t = 0; t < tourCount; t++) {
+                Tour tour = new Tour("Simulirana tura " + (t + 1), "Tura kreirana za simulaciju opterećenja",
+                        "simulacija", Difficulty.values()[t % Difficulty.values().length], AUTHOR);
+                Map<Prevoz, Integer> prevozi = new HashMap<>();
+                prevozi.put(Prevoz.PESKE, 0);
+                tour.setPrevozi(prevozi);
+                tour.setStatus(TourStatus.PUBLISHED);
+                tour.setVremeObjave(LocalDateTime.now());
+                Tour savedTour = tourRepository.save(tour);
+
+                double latitude = centerLatitude + (random.nextDouble() - 0.5) * 0.1;
+                double longitude = centerLongitude + (random.nextDouble() - 0.5) * 0.1;
+                double bearing = random.nextDouble() * 2 * Math.PI;
+                for (int k = 0; k < KEY_POINTS_PER_TOUR; k++) {
+                    keyPointRepository.save(new KeyPoint("Tačka " + (k + 1), "Simulirana ključna tačka",
+                            latitude, longitude, null, savedTour.getId()));
+                    bearing += (random.nextDouble() - 0.5) * Math.PI / 2;
+                    latitude += KEY_POINT_SPACING_METERS * Math.cos(bearing) / GeoMath.METERS_PER_DEGREE_LAT;
+                    longitude += KEY_POINT_SPACING_METERS * Math.sin(bearing)
+                            / (GeoMath.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(latitude)));
+                }
+                ids.add(savedTour.getId());
+            }
+            return ids;
+        });
+
+        tourIds.forEach(publishedTourSpatialIndex::refresh);
+        System.out.println("Simulator je kreirao " + tourIds.size() + " objavljenih tura");
+        return tourIds;
+    }
+}
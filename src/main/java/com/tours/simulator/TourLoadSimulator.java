@@ -0,0 +1,163 @@
+package com.tours.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tours.enums.TourStatus;
+import com.tours.geo.KeyPointGeometry;
+import com.tours.model.Tour;
+import com.tours.repository.KeyPointRepository;
+import com.tours.repository.TourRepository;
+import com.tours.service.KeyPointSpatialIndex;
+import com.tours.service.PublishedTourSpatialIndex;
+import com.tours.service.TourExecutionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generator opterećenja: N virtuelnih turista istovremeno prolazi kroz objavljene ture i šalje pozicije
+ * servisu (direktno ili preko HTTP-a), a na kraju se ispisuju propusnost i percentili latencije.
+ * Uključuje se sa tours.simulator.enabled=true (npr. profil "simulator" nad H2 bazom).
+ */
+@Component
+@ConditionalOnProperty(name = "tours.simulator.enabled", havingValue = "true")
+public class TourLoadSimulator implements ApplicationRunner {
+
+    private final TourExecutionService tourExecutionService;
+    private final TourRepository tourRepository;
+    private final KeyPointRepository keyPointRepository;
+    private final KeyPointSpatialIndex keyPointSpatialIndex;
+    private final PublishedTourSpatialIndex publishedTourSpatialIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${tours.simulator.tourists:100}")
+    private int tourists;
+
+    @Value("${tours.simulator.duration-seconds:60}")
+    private long durationSeconds;
+
+    @Value("${tours.simulator.ping-interval-ms:1000}")
+    private long pingIntervalMillis;
+
+    @Value("${tours.simulator.jitter-meters:8}")
+    private double jitterMeters;
+
+    @Value("${tours.simulator.speed-mps:1.4}")
+    private double speedMetersPerSecond;
+
+    // in-process ili http
+    @Value("${tours.simulator.mode:in-process}")
+    private String mode;
+
+    @Value("${tours.simulator.base-url:http://localhost:${server.port:8080}}")
+    private String baseUrl;
+
+    @Value("${tours.simulator.seed-tours:10}")
+    private int seedTours;
+
+    @Value("${tours.simulator.center-latitude:45.2671}")
+    private double centerLatitude;
+
+    @Value("${tours.simulator.center-longitude:19.8335}")
+    private double centerLongitude;
+
+    @Value("${tours.simulator.record-file:}")
+    private String recordFile;
+
+    @Value("${tours.simulator.replay-file:}")
+    private String replayFile;
+
+    @Autowired
+    public TourLoadSimulator(TourExecutionService tourExecutionService,
+                             TourRepository tourRepository,
+                             KeyPointRepository keyPointRepository,
+                             KeyPointSpatialIndex keyPointSpatialIndex,
+                             PublishedTourSpatialIndex publishedTourSpatialIndex,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper) {
+        this.tourExecutionService = tourExecutionService;
+        this.tourRepository = tourRepository;
+        this.keyPointRepository = keyPointRepository;
+        this.keyPointSpatialIndex = keyPointSpatialIndex;
+        this.publishedTourSpatialIndex = publishedTourSpatialIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Simulacija se izvršava u pozadini da ne bi blokirala pokretanje aplikacije (HTTP režim gađa isti servis)
+        Thread thread = new Thread(this::simulate, "tour-load-simulator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void simulate() {
+        ExecutionDriver driver = "http".equalsIgnoreCase(mode)
+                ? new HttpExecutionDriver(objectMapper, baseUrl)
+                : new InProcessExecutionDriver(tourExecutionService);
+
+        try (SimulationTrace trace = recordFile.isBlank() ? null : SimulationTrace.record(Path.of(recordFile));
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            SimulationRun run = new SimulationRun(durationSeconds, pingIntervalMillis, jitterMeters, speedMetersPerSecond, trace);
+
+            if (!replayFile.isBlank()) {
+                Map<String, List<SimulationTrace.Event>> eventsByUsername = SimulationTrace.load(Path.of(replayFile));
+                System.out.println("Simulator ponavlja trasu " + replayFile + " za " + eventsByUsername.size() + " turista (" + mode + ")");
+                eventsByUsername.forEach((username, events) ->
+                        executor.submit(new ReplayedTourist(username, events, driver, run)));
+            } else {
+                List<SimulatedRoute> routes = loadRoutes();
+                if (routes.isEmpty()) {
+                    System.err.println("Simulator nema objavljenih tura sa najmanje 2 ključne tačke, prekida se.");
+                    return;
+                }
+                System.out.println("Simulator pokreće " + tourists + " virtuelnih turista na " + routes.size()
+                        + " tura u trajanju od " + durationSeconds + " s (" + mode + ")");
+                for (int i = 1; i <= tourists; i++) {
+                    executor.submit(new VirtualTourist("sim-tourist-" + i, routes, driver, run));
+                }
+            }
+
+            executor.shutdown();
+            // Rezerva za poslednje pozive koji su u toku kad istekne trajanje
+            executor.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+            System.out.println("Rezultati simulacije:" + System.lineSeparator() + run.report());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Greška u simulatoru: " + e.getMessage());
+        }
+    }
+
+    private List<SimulatedRoute> loadRoutes() {
+        List<SimulatedRoute> routes = new ArrayList<>();
+        for (Tour tour : tourRepository.findByStatus(TourStatus.PUBLISHED)) {
+            KeyPointGeometry geometry = keyPointSpatialIndex.getGeometry(tour.getId());
+            if (geometry.size() >= 2) {
+                routes.add(new SimulatedRoute(tour.getId(), geometry));
+            }
+        }
+
+        if (routes.isEmpty() && seedTours > 0) {
+            SimulatorTourSeeder seeder = new SimulatorTourSeeder(
+                    tourRepository, keyPointRepository, transactionTemplate, publishedTourSpatialIndex);
+            for (Long tourId : seeder.seed(seedTours, centerLatitude, centerLongitude)) {
+                routes.add(new SimulatedRoute(tourId, keyPointSpatialIndex.getGeometry(tourId)));
+            }
+        }
+        return routes;
+    }
+}
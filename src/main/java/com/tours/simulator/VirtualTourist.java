@@ -0,0 +1,103 @@
+package com.tours.simulator;
+
+import com.tours.geo.GeoMath;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Virtuelni turista koji hoda duž ključnih tačaka nasumično izabranih tura i šalje GPS pozicije
+ * sa šumom i nepravilnim razmakom između slanja, sve dok simulacija traje.
+ */
+public class VirtualTourist implements Runnable {
+
+    // Broj dodatnih pozicija poslatih na poslednjoj tački pre napuštanja nezavršene ture
+    private static final int END_OF_ROUTE_PINGS = 3;
+
+    private final String username;
+    private final List<SimulatedRoute> routes;
+    private final ExecutionDriver driver;
+    private final SimulationRun run;
+
+    public VirtualTourist(String username, List<SimulatedRoute> routes, ExecutionDriver driver, SimulationRun run) {
+        this.username = username;
+        this.routes = routes;
+        this.driver = driver;
+        this.run = run;
+    }
+
+    @Override
+    public void run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            driver.abandonActiveTour(username);
+            // Turisti ne kreću istovremeno, kao ni u produkciji
+            Thread.sleep(random.nextLong(run.getPingIntervalMillis() + 1));
+
+            while (!run.isOver()) {
+                walk(routes.get(random.nextInt(routes.size())), random);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Virtuelni turista " + username + " je prekinut: " + e.getMessage());
+        }
+    }
+
+    private void walk(SimulatedRoute route, ThreadLocalRandom random) throws Exception {
+        double[] start = jitter(route.positionAt(0), random);
+        long startedAt = System.nanoTime();
+        Long executionId;
+        try {
+            executionId = driver.startTour(username, route.getTourId(), start[0], start[1]);
+            run.getStartLatencies().record(System.nanoTime() - startedAt);
+        } catch (Exception e) {
+            run.getStartLatencies().recordError();
+            Thread.sleep(run.getPingIntervalMillis());
+            return;
+        }
+        run.trace(username, route.getTourId(), start[0], start[1]);
+
+        double traveled = 0;
+        int pingsAtEnd = 0;
+        String status = "STARTED";
+        while ("STARTED".equals(status) && !run.isOver() && pingsAtEnd < END_OF_ROUTE_PINGS) {
+            // Razmak između slanja varira ±20% oko zadatog intervala
+            long interval = (long) (run.getPingIntervalMillis() * (0.8 + 0.4 * random.nextDouble()));
+            Thread.sleep(interval);
+
+            traveled += run.getSpeedMetersPerSecond() * interval / 1000.0;
+            if (traveled >= route.getLengthMeters()) {
+                traveled = route.getLengthMeters();
+                pingsAtEnd++;
+            }
+            double[] position = jitter(route.positionAt(traveled), random);
+
+            long sentAt = System.nanoTime();
+            try {
+                status = driver.updateLocation(username, executionId, position[0], position[1]);
+                run.getUpdateLatencies().record(System.nanoTime() - sentAt);
+            } catch (Exception e) {
+                run.getUpdateLatencies().recordError();
+            }
+            run.trace(username, route.getTourId(), position[0], position[1]);
+        }
+
+        if ("STARTED".equals(status)) {
+            try {
+                driver.abandonTour(username, executionId);
+            } catch (Exception e) {
+                System.err.println("Napuštanje ture nije uspelo za " + username + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Gausov šum sa standardnom devijacijom jitterMeters, preračunat u stepene
+    private double[] jitter(double[] position, ThreadLocalRandom random) {
+        double sigma = run.getJitterMeters();
+        double dLat = random.nextGaussian() * sigma / GeoMath.METERS_PER_DEGREE_LAT;
+        double dLon = random.nextGaussian() * sigma
+                / (GeoMath.METERS_PER_DEGREE_LAT * Math.max(Math.cos(Math.toRadians(position[0])), 0.01));
+        return new double[]{position[0] + dLat, position[1] + dLon};
+    }
+}
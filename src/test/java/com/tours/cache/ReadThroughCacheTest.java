@@ -0,0 +1,160 @@
+package com.tours.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadThroughCacheTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareSingleLoad() throws Exception {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> cache.get("ture", key -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "vrednost";
+            })));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("vrednost", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void loaderFailureReachesCallerAndIsNotCached() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class, () -> cache.get("ture", key -> {
+            throw new IllegalStateException("baza nije dostupna");
+        }));
+
+        assertEquals(0, cache.size());
+        assertEquals("vrednost", cache.get("ture", key -> "vrednost"));
+    }
+
+    @Test
+    void expiredEntryIsReloaded() {
+        ReadThroughCache<String, Integer> cache = new ReadThroughCache<>(10, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("ture", key -> loads.incrementAndGet());
+        cache.get("ture", key -> loads.incrementAndGet());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAboveMaxSize() {
+        ReadThroughCache<String, Integer> cache = new ReadThroughCache<>(2, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", key -> loads.incrementAndGet());
+        cache.get("b", key -> loads.incrementAndGet());
+        cache.get("a", key -> loads.incrementAndGet());
+        cache.get("c", key -> loads.incrementAndGet());
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("a", key -> loads.incrementAndGet()));
+        assertEquals(4, cache.get("b", key -> loads.incrementAndGet()));
+    }
+
+    @Test
+    void loadInvalidatedWhileInFlightIsNotCached() throws Exception {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> stale = executor.submit(() -> cache.get("ture", key -> {
+            started.countDown();
+            await(release);
+            return "staro";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        cache.invalidate("ture");
+        // Posle invalidacije novi pozivalac ne čeka staro učitavanje
+        assertEquals("novo", cache.get("ture", key -> "novo"));
+        release.countDown();
+
+        assertEquals("staro", stale.get(5, TimeUnit.SECONDS));
+        assertEquals("novo", cache.get("ture", key -> "treće"));
+    }
+
+    @Test
+    void invalidatingAnotherKeyDoesNotDiscardInFlightLoad() throws Exception {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> load = executor.submit(() -> cache.get("a", key -> {
+            started.countDown();
+            await(release);
+            return "vrednost";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        cache.invalidate("b");
+        release.countDown();
+
+        assertEquals("vrednost", load.get(5, TimeUnit.SECONDS));
+        assertEquals("vrednost", cache.get("a", key -> "ponovo"));
+    }
+
+    @Test
+    void invalidateAllDiscardsEntriesAndInFlightLoads() throws Exception {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+        cache.get("a", key -> "a1");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> load = executor.submit(() -> cache.get("b", key -> {
+            started.countDown();
+            await(release);
+            return "b1";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        cache.invalidateAll();
+        release.countDown();
+
+        assertEquals("b1", load.get(5, TimeUnit.SECONDS));
+        assertEquals(0, cache.size());
+        assertEquals("a2", cache.get("a", key -> "a2"));
+        assertEquals("b2", cache.get("b", key -> "b2"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
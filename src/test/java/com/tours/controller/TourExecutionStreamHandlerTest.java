@@ -0,0 +1,133 @@
+package com.tours.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tours.dto.TourExecutionEvent;
+import com.tours.enums.TourExecutionEventType;
+import com.tours.model.TourExecution;
+import com.tours.service.ActiveTourExecutionRegistry;
+import com.tours.service.TourExecutionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TourExecutionStreamHandlerTest {
+
+    private static final Long EXECUTION_ID = 10L;
+
+    @Mock
+    private TourExecutionService tourExecutionService;
+    @Mock
+    private ActiveTourExecutionRegistry activeExecutions;
+
+    private TourExecutionStreamHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new TourExecutionStreamHandler(tourExecutionService, activeExecutions, new ObjectMapper());
+    }
+
+    @Test
+    void handshakeAcceptsOnlyTheOwnerOfAnActiveExecution() throws Exception {
+        TourExecution execution = new TourExecution(1L, "ana", 45.0, 19.0);
+        when(activeExecutions.findById(EXECUTION_ID)).thenReturn(Optional.of(execution));
+        when(activeExecutions.findById(11L)).thenReturn(Optional.empty());
+
+        Map<String, Object> attributes = new HashMap<>();
+        assertTrue(handshake("ana", "10", attributes).isEmpty());
+        assertEquals(EXECUTION_ID, attributes.get("executionId"));
+        assertEquals("ana", attributes.get("username"));
+
+        assertEquals(Optional.of(HttpStatus.FORBIDDEN.value()), handshake("marko", "10", new HashMap<>()));
+        assertEquals(Optional.of(HttpStatus.FORBIDDEN.value()), handshake("ana", "11", new HashMap<>()));
+        assertEquals(Optional.of(HttpStatus.BAD_REQUEST.value()), handshake("ana", "abc", new HashMap<>()));
+        assertEquals(Optional.of(HttpStatus.UNAUTHORIZED.value()), handshake(null, "10", new HashMap<>()));
+    }
+
+    @Test
+    void connectionOfAnotherUserDoesNotReplaceTheOpenStream() throws Exception {
+        WebSocketSession owner = session("s1", "ana");
+        WebSocketSession intruder = session("s2", "marko");
+
+        handler.afterConnectionEstablished(owner);
+        handler.afterConnectionEstablished(intruder);
+
+        verify(intruder).close(any(CloseStatus.class));
+        verify(owner, never()).close(any(CloseStatus.class));
+        handler.onTourExecutionEvent(TourExecutionEvent.keyPointReached(EXECUTION_ID, 5L));
+        verify(owner).sendMessage(any(TextMessage.class));
+        verify(intruder, never()).sendMessage(any());
+    }
+
+    @Test
+    void reconnectOfTheSameUserReplacesTheOldStream() throws Exception {
+        WebSocketSession first = session("s1", "ana");
+        WebSocketSession second = session("s2", "ana");
+
+        handler.afterConnectionEstablished(first);
+        handler.afterConnectionEstablished(second);
+
+        verify(first).close(any(CloseStatus.class));
+        handler.onTourExecutionEvent(TourExecutionEvent.keyPointReached(EXECUTION_ID, 5L));
+        verify(second).sendMessage(any(TextMessage.class));
+    }
+
+    @Test
+    void terminalEventIsForwardedAndClosesTheStream() throws Exception {
+        WebSocketSession session = session("s1", "ana");
+        handler.afterConnectionEstablished(session);
+
+        handler.onTourExecutionEvent(TourExecutionEvent.finished(TourExecutionEventType.TOUR_ABANDONED, EXECUTION_ID));
+
+        ArgumentCaptor<TextMessage> message = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session).sendMessage(message.capture());
+        assertTrue(message.getValue().getPayload().contains("\"type\":\"TOUR_ABANDONED\""));
+        verify(session).close(CloseStatus.NORMAL);
+    }
+
+    private Optional<Integer> handshake(String username, String executionId, Map<String, Object> attributes) throws Exception {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/tours/tour-execution/stream");
+        servletRequest.setQueryString("executionId=" + executionId);
+        if (username != null) {
+            servletRequest.addHeader("X-Username", username);
+        }
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+
+        HandshakeInterceptor interceptor = handler.handshakeInterceptor();
+        boolean accepted = interceptor.beforeHandshake(new ServletServerHttpRequest(servletRequest), response, handler, attributes);
+        response.flush();
+        return accepted ? Optional.empty() : Optional.of(servletResponse.getStatus());
+    }
+
+    private static WebSocketSession session(String id, String username) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("executionId", EXECUTION_ID);
+        attributes.put("username", username);
+        lenient().when(session.getId()).thenReturn(id);
+        lenient().when(session.getAttributes()).thenReturn(attributes);
+        lenient().when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+}
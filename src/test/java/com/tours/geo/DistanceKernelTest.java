@@ -0,0 +1,95 @@
+package com.tours.geo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class DistanceKernelTest {
+
+    private static final int POINTS = 67;
+
+    private final DistanceKernel scalar = new ScalarDistanceKernel();
+    private DistanceKernel vector;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] x;
+    private double[] y;
+    private double[] z;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Surefire pokreće testove sa --add-modules jdk.incubator.vector; bez modula nema šta da se poredi
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+        vector = (DistanceKernel) Class.forName("com.tours.geo.VectorDistanceKernel")
+                .getDeclaredConstructor().newInstance();
+
+        Random random = new Random(15);
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        x = new double[POINTS];
+        y = new double[POINTS];
+        z = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = 44.0 + random.nextDouble() * 2;
+            longitudes[i] = 19.0 + random.nextDouble() * 3;
+            x[i] = KeyPointGeometry.unitX(latitudes[i], longitudes[i]);
+            y[i] = KeyPointGeometry.unitY(latitudes[i], longitudes[i]);
+            z[i] = KeyPointGeometry.unitZ(latitudes[i]);
+        }
+    }
+
+    @Test
+    void collectWithinMatchesScalarForEveryOffsetAndTail() {
+        double qx = KeyPointGeometry.unitX(45.0, 20.5);
+        double qy = KeyPointGeometry.unitY(45.0, 20.5);
+        double qz = KeyPointGeometry.unitZ(45.0);
+        double chord = 60_000 / GeoMath.EARTH_RADIUS_METERS;
+
+        for (int from = 0; from < 9; from++) {
+            for (int to = from; to <= POINTS; to++) {
+                int[] expected = new int[POINTS + 2];
+                int[] actual = new int[POINTS + 2];
+                // Postojeći sadržaj pre count mora ostati netaknut
+                expected[0] = actual[0] = -7;
+                int expectedCount = scalar.collectWithin(qx, qy, qz, chord * chord, x, y, z, from, to, expected, 1);
+                int actualCount = vector.collectWithin(qx, qy, qz, chord * chord, x, y, z, from, to, actual, 1);
+
+                assertEquals(expectedCount, actualCount, "from=" + from + " to=" + to);
+                assertArrayEquals(Arrays.copyOf(expected, expectedCount), Arrays.copyOf(actual, actualCount),
+                        "from=" + from + " to=" + to);
+            }
+        }
+    }
+
+    @Test
+    void pathAngleMatchesScalarForEveryLength() {
+        for (int count = 0; count <= POINTS; count++) {
+            double expected = scalar.pathAngle(x, y, z, count);
+            double actual = vector.pathAngle(x, y, z, count);
+
+            assertEquals(expected, actual, 1e-12 * Math.max(1, expected), "count=" + count);
+        }
+        assertEquals(0.0, vector.pathAngle(x, y, z, 1));
+    }
+
+    @Test
+    void pathLengthMatchesHaversineSum() {
+        for (int count : new int[]{0, 1, 2, 3, 8, 17, POINTS}) {
+            double haversine = 0;
+            for (int i = 1; i < count; i++) {
+                haversine += GeoMath.distanceMeters(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+            }
+
+            double kernel = GeoBatchKernels.pathLengthMeters(
+                    Arrays.copyOf(latitudes, count), Arrays.copyOf(longitudes, count));
+
+            assertEquals(haversine, kernel, 1e-6 * Math.max(1, haversine), "count=" + count);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.tours.geo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridTest {
+
+    private static final double CELL_SIZE_DEGREES = 0.01;
+
+    private GeoGrid<String> grid;
+    private List<double[]> points;
+
+    @BeforeEach
+    void setUp() {
+        grid = new GeoGrid<>(CELL_SIZE_DEGREES);
+        points = new ArrayList<>();
+        Random random = new Random(21);
+        for (int i = 0; i < 2000; i++) {
+            double latitude = 44.8 + random.nextDouble() * 0.4;
+            double longitude = 20.3 + random.nextDouble() * 0.4;
+            points.add(new double[]{latitude, longitude});
+            grid.put("t" + i, latitude, longitude);
+        }
+    }
+
+    @Test
+    void withinRadiusMatchesBruteForce() {
+        Random random = new Random(3);
+        for (int query = 0; query < 50; query++) {
+            double latitude = 44.8 + random.nextDouble() * 0.4;
+            double longitude = 20.3 + random.nextDouble() * 0.4;
+            double radius = 100 + random.nextDouble() * 5000;
+
+            List<String> expected = new ArrayList<>();
+            for (Integer i : bruteForceOrder(latitude, longitude)) {
+                double[] point = points.get(i);
+                if (GeoMath.distanceMeters(latitude, longitude, point[0], point[1]) <= radius) {
+                    expected.add("t" + i);
+                }
+            }
+
+            assertEquals(expected, keys(grid.withinRadius(latitude, longitude, radius, 0)), "upit " + query);
+        }
+    }
+
+    @Test
+    void withinRadiusReturnsTheClosestUpToTheLimit() {
+        List<GeoGrid.Neighbor<String>> all = grid.withinRadius(45.0, 20.5, 3000, 0);
+        List<GeoGrid.Neighbor<String>> limited = grid.withinRadius(45.0, 20.5, 3000, 5);
+
+        assertTrue(all.size() > 5);
+        assertEquals(keys(all.subList(0, 5)), keys(limited));
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(8);
+        for (int query = 0; query < 50; query++) {
+            double latitude = 44.8 + random.nextDouble() * 0.4;
+            double longitude = 20.3 + random.nextDouble() * 0.4;
+            int k = 1 + random.nextInt(20);
+
+            List<String> expected = new ArrayList<>();
+            for (Integer i : bruteForceOrder(latitude, longitude).subList(0, k)) {
+                expected.add("t" + i);
+            }
+
+            assertEquals(expected, keys(grid.nearest(latitude, longitude, k, 100_000)), "upit " + query);
+        }
+    }
+
+    @Test
+    void nearestStopsAtTheMaximumRadius() {
+        GeoGrid<String> sparse = new GeoGrid<>(CELL_SIZE_DEGREES);
+        sparse.put("blizu", 45.0, 20.0);
+        sparse.put("daleko", 45.5, 20.0);
+
+        List<GeoGrid.Neighbor<String>> result = sparse.nearest(45.0, 20.0, 5, 10_000);
+
+        assertEquals(List.of("blizu"), keys(result));
+        assertTrue(sparse.nearest(45.0, 20.0, 0, 10_000).isEmpty());
+    }
+
+    @Test
+    void movedAndRemovedEntriesAreNotReturnedFromTheirOldCell() {
+        GeoGrid<String> small = new GeoGrid<>(CELL_SIZE_DEGREES);
+        small.put("ana", 45.0, 20.0);
+        small.put("ana", 45.2, 20.2);
+        small.put("marko", 45.0, 20.0);
+        small.remove("marko");
+
+        assertEquals(1, small.size());
+        assertTrue(small.withinRadius(45.0, 20.0, 1000, 0).isEmpty());
+        assertEquals(List.of("ana"), keys(small.withinRadius(45.2, 20.2, 1000, 0)));
+    }
+
+    @Test
+    void nearestVisitsEveryCellOfDistantRings() {
+        // Tačke samo na uglovima i ivicama udaljenih prstenova, prazna sredina
+        GeoGrid<String> ring = new GeoGrid<>(CELL_SIZE_DEGREES);
+        ring.put("ugao", 45.0 + 5 * CELL_SIZE_DEGREES, 20.0 + 5 * CELL_SIZE_DEGREES);
+        ring.put("ivica", 45.0 - 4 * CELL_SIZE_DEGREES, 20.0);
+        ring.put("bok", 45.0, 20.0 - 7 * CELL_SIZE_DEGREES);
+
+        List<GeoGrid.Neighbor<String>> result = ring.nearest(45.0005, 20.0005, 3, 100_000);
+
+        assertEquals(List.of("ivica", "bok", "ugao"), keys(result));
+        assertEquals(List.of("ivica"), keys(ring.nearest(45.0005, 20.0005, 1, 100_000)));
+    }
+
+    private List<Integer> bruteForceOrder(double latitude, double longitude) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble(i -> GeoMath.distanceMeters(latitude, longitude, points.get(i)[0], points.get(i)[1])));
+        return order;
+    }
+
+    private static List<String> keys(List<GeoGrid.Neighbor<String>> neighbors) {
+        List<String> keys = new ArrayList<>();
+        for (GeoGrid.Neighbor<String> neighbor : neighbors) {
+            keys.add(neighbor.getKey());
+        }
+        return keys;
+    }
+}
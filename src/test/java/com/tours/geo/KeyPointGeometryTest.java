@@ -0,0 +1,85 @@
+package com.tours.geo;
+
+import com.tours.model.KeyPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyPointGeometryTest {
+
+    @Test
+    void distancesMatchHaversine() {
+        List<KeyPoint> keyPoints = randomKeyPoints(100, 42);
+        KeyPointGeometry geometry = KeyPointGeometry.of(keyPoints);
+
+        for (int i = 0; i < keyPoints.size() - 1; i++) {
+            KeyPoint from = keyPoints.get(i);
+            KeyPoint to = keyPoints.get(i + 1);
+            double expected = GeoMath.distanceMeters(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
+            assertEquals(expected, geometry.distanceMeters(i, i + 1), 1e-6);
+        }
+    }
+
+    @Test
+    void chordComparisonMatchesHaversineRadius() {
+        List<KeyPoint> keyPoints = randomKeyPoints(200, 7);
+        KeyPointGeometry geometry = KeyPointGeometry.of(keyPoints);
+        double latitude = 45.25;
+        double longitude = 19.85;
+        double qx = KeyPointGeometry.unitX(latitude, longitude);
+        double qy = KeyPointGeometry.unitY(latitude, longitude);
+        double qz = KeyPointGeometry.unitZ(latitude);
+
+        for (double radius : new double[]{10, 300, 1500, 5000}) {
+            double maxChordSquared = GeoMath.chordSquaredForDistance(radius);
+            for (int i = 0; i < geometry.size(); i++) {
+                double distance = GeoMath.distanceMeters(latitude, longitude, geometry.latitude(i), geometry.longitude(i));
+                if (Math.abs(distance - radius) > 0.01) {
+                    assertEquals(distance <= radius, geometry.isWithin(i, qx, qy, qz, maxChordSquared));
+                }
+                assertEquals(distance, GeoMath.distanceForChordSquared(geometry.chordSquared(i, qx, qy, qz)), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void pathLengthIsSumOfSegments() {
+        List<KeyPoint> keyPoints = randomKeyPoints(37, 3);
+        KeyPointGeometry geometry = KeyPointGeometry.of(keyPoints);
+
+        double expected = 0;
+        for (int i = 0; i < keyPoints.size() - 1; i++) {
+            expected += geometry.distanceMeters(i, i + 1);
+        }
+        assertEquals(expected, geometry.pathLengthMeters(), 1e-6);
+        assertEquals(0.0, KeyPointGeometry.of(keyPoints.subList(0, 1)).pathLengthMeters());
+    }
+
+    @Test
+    void ordinalsFollowInputOrder() {
+        List<KeyPoint> keyPoints = randomKeyPoints(5, 1);
+        keyPoints.get(2).setRadiusMeters(42.0);
+        KeyPointGeometry geometry = KeyPointGeometry.of(keyPoints);
+
+        assertEquals(3, geometry.ordinalOf(keyPoints.get(3).getId()));
+        assertEquals(-1, geometry.ordinalOf(999L));
+        assertEquals(42.0, geometry.radiusMeters(2));
+        assertTrue(Double.isNaN(geometry.radiusMeters(0)));
+    }
+
+    private static List<KeyPoint> randomKeyPoints(int count, long seed) {
+        Random random = new Random(seed);
+        List<KeyPoint> keyPoints = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            KeyPoint keyPoint = new KeyPoint("KP " + i, "opis", 45.25 + (random.nextDouble() - 0.5) * 0.1,
+                    19.85 + (random.nextDouble() - 0.5) * 0.1, null, 1L);
+            keyPoint.setId((long) (i + 100));
+            keyPoints.add(keyPoint);
+        }
+        return keyPoints;
+    }
+}
@@ -0,0 +1,121 @@
+package com.tours.geofence;
+
+import com.tours.enums.GeofenceEventType;
+import com.tours.model.KeyPoint;
+import com.tours.model.TourExecution;
+import com.tours.repository.KeyPointRepository;
+import com.tours.service.KeyPointSpatialIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeofenceEngineTest {
+
+    private static final Long TOUR_ID = 1L;
+    private static final double LATITUDE = 45.0;
+    private static final double LONGITUDE = 19.0;
+    private static final double METERS_PER_DEGREE = 111_195.0;
+
+    @Mock
+    private KeyPointRepository keyPointRepository;
+
+    private final List<GeofenceEvent> received = new ArrayList<>();
+    private GeofenceEngine engine;
+    private TourExecution execution;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        KeyPoint fenced = new KeyPoint("Trg", "opis", LATITUDE, LONGITUDE, null, TOUR_ID);
+        fenced.setId(10L);
+        fenced.setRadiusMeters(100.0);
+        // Tačka bez sopstvenog poluprečnika koristi podrazumevani (300 m), oko 2 km istočno
+        KeyPoint defaultRadius = new KeyPoint("Most", "opis", LATITUDE, LONGITUDE + 0.03, null, TOUR_ID);
+        defaultRadius.setId(11L);
+        when(keyPointRepository.findByTourId(TOUR_ID)).thenReturn(List.of(fenced, defaultRadius));
+
+        engine = new GeofenceEngine(new KeyPointSpatialIndex(keyPointRepository, 100),
+                List.of((event, execution) -> received.add(event)), 300, 25, 60);
+        execution = new TourExecution(TOUR_ID, "ana", LATITUDE, LONGITUDE);
+        execution.setId(5L);
+        start = LocalDateTime.of(2025, 6, 1, 12, 0);
+    }
+
+    @Test
+    void entersOnTheRadiusAndExitsOnlyBeyondTheHysteresis() {
+        assertTrue(evaluateNorth(150, 0).isEmpty());
+
+        List<GeofenceEvent> enter = evaluateNorth(90, 1);
+        assertEquals(1, enter.size());
+        assertEquals(GeofenceEventType.ENTER, enter.get(0).getType());
+        assertEquals(10L, enter.get(0).getKeyPointId());
+        assertEquals(0, enter.get(0).getOrdinal());
+        assertEquals(2, enter.get(0).getKeyPointCount());
+
+        // Izvan poluprečnika, ali unutar histerezisa: ni izlazak ni ponovni ulazak
+        assertTrue(evaluateNorth(110, 2).isEmpty());
+        assertTrue(evaluateNorth(95, 3).isEmpty());
+
+        List<GeofenceEvent> exit = evaluateNorth(130, 4);
+        assertEquals(List.of(GeofenceEventType.EXIT), types(exit));
+        assertEquals(List.of(GeofenceEventType.ENTER), types(evaluateNorth(50, 5)));
+    }
+
+    @Test
+    void dwellIsReportedOncePerVisit() {
+        evaluateNorth(50, 0);
+
+        assertTrue(evaluateNorth(50, 59).isEmpty());
+        assertEquals(List.of(GeofenceEventType.DWELL), types(evaluateNorth(40, 60)));
+        assertTrue(evaluateNorth(40, 120).isEmpty());
+
+        evaluateNorth(200, 130);
+        evaluateNorth(0, 140);
+        assertEquals(List.of(GeofenceEventType.DWELL), types(evaluateNorth(0, 200)));
+    }
+
+    @Test
+    void keyPointWithoutRadiusUsesTheDefault() {
+        double eastLongitude = LONGITUDE + 0.03;
+        double latitude = LATITUDE + 250 / METERS_PER_DEGREE;
+
+        List<GeofenceEvent> events = engine.evaluate(execution, latitude, eastLongitude, start);
+
+        assertEquals(1, events.size());
+        assertEquals(11L, events.get(0).getKeyPointId());
+    }
+
+    @Test
+    void listenersReceiveEveryEventAndForgetResetsTheState() {
+        evaluateNorth(50, 0);
+        evaluateNorth(500, 1);
+        assertEquals(List.of(GeofenceEventType.ENTER, GeofenceEventType.EXIT), types(received));
+
+        evaluateNorth(50, 2);
+        engine.forget(execution.getId());
+        // Bez stanja je turista ponovo "ušao"
+        assertEquals(List.of(GeofenceEventType.ENTER), types(evaluateNorth(50, 3)));
+    }
+
+    private List<GeofenceEvent> evaluateNorth(double meters, long seconds) {
+        return engine.evaluate(execution, LATITUDE + meters / METERS_PER_DEGREE, LONGITUDE, start.plusSeconds(seconds));
+    }
+
+    private static List<GeofenceEventType> types(List<GeofenceEvent> events) {
+        List<GeofenceEventType> types = new ArrayList<>();
+        for (GeofenceEvent event : events) {
+            types.add(event.getType());
+        }
+        return types;
+    }
+}
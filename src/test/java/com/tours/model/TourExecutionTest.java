@@ -0,0 +1,59 @@
+package com.tours.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourExecutionTest {
+
+    @Test
+    void marksKeyPointsAcrossWordBoundaries() {
+        TourExecution execution = new TourExecution(1L, "ana", 45.0, 19.0);
+
+        assertTrue(execution.markKeyPointCompleted(0));
+        assertTrue(execution.markKeyPointCompleted(63));
+        assertTrue(execution.markKeyPointCompleted(64));
+        assertTrue(execution.markKeyPointCompleted(130));
+        assertFalse(execution.markKeyPointCompleted(64));
+
+        assertEquals(3, execution.getCompletedKeyPointBits().length);
+        assertEquals(4, execution.countCompletedKeyPoints());
+        assertTrue(execution.isKeyPointCompleted(63));
+        assertFalse(execution.isKeyPointCompleted(1));
+        assertFalse(execution.isKeyPointCompleted(500));
+
+        List<Integer> ordinals = new ArrayList<>();
+        execution.forEachCompletedKeyPoint(ordinals::add);
+        assertEquals(List.of(0, 63, 64, 130), ordinals);
+    }
+
+    @Test
+    void allKeyPointsCompletedChecksOnlyTheFirstOrdinals() {
+        TourExecution execution = new TourExecution(1L, "ana", 45.0, 19.0);
+        assertFalse(execution.allKeyPointsCompleted(0));
+
+        for (int ordinal = 0; ordinal < 64; ordinal++) {
+            execution.markKeyPointCompleted(ordinal);
+        }
+        assertTrue(execution.allKeyPointsCompleted(64));
+        assertFalse(execution.allKeyPointsCompleted(65));
+
+        execution.markKeyPointCompleted(64);
+        assertTrue(execution.allKeyPointsCompleted(65));
+        assertTrue(execution.allKeyPointsCompleted(10));
+    }
+
+    @Test
+    void missingBitsetMeansNothingCompleted() {
+        TourExecution execution = new TourExecution();
+        execution.setCompletedKeyPointBits(null);
+
+        assertFalse(execution.isKeyPointCompleted(0));
+        assertEquals(0, execution.countCompletedKeyPoints());
+        assertTrue(execution.markKeyPointCompleted(2));
+        assertTrue(execution.isKeyPointCompleted(2));
+    }
+}
@@ -0,0 +1,65 @@
+package com.tours.repository;
+
+import com.tours.model.KeyPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class KeyPointRepositoryTest {
+
+    @Autowired
+    private KeyPointRepository keyPointRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void startPointTieOnCreatedAtIsBrokenById() {
+        Long first = entityManager.persistAndGetId(new KeyPoint("A", "opis", 45.0, 19.0, null, 7L), Long.class);
+        Long second = entityManager.persistAndGetId(new KeyPoint("B", "opis", 45.1, 19.1, null, 7L), Long.class);
+        // @PrePersist postavlja vreme, pa se isto vreme kreiranja zadaje naknadno
+        entityManager.getEntityManager()
+                .createQuery("UPDATE KeyPoint kp SET kp.createdAt = :createdAt WHERE kp.tourId = 7")
+                .setParameter("createdAt", LocalDateTime.of(2026, 1, 1, 12, 0))
+                .executeUpdate();
+        entityManager.clear();
+
+        assertTrue(first < second);
+        assertEquals(first, keyPointRepository.findFirstByTourIdOrderByCreatedAtAscIdAsc(7L).orElseThrow().getId());
+    }
+
+    @Test
+    void tourKeyPointsAreListedInPathOrder() {
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 12, 0);
+        Long first = entityManager.persistAndGetId(new KeyPoint("A", "opis", 45.0, 19.0, null, 8L), Long.class);
+        Long second = entityManager.persistAndGetId(new KeyPoint("B", "opis", 45.1, 19.1, null, 8L), Long.class);
+        Long third = entityManager.persistAndGetId(new KeyPoint("C", "opis", 45.2, 19.2, null, 8L), Long.class);
+        // Tačka sa najvećim ID-em je kreirana prva (npr. na drugoj instanci), ostale dele isto vreme
+        setCreatedAt(third, base);
+        setCreatedAt(first, base.plusMinutes(1));
+        setCreatedAt(second, base.plusMinutes(1));
+        entityManager.clear();
+
+        List<Long> ids = keyPointRepository.findByTourIdOrderByCreatedAtAscIdAsc(8L).stream().map(KeyPoint::getId).toList();
+
+        assertEquals(List.of(third, first, second), ids);
+    }
+
+    private void setCreatedAt(Long keyPointId, LocalDateTime createdAt) {
+        entityManager.getEntityManager()
+                .createQuery("UPDATE KeyPoint kp SET kp.createdAt = :createdAt WHERE kp.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", keyPointId)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,116 @@
+package com.tours.repository;
+
+import com.tours.enums.TourExecutionStatus;
+import com.tours.model.TourExecution;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class TourExecutionRepositoryTest {
+
+    @Autowired
+    private TourExecutionRepository tourExecutionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void completedKeyPointBitsSurviveSaveAndReload() {
+        TourExecution execution = new TourExecution(1L, "ana", 45.0, 19.0);
+        execution.markKeyPointCompleted(0);
+        execution.markKeyPointCompleted(65);
+        execution.markKeyPointCompleted(129);
+        Long id = tourExecutionRepository.saveAndFlush(execution).getId();
+        entityManager.clear();
+
+        TourExecution reloaded = tourExecutionRepository.findById(id).orElseThrow();
+
+        assertNotSame(execution, reloaded);
+        assertArrayEquals(execution.getCompletedKeyPointBits(), reloaded.getCompletedKeyPointBits());
+        assertTrue(reloaded.isKeyPointCompleted(65));
+        assertFalse(reloaded.isKeyPointCompleted(64));
+        assertEquals(3, reloaded.countCompletedKeyPoints());
+    }
+
+    @Test
+    void bitsAddedAfterReloadArePersisted() {
+        TourExecution execution = new TourExecution(1L, "ana", 45.0, 19.0);
+        Long id = tourExecutionRepository.saveAndFlush(execution).getId();
+        entityManager.clear();
+
+        TourExecution reloaded = tourExecutionRepository.findById(id).orElseThrow();
+        reloaded.markKeyPointCompleted(70);
+        tourExecutionRepository.saveAndFlush(reloaded);
+        entityManager.clear();
+
+        assertTrue(tourExecutionRepository.findById(id).orElseThrow().isKeyPointCompleted(70));
+    }
+
+    @Test
+    void staleCandidatesArePagedByLastActivityTimeAndId() {
+        LocalDateTime old = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Long a = saveStarted("a", old.plusMinutes(5));
+        Long b = saveStarted("b", old);
+        Long c = saveStarted("c", old);
+        saveStarted("d", LocalDateTime.now());
+        TourExecution completed = new TourExecution(1L, "e", 45.0, 19.0);
+        completed.setStatus(TourExecutionStatus.COMPLETED);
+        completed.setLastActivityTime(old);
+        tourExecutionRepository.saveAndFlush(completed);
+        LocalDateTime cutoff = old.plusHours(1);
+
+        List<Object[]> first = tourExecutionRepository.findIdsByStatusAndLastActivityBefore(
+                TourExecutionStatus.STARTED, cutoff, PageRequest.of(0, 2));
+        assertEquals(List.of(b, c), List.of(first.get(0)[0], first.get(1)[0]));
+
+        Object[] last = first.get(1);
+        List<Object[]> second = tourExecutionRepository.findIdsByStatusAndLastActivityBeforeAfter(
+                TourExecutionStatus.STARTED, cutoff, (LocalDateTime) last[1], (Long) last[0], PageRequest.of(0, 2));
+        assertEquals(1, second.size());
+        assertEquals(a, second.get(0)[0]);
+    }
+
+    @Test
+    void abandonUpdateSkipsRowsActiveAfterTheCutoff() {
+        LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Long idle = saveStarted("a", cutoff.minusHours(1));
+        Long active = saveStarted("b", cutoff.plusMinutes(1));
+
+        int updated = tourExecutionRepository.updateStatusByIds(List.of(idle, active), TourExecutionStatus.STARTED,
+                TourExecutionStatus.ABANDONED, cutoff, cutoff.plusHours(1));
+        entityManager.clear();
+
+        assertEquals(1, updated);
+        assertEquals(TourExecutionStatus.ABANDONED, tourExecutionRepository.findById(idle).orElseThrow().getStatus());
+        assertEquals(TourExecutionStatus.STARTED, tourExecutionRepository.findById(active).orElseThrow().getStatus());
+    }
+
+    @Test
+    void lastActivityTimeOnlyMovesForward() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Long id = saveStarted("a", time);
+
+        assertEquals(1, tourExecutionRepository.advanceLastActivityTime(id, TourExecutionStatus.STARTED, time.plusHours(1)));
+        assertEquals(0, tourExecutionRepository.advanceLastActivityTime(id, TourExecutionStatus.STARTED, time));
+        entityManager.clear();
+
+        assertEquals(time.plusHours(1), tourExecutionRepository.findById(id).orElseThrow().getLastActivityTime());
+    }
+
+    private Long saveStarted(String touristUsername, LocalDateTime lastActivity) {
+        TourExecution execution = new TourExecution(1L, touristUsername, 45.0, 19.0);
+        execution.setLastActivityTime(lastActivity);
+        return tourExecutionRepository.saveAndFlush(execution).getId();
+    }
+}
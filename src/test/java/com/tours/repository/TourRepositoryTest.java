@@ -0,0 +1,82 @@
+package com.tours.repository;
+
+import com.tours.dto.TourCatalogItem;
+import com.tours.enums.Difficulty;
+import com.tours.enums.Prevoz;
+import com.tours.enums.TourStatus;
+import com.tours.model.Tour;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class TourRepositoryTest {
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void catalogKeysetPagesCoverEveryPublishedTourOnceInOrder() {
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 12, 0);
+        List<Tour> published = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Po dve ture dele isto vreme objave, redosled tada određuje id
+            published.add(persist("Tura " + i, TourStatus.PUBLISHED, base.plusHours(i / 2)));
+        }
+        persist("Nacrt", TourStatus.DRAFT, base.plusDays(1));
+        persist("Arhivirana", TourStatus.ARCHIVED, base.plusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> seen = new ArrayList<>();
+        List<TourCatalogItem> page = tourRepository.findCatalogFirstPage(TourStatus.PUBLISHED, PageRequest.of(0, 3));
+        while (!page.isEmpty()) {
+            page.forEach(item -> seen.add(item.getId()));
+            TourCatalogItem last = page.get(page.size() - 1);
+            page = tourRepository.findCatalogPageAfter(TourStatus.PUBLISHED, last.getVremeObjave(), last.getId(),
+                    PageRequest.of(0, 3));
+        }
+
+        published.sort(Comparator.comparing(Tour::getVremeObjave).thenComparing(Tour::getId).reversed());
+        assertEquals(published.stream().map(Tour::getId).toList(), seen);
+    }
+
+    @Test
+    void catalogTransportTimesAreLoadedForWholePage() {
+        Tour first = persist("Prva", TourStatus.PUBLISHED, LocalDateTime.of(2026, 1, 1, 12, 0));
+        first.getPrevozi().put(Prevoz.PESKE, 90);
+        first.getPrevozi().put(Prevoz.BICIKL, 40);
+        Tour second = persist("Druga", TourStatus.PUBLISHED, LocalDateTime.of(2026, 1, 2, 12, 0));
+        second.getPrevozi().put(Prevoz.AUTOMOBIL, 15);
+        entityManager.flush();
+
+        List<Object[]> rows = tourRepository.findPrevoziByTourIds(List.of(first.getId(), second.getId()));
+
+        assertEquals(3, rows.size());
+        for (Object[] row : rows) {
+            assertTrue(List.of(first.getId(), second.getId()).contains(((Number) row[0]).longValue()));
+        }
+    }
+
+    private Tour persist(String naziv, TourStatus status, LocalDateTime vremeObjave) {
+        Tour tour = new Tour(naziv, "Opis", "grad", Difficulty.EASY, "autor");
+        tour.setStatus(status);
+        tour.setVremeObjave(vremeObjave);
+        return entityManager.persist(tour);
+    }
+}
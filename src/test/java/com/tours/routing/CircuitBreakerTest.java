@@ -0,0 +1,116 @@
+package com.tours.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterThresholdOfConsecutiveFailuresAndRejectsCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60_000);
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+        breaker.onFailure(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.NO_PERMISSION, breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void successResetsConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 60_000);
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+        breaker.onSuccess(breaker.tryAcquirePermission());
+        breaker.onFailure(breaker.tryAcquirePermission());
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenAllowsSingleTrialThatClosesOnSuccess() {
+        CircuitBreaker breaker = openBreaker();
+
+        long trial = breaker.tryAcquirePermission();
+        assertNotEquals(CircuitBreaker.NO_PERMISSION, trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.NO_PERMISSION, breaker.tryAcquirePermission());
+
+        breaker.onSuccess(trial);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertNotEquals(CircuitBreaker.NO_PERMISSION, breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void failedTrialReopensBreaker() {
+        CircuitBreaker breaker = openBreaker();
+        long trial = breaker.tryAcquirePermission();
+
+        breaker.onFailure(trial);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNotEquals(trial, breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void lateSuccessFromEarlierGenerationDoesNotCloseOpenBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60_000);
+        long slowCall = breaker.tryAcquirePermission();
+        long failingCall = breaker.tryAcquirePermission();
+
+        breaker.onFailure(failingCall);
+        breaker.onSuccess(slowCall);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.NO_PERMISSION, breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void lateFailureFromEarlierGenerationDoesNotReopenClosedBreaker() {
+        CircuitBreaker breaker = openBreaker();
+        long trial = breaker.tryAcquirePermission();
+        breaker.onSuccess(trial);
+
+        breaker.onFailure(trial);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void releasedTrialPermissionCanBeAcquiredAgain() {
+        CircuitBreaker breaker = openBreaker();
+        long trial = breaker.tryAcquirePermission();
+
+        breaker.releasePermission(trial);
+        long retry = breaker.tryAcquirePermission();
+
+        assertEquals(trial, retry);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void staleReleaseDoesNotFreeNewerTrial() {
+        CircuitBreaker breaker = openBreaker();
+        long oldTrial = breaker.tryAcquirePermission();
+        breaker.onFailure(oldTrial);
+        long newTrial = breaker.tryAcquirePermission();
+
+        breaker.releasePermission(oldTrial);
+
+        assertNotEquals(oldTrial, newTrial);
+        assertEquals(CircuitBreaker.NO_PERMISSION, breaker.tryAcquirePermission());
+    }
+
+    // Otvoren prekidač sa trajanjem 0, sledeći poziv odmah prelazi u HALF_OPEN
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.onFailure(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
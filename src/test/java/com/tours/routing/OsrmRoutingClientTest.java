@@ -0,0 +1,101 @@
+package com.tours.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OsrmRoutingClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private OsrmRoutingClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/route/v1/driving/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"code\":\"Ok\",\"routes\":[{\"distance\":1234.0}]}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        String baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+        client = new OsrmRoutingClient(new ObjectMapper(), baseUrl, "driving", 1000, 5000, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void routeIsCachedByCoordinatesRoundedToAboutOneMeter() throws Exception {
+        assertEquals(1.234, client.routeDistanceKm(new double[]{45.25, 45.26}, new double[]{19.85, 19.86}).get(5, TimeUnit.SECONDS));
+        assertEquals(1.234, client.routeDistanceKm(new double[]{45.250001, 45.26}, new double[]{19.85, 19.860002}).get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void concurrentRequestsForSameRouteShareOneCall() throws Exception {
+        release = new CountDownLatch(1);
+
+        CompletableFuture<Double> first = client.routeDistanceKm(new double[]{45.25, 45.26}, new double[]{19.85, 19.86});
+        CompletableFuture<Double> second = client.routeDistanceKm(new double[]{45.25, 45.26}, new double[]{19.85, 19.86});
+        release.countDown();
+
+        assertSame(first, second);
+        assertEquals(1.234, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void leastRecentlyUsedRouteIsEvicted() throws Exception {
+        for (double longitude : new double[]{19.86, 19.87, 19.88, 19.86}) {
+            client.routeDistanceKm(new double[]{45.25, 45.26}, new double[]{19.85, longitude}).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    void failedResponseIsNotCached() throws Exception {
+        status = 500;
+        CompletableFuture<Double> failed = client.routeDistanceKm(new double[]{45.25, 45.26}, new double[]{19.85, 19.86});
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+
+        status = 200;
+        assertEquals(1.234, client.routeDistanceKm(new double[]{45.25, 45.26}, new double[]{19.85, 19.86}).get(5, TimeUnit.SECONDS));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void singlePointRouteIsEmptyWithoutCall() throws Exception {
+        assertEquals(0.0, client.routeDistanceKm(new double[]{45.25}, new double[]{19.85}).get());
+        assertEquals(0, requests.get());
+    }
+}
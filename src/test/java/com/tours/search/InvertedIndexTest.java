@@ -0,0 +1,93 @@
+package com.tours.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private InvertedIndex<Long> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex<>();
+        index.put(1L, TextNormalizer.tokenize("Kalemegdan tvrđava i Kalemegdan park"));
+        index.put(2L, TextNormalizer.tokenize("Šetnja Zemunom do Gardoša"));
+        index.put(3L, TextNormalizer.tokenize("Kalemegdan, Knez Mihailova, Skadarlija i Zemun za jedan dan obilaska"));
+    }
+
+    @Test
+    void ranksByTermFrequencyAndDocumentLength() {
+        List<InvertedIndex.Hit<Long>> hits = index.search(TextNormalizer.tokenize("kalemegdan"), 10);
+
+        assertEquals(List.of(1L, 3L), keys(hits));
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void rareTermsWeighMoreThanCommonOnes() {
+        List<InvertedIndex.Hit<Long>> hits = index.search(TextNormalizer.tokenize("zemun gardos"), 10);
+
+        // "gardos" je samo u dokumentu 2, "zemun" kao ceo termin samo u dokumentu 3
+        assertEquals(2L, hits.get(0).getKey());
+    }
+
+    @Test
+    void queryWithDiacriticsMatchesFoldedDocuments() {
+        assertEquals(List.of(1L), keys(index.search(TextNormalizer.tokenize("TVRĐAVA"), 10)));
+        assertEquals(List.of(1L), keys(index.search(TextNormalizer.tokenize("tvrdjava"), 10)));
+    }
+
+    @Test
+    void prefixMatchScoresBelowExactTerm() {
+        index.put(4L, TextNormalizer.tokenize("Zemunom"));
+        index.put(5L, TextNormalizer.tokenize("Zemun"));
+
+        List<InvertedIndex.Hit<Long>> hits = index.search(List.of("zemun"), 10);
+
+        assertTrue(keys(hits).containsAll(List.of(2L, 3L, 4L, 5L)));
+        assertEquals(5L, hits.get(0).getKey());
+        assertTrue(score(hits, 5L) > score(hits, 4L));
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsDocument() {
+        index.put(1L, TextNormalizer.tokenize("Avala"));
+        assertEquals(List.of(3L), keys(index.search(List.of("kalemegdan"), 10)));
+        assertEquals(List.of(1L), keys(index.search(List.of("avala"), 10)));
+
+        index.remove(1L);
+        index.put(3L, List.of());
+
+        assertEquals(1, index.size());
+        assertTrue(index.search(List.of("avala"), 10).isEmpty());
+        assertTrue(index.search(List.of("kalemegdan"), 10).isEmpty());
+    }
+
+    @Test
+    void limitKeepsBestHits() {
+        assertEquals(List.of(1L), keys(index.search(List.of("kalemegdan"), 1)));
+        assertTrue(new InvertedIndex<Long>().search(List.of("kalemegdan"), 10).isEmpty());
+    }
+
+    private static double score(List<InvertedIndex.Hit<Long>> hits, Long key) {
+        for (InvertedIndex.Hit<Long> hit : hits) {
+            if (hit.getKey().equals(key)) {
+                return hit.getScore();
+            }
+        }
+        return 0;
+    }
+
+    private static List<Long> keys(List<InvertedIndex.Hit<Long>> hits) {
+        List<Long> keys = new ArrayList<>();
+        for (InvertedIndex.Hit<Long> hit : hits) {
+            keys.add(hit.getKey());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,25 @@
+package com.tours.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextNormalizerTest {
+
+    @Test
+    void foldRemovesSerbianDiacriticsAndLowercases() {
+        assertEquals("cevapi cevapcici", TextNormalizer.fold("Ćevapi ČEVAPČIĆI"));
+        assertEquals("sabac zabljak", TextNormalizer.fold("Šabac Žabljak"));
+        assertEquals("djerdap", TextNormalizer.fold("Đerdap"));
+    }
+
+    @Test
+    void tokenizeSplitsOnPunctuationAndKeepsNumbers() {
+        assertEquals(List.of("kalemegdan", "i", "ada", "ciganlija", "2024"),
+                TextNormalizer.tokenize("  Kalemegdan, i Ada-Ciganlija (2024)!"));
+        assertTrue(TextNormalizer.tokenize(null).isEmpty());
+        assertTrue(TextNormalizer.tokenize(" ,.- ").isEmpty());
+    }
+}
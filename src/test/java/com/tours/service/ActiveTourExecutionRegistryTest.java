@@ -0,0 +1,112 @@
+package com.tours.service;
+
+import com.tours.enums.TourExecutionStatus;
+import com.tours.model.TourExecution;
+import com.tours.repository.TourExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveTourExecutionRegistryTest {
+
+    @Mock
+    private TourExecutionRepository tourExecutionRepository;
+
+    private ActiveTourExecutionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ActiveTourExecutionRegistry(tourExecutionRepository);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadKeepsTheMostRecentlyActiveExecutionPerTourist() {
+        TourExecution older = execution(1L, "ana");
+        older.setLastActivityTime(LocalDateTime.now().minusHours(2));
+        TourExecution newer = execution(2L, "ana");
+        newer.setLastActivityTime(LocalDateTime.now());
+        when(tourExecutionRepository.findByStatus(TourExecutionStatus.STARTED)).thenReturn(List.of(older, newer));
+
+        registry.loadActiveExecutions();
+
+        assertSame(newer, registry.findByTouristUsername("ana").orElseThrow());
+        assertTrue(registry.findById(1L).isEmpty());
+    }
+
+    @Test
+    void registerIsUndoneOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        TourExecution execution = execution(1L, "ana");
+
+        registry.register(execution);
+        assertTrue(registry.findById(1L).isPresent());
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(registry.findById(1L).isEmpty());
+        assertTrue(registry.findByTouristUsername("ana").isEmpty());
+    }
+
+    @Test
+    void rolledBackUnregisterRestoresTheStartedExecution() {
+        TourExecution execution = execution(1L, "ana");
+        registry.register(execution);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Kao completeTour: status se menja na deljenoj instanci pre odjave
+        execution.setStatus(TourExecutionStatus.COMPLETED);
+        execution.setEndTime(LocalDateTime.now());
+        registry.unregister(execution);
+        assertTrue(registry.findById(1L).isEmpty());
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        TourExecution restored = registry.findById(1L).orElseThrow();
+        assertEquals(TourExecutionStatus.STARTED, restored.getStatus());
+        assertNull(restored.getEndTime());
+        assertSame(restored, registry.findByTouristUsername("ana").orElseThrow());
+    }
+
+    @Test
+    void committedUnregisterStaysRemoved() {
+        TourExecution execution = execution(1L, "ana");
+        registry.register(execution);
+        TransactionSynchronizationManager.initSynchronization();
+
+        execution.setStatus(TourExecutionStatus.ABANDONED);
+        registry.unregister(execution);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertTrue(registry.findById(1L).isEmpty());
+        assertEquals(TourExecutionStatus.ABANDONED, execution.getStatus());
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static TourExecution execution(Long id, String touristUsername) {
+        TourExecution execution = new TourExecution(1L, touristUsername, 45.0, 19.0);
+        execution.setId(id);
+        return execution;
+    }
+}
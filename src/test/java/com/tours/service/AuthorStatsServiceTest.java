@@ -0,0 +1,141 @@
+package com.tours.service;
+
+import com.tours.dto.AuthorStats;
+import com.tours.enums.TourStatus;
+import com.tours.repository.KeyPointRepository;
+import com.tours.repository.TourRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorStatsServiceTest {
+
+    private static final String AUTOR = "autor";
+
+    @Mock
+    private TourRepository tourRepository;
+    @Mock
+    private KeyPointRepository keyPointRepository;
+
+    @InjectMocks
+    private AuthorStatsService authorStatsService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(tourRepository.countByStatusForAuthor(AUTOR)).thenReturn(List.of(
+                new Object[]{TourStatus.DRAFT, 2L},
+                new Object[]{TourStatus.PUBLISHED, 1L}));
+        lenient().when(keyPointRepository.countByAuthorUsername(AUTOR)).thenReturn(7L);
+    }
+
+    @Test
+    void statsAreLoadedOnceAndThenServedFromCounters() {
+        AuthorStats first = authorStatsService.getStats(AUTOR);
+        AuthorStats second = authorStatsService.getStats(AUTOR);
+
+        assertEquals(2, first.getDraftTours());
+        assertEquals(1, first.getPublishedTours());
+        assertEquals(0, first.getArchivedTours());
+        assertEquals(3, first.getTotalTours());
+        assertEquals(7, second.getKeyPoints());
+        verify(tourRepository, times(1)).countByStatusForAuthor(AUTOR);
+        verify(keyPointRepository, times(1)).countByAuthorUsername(AUTOR);
+    }
+
+    @Test
+    void changesUpdateLoadedCounters() {
+        authorStatsService.getStats(AUTOR);
+
+        authorStatsService.onTourCreated(AUTOR);
+        authorStatsService.onStatusChanged(AUTOR, TourStatus.DRAFT, TourStatus.PUBLISHED);
+        authorStatsService.onStatusChanged(AUTOR, TourStatus.PUBLISHED, TourStatus.ARCHIVED);
+        authorStatsService.onKeyPointsChanged(AUTOR, 3);
+        authorStatsService.onKeyPointsChanged(AUTOR, -1);
+
+        AuthorStats stats = authorStatsService.getStats(AUTOR);
+        assertEquals(2, stats.getDraftTours());
+        assertEquals(1, stats.getPublishedTours());
+        assertEquals(1, stats.getArchivedTours());
+        assertEquals(9, stats.getKeyPoints());
+        verify(tourRepository, times(1)).countByStatusForAuthor(AUTOR);
+    }
+
+    @Test
+    void changesInsideTransactionApplyOnlyAfterCommit() {
+        authorStatsService.getStats(AUTOR);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            authorStatsService.onTourCreated(AUTOR);
+            assertEquals(2, authorStatsService.getStats(AUTOR).getDraftTours());
+
+            commit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(3, authorStatsService.getStats(AUTOR).getDraftTours());
+        verify(tourRepository, times(1)).countByStatusForAuthor(AUTOR);
+    }
+
+    @Test
+    void coldLoadBetweenCommitAndAfterCommitIsNotCountedTwice() {
+        // Učitavanje posle commit-a već vidi novu tačku, pa se delta iz afterCommit ne sme dodati
+        when(keyPointRepository.countByAuthorUsername(AUTOR)).thenReturn(8L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            authorStatsService.onKeyPointsChanged(AUTOR, 1);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            assertEquals(8, authorStatsService.getStats(AUTOR).getKeyPoints());
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(8, authorStatsService.getStats(AUTOR).getKeyPoints());
+        verify(keyPointRepository, times(2)).countByAuthorUsername(AUTOR);
+    }
+
+    @Test
+    void deletedTourForcesReload() {
+        authorStatsService.getStats(AUTOR);
+
+        authorStatsService.onTourDeleted(AUTOR);
+        authorStatsService.getStats(AUTOR);
+
+        verify(tourRepository, times(2)).countByStatusForAuthor(AUTOR);
+    }
+
+    @Test
+    void loadRacingWithChangeIsNotCached() {
+        // Izmena stigne dok traje hladno učitavanje, pa učitani brojači mogu biti zastareli
+        when(keyPointRepository.countByAuthorUsername(AUTOR)).thenAnswer(invocation -> {
+            authorStatsService.onKeyPointsChanged(AUTOR, 1);
+            return 7L;
+        }).thenReturn(8L);
+
+        assertEquals(7, authorStatsService.getStats(AUTOR).getKeyPoints());
+        assertEquals(8, authorStatsService.getStats(AUTOR).getKeyPoints());
+        assertEquals(8, authorStatsService.getStats(AUTOR).getKeyPoints());
+        verify(keyPointRepository, times(2)).countByAuthorUsername(AUTOR);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+}
@@ -0,0 +1,53 @@
+package com.tours.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeyPointSequenceInitializerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private KeyPointSequenceInitializer initializer;
+
+    @Test
+    void sequenceOverlappingExistingIdsIsMovedPastThem() {
+        when(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM key_points", Long.class)).thenReturn(120L);
+        when(jdbcTemplate.queryForObject("SELECT nextval('key_points_seq')", Long.class)).thenReturn(1L);
+
+        initializer.alignSequence();
+
+        verify(jdbcTemplate).execute("ALTER SEQUENCE key_points_seq RESTART WITH 170");
+    }
+
+    @Test
+    void sequenceAlreadyPastExistingIdsIsLeftAlone() {
+        // Hibernate iz 200 koristi opseg [151, 200], koji ne sadrži postojeće ID-eve
+        when(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM key_points", Long.class)).thenReturn(150L);
+        when(jdbcTemplate.queryForObject("SELECT nextval('key_points_seq')", Long.class)).thenReturn(200L);
+
+        initializer.alignSequence();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void databaseErrorDoesNotFailStartup() {
+        when(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM key_points", Long.class))
+                .thenThrow(new DataAccessResourceFailureException("baza nije dostupna"));
+
+        initializer.alignSequence();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
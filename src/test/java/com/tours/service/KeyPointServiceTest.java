@@ -1,5 +1,7 @@
 package com.tours.service;
 
+import com.tours.enums.Difficulty;
+import com.tours.enums.TourStatus;
 import com.tours.model.KeyPoint;
 import com.tours.model.Tour;
 import com.tours.repository.KeyPointRepository;
@@ -17,10 +19,103 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class KeyPointServiceTest {
 
-}
+    private static final Long TOUR_ID = 1L;
+    private static final String AUTOR = "autor";
+
+    @Mock
+    private KeyPointRepository keyPointRepository;
+    @Mock
+    private TourRepository tourRepository;
+    @Mock
+    private KeyPointSpatialIndex keyPointSpatialIndex;
+    @Mock
+    private TourDistanceRecomputer tourDistanceRecomputer;
+    @Mock
+    private AuthorStatsService authorStatsService;
+
+    @InjectMocks
+    private KeyPointService keyPointService;
+
+    private Tour tour;
+    private KeyPoint keyPoint;
+
+    @BeforeEach
+    void setUp() {
+        tour = new Tour("Tura", "Opis", "tag", Difficulty.EASY, AUTOR);
+        tour.setId(TOUR_ID);
+        lenient().when(tourRepository.findById(TOUR_ID)).thenReturn(Optional.of(tour));
+
+        keyPoint = new KeyPoint("KP", "opis", 45.0, 19.0, null, TOUR_ID);
+        keyPoint.setId(5L);
+        lenient().when(keyPointRepository.findByIdAndAuthorUsername(5L, AUTOR)).thenReturn(Optional.of(keyPoint));
+    }
+
+    @Test
+    void keyPointsOfDraftTourCanBeChanged() {
+        when(keyPointRepository.save(any(KeyPoint.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        keyPointService.createKeyPoint("Novi", "opis", 45.1, 19.1, null, 30.0, TOUR_ID, AUTOR);
+        keyPointService.updateKeyPoint(5L, "KP", "opis", 45.2, 19.2, null, 30.0, AUTOR);
+        assertTrue(keyPointService.deleteKeyPoint(5L, AUTOR));
+
+        verify(keyPointSpatialIndex, times(3)).invalidate(TOUR_ID);
+    }
 
+    @Test
+    void keyPointsOfPublishedTourAreFrozen() {
+        // Izvršenja postoje samo za objavljene ture, pa su tačke tada zamrznute i ordinali stabilni
+        tour.setStatus(TourStatus.PUBLISHED);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> keyPointService.createKeyPoint("Novi", "opis", 45.1, 19.1, null, 30.0, TOUR_ID, AUTOR));
+        assertThrows(IllegalArgumentException.class,
+                () -> keyPointService.createKeyPoints(TOUR_ID, Arrays.asList(new KeyPoint(), new KeyPoint()), AUTOR));
+        assertThrows(IllegalArgumentException.class,
+                () -> keyPointService.updateKeyPoint(5L, "KP", "opis", 45.2, 19.2, null, 30.0, AUTOR));
+        assertThrows(IllegalArgumentException.class, () -> keyPointService.deleteKeyPoint(5L, AUTOR));
+
+        verify(keyPointRepository, never()).save(any());
+        verify(keyPointRepository, never()).saveAll(anyList());
+        verify(keyPointRepository, never()).delete(any());
+        verifyNoInteractions(keyPointSpatialIndex);
+    }
+
+    @Test
+    void bulkImportSavesAllPointsInOneBatchAndRecomputesOnce() {
+        List<KeyPoint> imported = Arrays.asList(
+                new KeyPoint("A", "opis", 45.1, 19.1, null, null),
+                new KeyPoint("B", "opis", 45.2, 19.2, null, null),
+                new KeyPoint("C", "opis", 45.3, 19.3, null, null));
+        when(keyPointRepository.saveAll(imported)).thenReturn(imported);
+
+        List<KeyPoint> saved = keyPointService.createKeyPoints(TOUR_ID, imported, AUTOR);
+
+        assertEquals(3, saved.size());
+        assertTrue(saved.stream().allMatch(point -> TOUR_ID.equals(point.getTourId())));
+        verify(keyPointRepository, times(1)).saveAll(imported);
+        verify(keyPointRepository, never()).save(any());
+        verify(keyPointSpatialIndex, times(1)).invalidate(TOUR_ID);
+        verify(tourDistanceRecomputer, times(1)).requestRecompute(TOUR_ID);
+        verify(authorStatsService).onKeyPointsChanged(AUTOR, 3);
+    }
+
+    @Test
+    void bulkImportRejectsEmptyOversizedAndForeignRequests() {
+        KeyPoint[] tooMany = new KeyPoint[1001];
+        Arrays.fill(tooMany, keyPoint);
+
+        assertThrows(IllegalArgumentException.class, () -> keyPointService.createKeyPoints(TOUR_ID, List.of(), AUTOR));
+        assertThrows(IllegalArgumentException.class,
+                () -> keyPointService.createKeyPoints(TOUR_ID, Arrays.asList(tooMany), AUTOR));
+        assertThrows(IllegalArgumentException.class,
+                () -> keyPointService.createKeyPoints(TOUR_ID, List.of(keyPoint), "drugi"));
+
+        verify(keyPointRepository, never()).saveAll(anyList());
+    }
+}
@@ -0,0 +1,151 @@
+package com.tours.service;
+
+import com.tours.geo.GeoMath;
+import com.tours.model.KeyPoint;
+import com.tours.repository.KeyPointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeyPointSpatialIndexTest {
+
+    private static final Long TOUR_ID = 1L;
+
+    @Mock
+    private KeyPointRepository keyPointRepository;
+
+    private KeyPointSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new KeyPointSpatialIndex(keyPointRepository, 100);
+    }
+
+    @Test
+    void findWithinRadiusMatchesBruteForce() {
+        List<KeyPoint> keyPoints = randomKeyPoints(500, 45.2671, 19.8335, 0.05, 7);
+        when(keyPointRepository.findByTourId(TOUR_ID)).thenReturn(keyPoints);
+        Random random = new Random(11);
+
+        for (int query = 0; query < 200; query++) {
+            double latitude = 45.2671 + (random.nextDouble() - 0.5) * 0.06;
+            double longitude = 19.8335 + (random.nextDouble() - 0.5) * 0.06;
+            double radius = 50 + random.nextDouble() * 2000;
+
+            Set<Long> expected = new HashSet<>();
+            Set<Long> boundary = new HashSet<>();
+            for (KeyPoint keyPoint : keyPoints) {
+                double distance = GeoMath.distanceMeters(latitude, longitude, keyPoint.getLatitude(), keyPoint.getLongitude());
+                if (Math.abs(distance - radius) < 0.01) {
+                    boundary.add(keyPoint.getId());
+                } else if (distance <= radius) {
+                    expected.add(keyPoint.getId());
+                }
+            }
+
+            Set<Long> actual = new HashSet<>();
+            for (KeyPoint keyPoint : index.findWithinRadius(TOUR_ID, latitude, longitude, radius)) {
+                actual.add(keyPoint.getId());
+            }
+            actual.removeAll(boundary);
+            assertEquals(expected, actual, "upit " + query);
+        }
+        verify(keyPointRepository, times(1)).findByTourId(TOUR_ID);
+    }
+
+    @Test
+    void keyPointsAreOrderedByCreationTimeThenId() {
+        // ID-evi sa više instanci ne prate vreme kreiranja: veći ID je ovde raniji, po dva dele isto vreme
+        List<KeyPoint> keyPoints = randomKeyPoints(20, 45.0, 19.0, 0.01, 3);
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (KeyPoint keyPoint : keyPoints) {
+            keyPoint.setCreatedAt(base.plusMinutes((20 - keyPoint.getId()) / 2));
+        }
+        List<KeyPoint> shuffled = new ArrayList<>(keyPoints);
+        Collections.shuffle(shuffled, new Random(5));
+        when(keyPointRepository.findByTourId(TOUR_ID)).thenReturn(shuffled);
+
+        KeyPointSpatialIndex.TourKeyPoints tourKeyPoints = index.forTour(TOUR_ID);
+
+        List<Long> expected = new ArrayList<>();
+        for (long pair = 0; pair < 10; pair++) {
+            expected.add(19 - 2 * pair);
+            expected.add(20 - 2 * pair);
+        }
+        for (int ordinal = 0; ordinal < expected.size(); ordinal++) {
+            assertEquals(expected.get(ordinal), tourKeyPoints.getKeyPoints().get(ordinal).getId());
+            assertEquals(expected.get(ordinal).longValue(), tourKeyPoints.getGeometry().id(ordinal));
+        }
+    }
+
+    @Test
+    void findOrdinalsWithinRadiusWritesIntoCallerBuffer() {
+        List<KeyPoint> keyPoints = randomKeyPoints(50, 45.0, 19.0, 0.02, 9);
+        when(keyPointRepository.findByTourId(TOUR_ID)).thenReturn(keyPoints);
+        KeyPointSpatialIndex.TourKeyPoints tourKeyPoints = index.forTour(TOUR_ID);
+        KeyPoint target = tourKeyPoints.getKeyPoints().get(10);
+
+        int[] buffer = new int[tourKeyPoints.size()];
+        int count = tourKeyPoints.findOrdinalsWithinRadius(target.getLatitude(), target.getLongitude(), 1.0, buffer);
+
+        assertEquals(1, count);
+        assertEquals(10, buffer[0]);
+        assertThrows(IllegalArgumentException.class, () -> tourKeyPoints.findOrdinalsWithinRadius(
+                target.getLatitude(), target.getLongitude(), 1.0, new int[tourKeyPoints.size() - 1]));
+    }
+
+    @Test
+    void invalidateReloadsKeyPoints() {
+        when(keyPointRepository.findByTourId(TOUR_ID))
+                .thenReturn(randomKeyPoints(3, 45.0, 19.0, 0.01, 1))
+                .thenReturn(randomKeyPoints(5, 45.0, 19.0, 0.01, 2));
+
+        assertEquals(3, index.getKeyPoints(TOUR_ID).size());
+        assertEquals(3, index.getKeyPoints(TOUR_ID).size());
+        index.invalidate(TOUR_ID);
+        assertEquals(5, index.getKeyPoints(TOUR_ID).size());
+    }
+
+    @Test
+    void leastRecentlyUsedTourIsDroppedAboveMaxTours() {
+        KeyPointSpatialIndex small = new KeyPointSpatialIndex(keyPointRepository, 2);
+        when(keyPointRepository.findByTourId(anyLong())).thenReturn(randomKeyPoints(3, 45.0, 19.0, 0.01, 1));
+
+        small.forTour(1L);
+        small.forTour(2L);
+        small.forTour(1L);
+        small.forTour(3L);
+        small.forTour(1L);
+        small.forTour(2L);
+
+        verify(keyPointRepository, times(1)).findByTourId(1L);
+        verify(keyPointRepository, times(2)).findByTourId(2L);
+        verify(keyPointRepository, times(1)).findByTourId(3L);
+    }
+
+    private static List<KeyPoint> randomKeyPoints(int count, double latitude, double longitude, double spread, long seed) {
+        Random random = new Random(seed);
+        List<KeyPoint> keyPoints = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            KeyPoint keyPoint = new KeyPoint("KP " + i, "opis", latitude + (random.nextDouble() - 0.5) * spread,
+                    longitude + (random.nextDouble() - 0.5) * spread, null, TOUR_ID);
+            keyPoint.setId((long) (i + 1));
+            keyPoints.add(keyPoint);
+        }
+        return keyPoints;
+    }
+}
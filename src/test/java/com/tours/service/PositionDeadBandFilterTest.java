@@ -0,0 +1,76 @@
+package com.tours.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionDeadBandFilterTest {
+
+    private static final Long EXECUTION_ID = 1L;
+    // ~1 m i ~10 m po geografskoj širini
+    private static final double ONE_METER = 1 / 111_195.0;
+    private static final double TEN_METERS = 10 / 111_195.0;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PositionDeadBandFilter filter;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new PositionDeadBandFilter(meterRegistry, 5, 30_000);
+        start = LocalDateTime.of(2025, 6, 1, 12, 0);
+    }
+
+    @Test
+    void firstPositionIsAlwaysAccepted() {
+        assertTrue(filter.accept(EXECUTION_ID, 45.0, 19.0, start));
+        assertTrue(filter.accept(2L, 45.0, 19.0, start));
+    }
+
+    @Test
+    void smallMoveWithinTheIntervalIsSuppressed() {
+        filter.accept(EXECUTION_ID, 45.0, 19.0, start);
+
+        assertFalse(filter.accept(EXECUTION_ID, 45.0 + ONE_METER, 19.0, start.plusSeconds(5)));
+        assertFalse(filter.accept(EXECUTION_ID, 45.0 + 2 * ONE_METER, 19.0, start.plusSeconds(20)));
+
+        assertEquals(1.0, meterRegistry.get("tours.positions.accepted").counter().count());
+        assertEquals(2.0, meterRegistry.get("tours.positions.suppressed").counter().count());
+    }
+
+    @Test
+    void largerMoveIsAccepted() {
+        filter.accept(EXECUTION_ID, 45.0, 19.0, start);
+
+        assertTrue(filter.accept(EXECUTION_ID, 45.0 + TEN_METERS, 19.0, start.plusSeconds(1)));
+        // Mrtva zona se meri od poslednje prihvaćene pozicije
+        assertFalse(filter.accept(EXECUTION_ID, 45.0 + TEN_METERS + ONE_METER, 19.0, start.plusSeconds(2)));
+    }
+
+    @Test
+    void positionAfterTheMinimumIntervalIsAccepted() {
+        filter.accept(EXECUTION_ID, 45.0, 19.0, start);
+
+        assertTrue(filter.accept(EXECUTION_ID, 45.0, 19.0, start.plusSeconds(30)));
+    }
+
+    @Test
+    void olderTimestampIsNotSuppressed() {
+        filter.accept(EXECUTION_ID, 45.0, 19.0, start);
+
+        assertTrue(filter.accept(EXECUTION_ID, 45.0, 19.0, start.minusSeconds(1)));
+    }
+
+    @Test
+    void forgetClearsTheLastAcceptedPosition() {
+        filter.accept(EXECUTION_ID, 45.0, 19.0, start);
+        filter.forget(EXECUTION_ID);
+
+        assertTrue(filter.accept(EXECUTION_ID, 45.0, 19.0, start.plusSeconds(1)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.tours.service;
+
+import com.tours.enums.Difficulty;
+import com.tours.enums.Prevoz;
+import com.tours.enums.TourStatus;
+import com.tours.model.Tour;
+import com.tours.repository.TourRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PublishedTourCacheTest {
+
+    @Mock
+    private TourRepository tourRepository;
+
+    private PublishedTourCache cache;
+    private Tour tour;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PublishedTourCache(tourRepository, 100, 60);
+        tour = new Tour("Kalemegdan", "Šetnja tvrđavom", "grad", Difficulty.EASY, "autor");
+        tour.setId(1L);
+        tour.setStatus(TourStatus.PUBLISHED);
+        tour.getPrevozi().put(Prevoz.PESKE, 60);
+    }
+
+    @Test
+    void callersGetIndependentCopies() {
+        when(tourRepository.findById(1L)).thenReturn(Optional.of(tour));
+
+        Tour first = cache.getPublishedTour(1L).orElseThrow();
+        first.setNaziv("Izmenjeno");
+        first.getPrevozi().clear();
+        tour.setNaziv("Izmenjen entitet");
+        Tour second = cache.getPublishedTour(1L).orElseThrow();
+
+        assertNotSame(first, second);
+        assertEquals("Kalemegdan", second.getNaziv());
+        assertEquals(60, second.getPrevozi().get(Prevoz.PESKE));
+        verify(tourRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void catalogReturnsMutableCopyPerCaller() {
+        when(tourRepository.findByStatus(TourStatus.PUBLISHED)).thenReturn(List.of(tour));
+
+        List<Tour> first = cache.getPublishedTours();
+        first.get(0).setNaziv("Izmenjeno");
+        first.clear();
+        List<Tour> second = cache.getPublishedTours();
+
+        assertEquals(1, second.size());
+        assertEquals("Kalemegdan", second.get(0).getNaziv());
+        verify(tourRepository, times(1)).findByStatus(TourStatus.PUBLISHED);
+    }
+
+    @Test
+    void unpublishedTourIsNotReturned() {
+        tour.setStatus(TourStatus.DRAFT);
+        when(tourRepository.findById(1L)).thenReturn(Optional.of(tour));
+
+        assertTrue(cache.getPublishedTour(1L).isEmpty());
+    }
+
+    @Test
+    void invalidateEvictsOnlyAfterCommit() {
+        when(tourRepository.findById(1L)).thenReturn(Optional.of(tour));
+        when(tourRepository.findByStatus(TourStatus.PUBLISHED)).thenReturn(List.of(tour));
+        cache.getPublishedTour(1L);
+        cache.getPublishedTours();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(1L);
+            cache.getPublishedTour(1L);
+            verify(tourRepository, times(1)).findById(1L);
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        cache.getPublishedTour(1L);
+        cache.getPublishedTours();
+        verify(tourRepository, times(2)).findById(1L);
+        verify(tourRepository, times(2)).findByStatus(TourStatus.PUBLISHED);
+    }
+}
@@ -0,0 +1,204 @@
+package com.tours.service;
+
+import com.tours.dto.TourExecutionEvent;
+import com.tours.enums.TourExecutionEventType;
+import com.tours.enums.TourExecutionStatus;
+import com.tours.geofence.GeofenceEngine;
+import com.tours.model.TourExecution;
+import com.tours.repository.TourExecutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StaleTourExecutionReaperTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private TourExecutionRepository tourExecutionRepository;
+    @Mock
+    private GeofenceEngine geofenceEngine;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ActiveTourExecutionRegistry activeExecutions;
+    private StaleTourExecutionReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        activeExecutions = new ActiveTourExecutionRegistry(tourExecutionRepository);
+        PositionDeadBandFilter deadBandFilter = new PositionDeadBandFilter(new SimpleMeterRegistry(), 5, 30000);
+        reaper = new StaleTourExecutionReaper(tourExecutionRepository, activeExecutions, deadBandFilter, geofenceEngine,
+                new TransactionTemplate(new NoOpTransactionManager()), eventPublisher, new SimpleMeterRegistry(),
+                120, CHUNK_SIZE);
+    }
+
+    @Test
+    void staleExecutionIsAbandonedAndEvictedAfterCommit() {
+        TourExecution stale = active(1L, "ana", LocalDateTime.now().minusHours(5));
+        when(tourExecutionRepository.findIdsByStatusAndLastActivityBefore(eq(TourExecutionStatus.STARTED), any(), any()))
+                .thenReturn(rows(stale));
+        when(tourExecutionRepository.updateStatusByIds(eq(List.of(1L)), eq(TourExecutionStatus.STARTED),
+                eq(TourExecutionStatus.ABANDONED), any(), any())).thenAnswer(invocation -> {
+                    // Pre commit-a je izvršenje samo označeno: ostaje u registru, ali ne prima pozicije
+                    assertTrue(activeExecutions.findById(1L).isPresent());
+                    assertEquals(TourExecutionStatus.ABANDONED, stale.getStatus());
+                    return 1;
+                });
+
+        reaper.reapStaleExecutions();
+
+        assertTrue(activeExecutions.findById(1L).isEmpty());
+        assertEquals(TourExecutionStatus.ABANDONED, stale.getStatus());
+        assertNotNull(stale.getEndTime());
+        verify(geofenceEngine).forget(1L);
+        ArgumentCaptor<TourExecutionEvent> event = ArgumentCaptor.forClass(TourExecutionEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(TourExecutionEventType.TOUR_ABANDONED, event.getValue().getType());
+    }
+
+    @Test
+    void executionActiveInMemoryIsSkipped() {
+        // U bazi je poslednja aktivnost stara, ali registar ima noviju poziciju
+        TourExecution execution = active(1L, "ana", LocalDateTime.now().minusHours(5));
+        List<Object[]> rows = rows(execution);
+        execution.setLastActivityTime(LocalDateTime.now());
+        when(tourExecutionRepository.findIdsByStatusAndLastActivityBefore(eq(TourExecutionStatus.STARTED), any(), any()))
+                .thenReturn(rows);
+
+        reaper.reapStaleExecutions();
+
+        verify(tourExecutionRepository, never()).updateStatusByIds(anyList(), any(), any(), any(), any());
+        assertTrue(activeExecutions.findById(1L).isPresent());
+        assertEquals(TourExecutionStatus.STARTED, execution.getStatus());
+        // Vreme aktivnosti iz registra se upisuje, pa sledeći prolaz ne čita ovo izvršenje
+        verify(tourExecutionRepository).advanceLastActivityTime(1L, TourExecutionStatus.STARTED,
+                execution.getLastActivityTime());
+    }
+
+    @Test
+    void executionBeingFinishedByAnotherRequestIsSkipped() {
+        TourExecution execution = active(1L, "ana", LocalDateTime.now().minusHours(5));
+        execution.setStatus(TourExecutionStatus.COMPLETED);
+        when(tourExecutionRepository.findIdsByStatusAndLastActivityBefore(eq(TourExecutionStatus.STARTED), any(), any()))
+                .thenReturn(rows(execution));
+
+        reaper.reapStaleExecutions();
+
+        verify(tourExecutionRepository, never()).updateStatusByIds(anyList(), any(), any(), any(), any());
+        verify(tourExecutionRepository, never()).advanceLastActivityTime(any(), any(), any());
+        assertEquals(TourExecutionStatus.COMPLETED, execution.getStatus());
+    }
+
+    @Test
+    void updateRechecksTheCutoffInTheDatabase() {
+        // Izvršenje koje nije u registru (npr. vodi ga druga instanca) proverava sam UPDATE
+        LocalDateTime old = LocalDateTime.now().minusHours(5);
+        when(tourExecutionRepository.findIdsByStatusAndLastActivityBefore(eq(TourExecutionStatus.STARTED), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{9L, old}));
+        when(tourExecutionRepository.updateStatusByIds(eq(List.of(9L)), eq(TourExecutionStatus.STARTED),
+                eq(TourExecutionStatus.ABANDONED), any(), any())).thenReturn(0);
+
+        reaper.reapStaleExecutions();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(tourExecutionRepository).updateStatusByIds(anyList(), any(), any(), cutoff.capture(), any());
+        assertTrue(cutoff.getValue().isAfter(old));
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusMinutes(119)));
+    }
+
+    @Test
+    void failedUpdateLeavesRegistryUntouched() {
+        TourExecution stale = active(1L, "ana", LocalDateTime.now().minusHours(5));
+        when(tourExecutionRepository.findIdsByStatusAndLastActivityBefore(eq(TourExecutionStatus.STARTED), any(), any()))
+                .thenReturn(rows(stale));
+        when(tourExecutionRepository.updateStatusByIds(anyList(), any(), any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("baza nije dostupna"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> reaper.reapStaleExecutions());
+
+        // Oznaka se poništava, pa turista može da nastavi turu
+        assertSame(stale, activeExecutions.findById(1L).orElseThrow());
+        assertEquals(TourExecutionStatus.STARTED, stale.getStatus());
+        assertNull(stale.getEndTime());
+        verify(geofenceEngine, never()).forget(any());
+    }
+
+    @Test
+    void pagesContinueAfterTheLastActivityTimeAndId() {
+        LocalDateTime old = LocalDateTime.now().minusHours(5);
+        TourExecution first = active(1L, "ana", old);
+        TourExecution second = active(2L, "marko", old.plusMinutes(1));
+        TourExecution third = active(3L, "jovan", old.plusMinutes(2));
+        when(tourExecutionRepository.findIdsByStatusAndLastActivityBefore(eq(TourExecutionStatus.STARTED), any(), any()))
+                .thenReturn(rows(first, second));
+        when(tourExecutionRepository.findIdsByStatusAndLastActivityBeforeAfter(eq(TourExecutionStatus.STARTED), any(),
+                eq(second.getLastActivityTime()), eq(2L), any(Pageable.class))).thenReturn(rows(third));
+        when(tourExecutionRepository.updateStatusByIds(anyList(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        reaper.reapStaleExecutions();
+
+        verify(tourExecutionRepository).updateStatusByIds(eq(List.of(1L, 2L)), any(), any(), any(), any());
+        verify(tourExecutionRepository).updateStatusByIds(eq(List.of(3L)), any(), any(), any(), any());
+        assertTrue(activeExecutions.getActiveExecutions().isEmpty());
+    }
+
+    private TourExecution active(Long id, String touristUsername, LocalDateTime lastActivity) {
+        TourExecution execution = new TourExecution(1L, touristUsername, 45.0, 19.0);
+        execution.setId(id);
+        execution.setLastActivityTime(lastActivity);
+        activeExecutions.register(execution);
+        return execution;
+    }
+
+    private static List<Object[]> rows(TourExecution... executions) {
+        List<Object[]> rows = new ArrayList<>();
+        for (TourExecution execution : executions) {
+            rows.add(new Object[]{execution.getId(), execution.getLastActivityTime()});
+        }
+        return rows;
+    }
+
+    // Transakcije bez baze; sinhronizacije (afterCommit, afterCompletion) se izvršavaju kao u pravoj transakciji
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
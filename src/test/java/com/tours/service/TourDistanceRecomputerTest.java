@@ -0,0 +1,337 @@
+package com.tours.service;
+
+import com.tours.geo.GeoMath;
+import com.tours.model.KeyPoint;
+import com.tours.model.TourSegment;
+import com.tours.repository.TourSegmentRepository;
+import com.tours.routing.RouteResult;
+import com.tours.routing.RoutingProvider;
+import com.tours.routing.RoutingService;
+import com.tours.routing.StraightLineRoutingProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TourDistanceRecomputerTest {
+
+    @Mock
+    private KeyPointSpatialIndex keyPointSpatialIndex;
+    @Mock
+    private TourService tourService;
+    @Mock
+    private RoutingService routingService;
+    @Mock
+    private TourSegmentRepository tourSegmentRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+        lenient().when(routingService.getPrimaryProviderName()).thenReturn("osrm");
+        lenient().when(keyPointSpatialIndex.getKeyPoints(any())).thenReturn(List.of());
+        lenient().when(tourSegmentRepository.findByTourId(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void burstOfChangesIsRecomputedOnce() {
+        TourDistanceRecomputer recomputer = recomputer(0);
+
+        recomputer.requestRecompute(1L);
+        recomputer.requestRecompute(1L);
+        recomputer.requestRecompute(2L);
+        recomputer.recomputeDueTours();
+        recomputer.recomputeDueTours();
+
+        verify(keyPointSpatialIndex, times(1)).getKeyPoints(1L);
+        verify(keyPointSpatialIndex, times(1)).getKeyPoints(2L);
+        verify(tourService).updateTourDistance(1L, 0.0);
+    }
+
+    @Test
+    void tourIsNotRecomputedBeforeQuietPeriodEnds() {
+        TourDistanceRecomputer recomputer = recomputer(60_000);
+
+        recomputer.requestRecompute(1L);
+        recomputer.recomputeDueTours();
+
+        verify(keyPointSpatialIndex, never()).getKeyPoints(any());
+        verify(tourService, never()).updateTourDistance(any(), anyDouble());
+    }
+
+    @Test
+    void requestInsideTransactionIsScheduledOnlyAfterCommit() {
+        TourDistanceRecomputer recomputer = recomputer(0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            recomputer.requestRecompute(1L);
+            recomputer.recomputeDueTours();
+            verify(keyPointSpatialIndex, never()).getKeyPoints(any());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        recomputer.recomputeDueTours();
+        verify(keyPointSpatialIndex).getKeyPoints(1L);
+    }
+
+    @Test
+    void appendedKeyPointRoutesOnlyTheNewSegment() {
+        KeyPoint a = keyPoint(1L, 45.25, 19.85);
+        KeyPoint b = keyPoint(2L, 45.26, 19.85);
+        KeyPoint c = keyPoint(3L, 45.27, 19.85);
+        KeyPoint d = keyPoint(4L, 45.28, 19.85);
+        List<TourSegment> existing = List.of(routed(10L, a, b, 2.0), routed(11L, b, c, 3.0));
+        List<TourSegment> saved = stubSaves();
+        when(keyPointSpatialIndex.getKeyPoints(1L)).thenReturn(List.of(a, b, c, d));
+        when(tourSegmentRepository.findByTourId(1L)).thenAnswer(invocation -> {
+            List<TourSegment> current = new ArrayList<>(existing);
+            current.addAll(saved);
+            return current;
+        });
+        when(tourSegmentRepository.findById(100L)).thenAnswer(invocation -> Optional.of(saved.get(0)));
+        when(routingService.route(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new RouteResult(4.0, "osrm", false)));
+
+        recomputeNow(1L);
+
+        assertEquals(1, saved.size());
+        assertEquals(3L, saved.get(0).getFromKeyPointId());
+        verify(routingService, times(1)).route(any(), any());
+        verify(tourSegmentRepository, never()).delete(any());
+        verify(tourService).updateTourDistance(1L, 5.0 + airKm(c, d));
+        verify(tourService).updateTourDistance(1L, 9.0);
+    }
+
+    @Test
+    void movedMiddleKeyPointReplacesBothAdjacentSegments() {
+        KeyPoint a = keyPoint(1L, 45.25, 19.85);
+        KeyPoint b = keyPoint(2L, 45.26, 19.85);
+        KeyPoint c = keyPoint(3L, 45.27, 19.85);
+        KeyPoint movedB = keyPoint(2L, 45.26, 19.86);
+        TourSegment first = routed(10L, a, b, 2.0);
+        TourSegment second = routed(11L, b, c, 3.0);
+        List<TourSegment> saved = stubSaves();
+        when(keyPointSpatialIndex.getKeyPoints(1L)).thenReturn(List.of(a, movedB, c));
+        when(tourSegmentRepository.findByTourId(1L)).thenReturn(List.of(first, second));
+        when(routingService.route(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new RouteResult(1.0, "straight-line", true)));
+
+        recomputeNow(1L);
+
+        verify(tourSegmentRepository).delete(first);
+        verify(tourSegmentRepository).delete(second);
+        assertEquals(2, saved.size());
+        verify(routingService, times(2)).route(any(), any());
+        // Rezultat rezervnog provajdera se ne upisuje, dužina ostaje po vazdušnoj liniji
+        verify(tourSegmentRepository, never()).findById(any());
+        verify(tourService, times(1)).updateTourDistance(1L, airKm(a, movedB) + airKm(movedB, c));
+    }
+
+    @Test
+    void removedKeyPointDropsItsSegments() {
+        KeyPoint a = keyPoint(1L, 45.25, 19.85);
+        KeyPoint b = keyPoint(2L, 45.26, 19.85);
+        KeyPoint c = keyPoint(3L, 45.27, 19.85);
+        TourSegment first = routed(10L, a, b, 2.0);
+        TourSegment second = routed(11L, b, c, 3.0);
+        List<TourSegment> saved = stubSaves();
+        when(keyPointSpatialIndex.getKeyPoints(1L)).thenReturn(List.of(a, c));
+        when(tourSegmentRepository.findByTourId(1L)).thenReturn(List.of(first, second));
+        when(routingService.route(any(), any())).thenReturn(new CompletableFuture<>());
+
+        recomputeNow(1L);
+
+        verify(tourSegmentRepository).delete(first);
+        verify(tourSegmentRepository).deleteAll(argThat((Iterable<TourSegment> leftover) ->
+                List.of(second).equals(toList(leftover))));
+        assertEquals(1, saved.size());
+        assertEquals(3L, saved.get(0).getToKeyPointId());
+        verify(tourService).updateTourDistance(eq(1L), eq(airKm(a, c)));
+    }
+
+    @Test
+    void fallbackResultReschedulesTheTourWithBackoff() {
+        KeyPoint a = keyPoint(1L, 45.25, 19.85);
+        KeyPoint b = keyPoint(2L, 45.26, 19.85);
+        stubSaves();
+        when(keyPointSpatialIndex.getKeyPoints(1L)).thenReturn(List.of(a, b));
+        when(routingService.route(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new RouteResult(1.0, "straight-line", true)));
+        TourDistanceRecomputer recomputer = recomputer(0, 4, 60_000);
+
+        recomputer.requestRecompute(1L);
+        recomputer.recomputeDueTours();
+        recomputer.recomputeDueTours();
+
+        // Ponovni pokušaj je zakazan, ali tek po isteku razmaka
+        verify(keyPointSpatialIndex, times(1)).getKeyPoints(1L);
+    }
+
+    @Test
+    void segmentsAreRoutedInBatchesAndRetriedWhenTheBulkheadIsSaturated() {
+        PendingRoutingProvider osrm = new PendingRoutingProvider();
+        RoutingService realRoutingService = new RoutingService(List.of(osrm, new StraightLineRoutingProvider()),
+                new SimpleMeterRegistry(), "osrm", StraightLineRoutingProvider.NAME, 60_000, 8, 5, 30_000);
+        List<KeyPoint> keyPoints = new ArrayList<>();
+        for (long id = 1; id <= 12; id++) {
+            keyPoints.add(keyPoint(id, 45.25 + id * 0.01, 19.85));
+        }
+        List<TourSegment> saved = stubSaves();
+        when(keyPointSpatialIndex.getKeyPoints(1L)).thenReturn(keyPoints);
+        when(tourSegmentRepository.findByTourId(1L)).thenAnswer(invocation -> new ArrayList<>(saved));
+        when(tourSegmentRepository.findById(any())).thenAnswer(invocation ->
+                Optional.of(saved.get((int) ((Long) invocation.getArgument(0) - 100L))));
+        TourDistanceRecomputer recomputer = new TourDistanceRecomputer(keyPointSpatialIndex, tourService,
+                realRoutingService, tourSegmentRepository, transactionTemplate, 0, 4, 0, 0);
+
+        // Drugi pozivi zauzimaju svih 8 dozvola bulkhead-a
+        for (int i = 0; i < 8; i++) {
+            realRoutingService.route(new double[]{45.0, 45.1}, new double[]{19.0, 19.0});
+        }
+        List<CompletableFuture<Double>> blocking = osrm.takePending();
+        assertEquals(8, blocking.size());
+
+        recomputer.requestRecompute(1L);
+        recomputer.recomputeDueTours();
+
+        // Prvi deo je dobio rezervni rezultat, ostali delovi nisu poslati
+        assertEquals(11, saved.size());
+        assertTrue(osrm.takePending().isEmpty());
+        verify(tourSegmentRepository, never()).findById(any());
+
+        blocking.forEach(call -> call.complete(1.0));
+        recomputer.recomputeDueTours();
+
+        int routed = 0;
+        List<CompletableFuture<Double>> batch;
+        while (!(batch = osrm.takePending()).isEmpty()) {
+            assertTrue(batch.size() <= 4);
+            routed += batch.size();
+            batch.forEach(call -> call.complete(2.0));
+        }
+        assertEquals(11, routed);
+        assertTrue(saved.stream().allMatch(segment -> "osrm".equals(segment.getRoutedBy())));
+        verify(tourService).updateTourDistance(1L, 22.0);
+    }
+
+    private TourDistanceRecomputer recomputer(long quietPeriodMillis) {
+        return recomputer(quietPeriodMillis, 4, 60_000);
+    }
+
+    private TourDistanceRecomputer recomputer(long quietPeriodMillis, int routeBatchSize, long retryBackoffMillis) {
+        return new TourDistanceRecomputer(keyPointSpatialIndex, tourService, routingService, tourSegmentRepository,
+                transactionTemplate, quietPeriodMillis, routeBatchSize, retryBackoffMillis, retryBackoffMillis);
+    }
+
+    private void recomputeNow(Long tourId) {
+        TourDistanceRecomputer recomputer = recomputer(0);
+        recomputer.requestRecompute(tourId);
+        recomputer.recomputeDueTours();
+    }
+
+    // Sačuvane deonice dobijaju id od 100 naviše
+    private List<TourSegment> stubSaves() {
+        List<TourSegment> saved = new ArrayList<>();
+        when(tourSegmentRepository.save(any(TourSegment.class))).thenAnswer(invocation -> {
+            TourSegment segment = invocation.getArgument(0);
+            segment.setId(100L + saved.size());
+            saved.add(segment);
+            return segment;
+        });
+        return saved;
+    }
+
+    private static TourSegment routed(Long id, KeyPoint from, KeyPoint to, double roadDistanceKm) {
+        TourSegment segment = new TourSegment(1L, from, to, airKm(from, to));
+        segment.setId(id);
+        segment.setRoadDistanceKm(roadDistanceKm);
+        segment.setRoutedBy("osrm");
+        return segment;
+    }
+
+    private static double airKm(KeyPoint from, KeyPoint to) {
+        return GeoMath.distanceMeters(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude()) / 1000.0;
+    }
+
+    private static List<TourSegment> toList(Iterable<TourSegment> segments) {
+        List<TourSegment> list = new ArrayList<>();
+        segments.forEach(list::add);
+        return list;
+    }
+
+    private static KeyPoint keyPoint(Long id, double latitude, double longitude) {
+        KeyPoint keyPoint = new KeyPoint("KP " + id, "opis", latitude, longitude, null, 1L);
+        keyPoint.setId(id);
+        return keyPoint;
+    }
+
+    // Primarni provajder čiji se pozivi završavaju tek na zahtev testa
+    private static final class PendingRoutingProvider implements RoutingProvider {
+        private final List<CompletableFuture<Double>> pending = new ArrayList<>();
+
+        @Override
+        public String getName() {
+            return "osrm";
+        }
+
+        @Override
+        public synchronized CompletableFuture<Double> routeDistanceKm(double[] latitudes, double[] longitudes) {
+            CompletableFuture<Double> call = new CompletableFuture<>();
+            pending.add(call);
+            return call;
+        }
+
+        synchronized List<CompletableFuture<Double>> takePending() {
+            List<CompletableFuture<Double>> taken = new ArrayList<>(pending);
+            pending.clear();
+            return taken;
+        }
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.tours.service;
+
+import com.tours.dto.LocationBatchResult;
+import com.tours.dto.LocationFix;
+import com.tours.dto.TourExecutionEvent;
+import com.tours.enums.GeofenceEventType;
+import com.tours.enums.TourExecutionEventType;
+import com.tours.enums.TourExecutionStatus;
+import com.tours.geofence.GeofenceEngine;
+import com.tours.geofence.GeofenceEvent;
+import com.tours.model.TourExecution;
+import com.tours.repository.TourExecutionRepository;
+import com.tours.repository.TourRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TourExecutionServiceTest {
+
+    private static final Long EXECUTION_ID = 10L;
+    private static final Long TOUR_ID = 1L;
+    private static final String TOURIST = "turista";
+
+    @Mock
+    private TourExecutionRepository tourExecutionRepository;
+    @Mock
+    private TourRepository tourRepository;
+    @Mock
+    private KeyPointSpatialIndex keyPointSpatialIndex;
+    @Mock
+    private GeofenceEngine geofenceEngine;
+    @Mock
+    private TouristLocationService touristLocationService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ActiveTourExecutionRegistry activeExecutions;
+    private TourExecutionService tourExecutionService;
+    private TourExecution execution;
+
+    @BeforeEach
+    void setUp() {
+        activeExecutions = new ActiveTourExecutionRegistry(tourExecutionRepository);
+        PositionDeadBandFilter deadBandFilter = new PositionDeadBandFilter(new SimpleMeterRegistry(), 5, 30000);
+        tourExecutionService = new TourExecutionService(tourExecutionRepository, tourRepository, keyPointSpatialIndex,
+                activeExecutions, deadBandFilter, geofenceEngine, touristLocationService, eventPublisher);
+
+        execution = new TourExecution(TOUR_ID, TOURIST, 45.0, 19.0);
+        execution.setId(EXECUTION_ID);
+        activeExecutions.register(execution);
+    }
+
+    @Test
+    void rejectsEmptyBatchAndFixesWithoutCoordinates() {
+        assertThrows(IllegalArgumentException.class,
+                () -> tourExecutionService.updateTouristPositionBatch(EXECUTION_ID, TOURIST, List.of()));
+        List<LocationFix> fixes = List.of(new LocationFix(45.0, null, LocalDateTime.now()));
+        assertThrows(IllegalArgumentException.class,
+                () -> tourExecutionService.updateTouristPositionBatch(EXECUTION_ID, TOURIST, fixes));
+    }
+
+    @Test
+    void rejectsBatchOfAnotherTourist() {
+        List<LocationFix> fixes = List.of(new LocationFix(45.0, 19.0, LocalDateTime.now()));
+        assertThrows(SecurityException.class,
+                () -> tourExecutionService.updateTouristPositionBatch(EXECUTION_ID, "drugi", fixes));
+    }
+
+    @Test
+    void processesBatchWithOneLocationUpdateAndNoSaveWithoutProgress() {
+        LocalDateTime start = LocalDateTime.now();
+        List<LocationFix> fixes = List.of(
+                new LocationFix(45.0, 19.0, start),
+                new LocationFix(45.0, 19.00001, start.plusSeconds(1)), // ~1 m, unutar mrtve zone
+                new LocationFix(45.001, 19.001, start.plusSeconds(2)));
+
+        LocationBatchResult result = tourExecutionService.updateTouristPositionBatch(EXECUTION_ID, TOURIST, fixes);
+
+        assertEquals(2, result.getProcessedFixes());
+        assertEquals(1, result.getSuppressedFixes());
+        assertTrue(result.getCompletedKeyPoints().isEmpty());
+        assertEquals(45.001, execution.getCurrentLatitude());
+        assertEquals(19.001, execution.getCurrentLongitude());
+        verify(touristLocationService, times(1)).saveOrUpdateLocation(TOURIST, 45.001, 19.001);
+        verify(tourExecutionRepository, never()).save(any());
+    }
+
+    @Test
+    void completingTheLastKeyPointFinishesAndIgnoresTheRestOfTheBatch() {
+        when(geofenceEngine.evaluate(eq(execution), anyDouble(), anyDouble(), any())).thenAnswer(invocation -> {
+            // Kao KeyPointCompletionListener: jedina ključna tačka je dostignuta i tura je završena
+            execution.markKeyPointCompleted(0);
+            execution.setStatus(TourExecutionStatus.COMPLETED);
+            return List.of(new GeofenceEvent(GeofenceEventType.ENTER, EXECUTION_ID, TOUR_ID, 100L, 0, 1,
+                    LocalDateTime.now()));
+        });
+        List<LocationFix> fixes = new ArrayList<>();
+        fixes.add(new LocationFix(45.01, 19.01, LocalDateTime.now()));
+        fixes.add(new LocationFix(45.02, 19.02, LocalDateTime.now().plusSeconds(1)));
+
+        LocationBatchResult result = tourExecutionService.updateTouristPositionBatch(EXECUTION_ID, TOURIST, fixes);
+
+        assertEquals(1, result.getProcessedFixes());
+        assertEquals(List.of(100L), result.getCompletedKeyPoints());
+        assertEquals(TourExecutionStatus.COMPLETED, result.getExecution().getStatus());
+        verify(tourExecutionRepository).save(execution);
+        assertTrue(activeExecutions.findById(EXECUTION_ID).isEmpty());
+    }
+
+    @Test
+    void completionThroughRestPublishesTerminalEvent() {
+        tourExecutionService.completeTour(EXECUTION_ID, TOURIST);
+
+        ArgumentCaptor<TourExecutionEvent> event = ArgumentCaptor.forClass(TourExecutionEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(TourExecutionEventType.TOUR_COMPLETED, event.getValue().getType());
+        assertEquals(EXECUTION_ID, event.getValue().getExecutionId());
+    }
+
+    @Test
+    void abandonThroughRestPublishesTerminalEvent() {
+        tourExecutionService.abandonTour(EXECUTION_ID, TOURIST);
+
+        ArgumentCaptor<TourExecutionEvent> event = ArgumentCaptor.forClass(TourExecutionEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(TourExecutionEventType.TOUR_ABANDONED, event.getValue().getType());
+    }
+
+    @Test
+    void batchCompletionPublishesKeyPointAndCompletionEvents() {
+        when(geofenceEngine.evaluate(eq(execution), anyDouble(), anyDouble(), any())).thenAnswer(invocation -> {
+            execution.markKeyPointCompleted(0);
+            execution.setStatus(TourExecutionStatus.COMPLETED);
+            return List.of(new GeofenceEvent(GeofenceEventType.ENTER, EXECUTION_ID, TOUR_ID, 100L, 0, 1,
+                    LocalDateTime.now()));
+        });
+
+        tourExecutionService.updateTouristPositionBatch(EXECUTION_ID, TOURIST,
+                List.of(new LocationFix(45.01, 19.01, LocalDateTime.now())));
+
+        ArgumentCaptor<TourExecutionEvent> events = ArgumentCaptor.forClass(TourExecutionEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(TourExecutionEventType.KEY_POINT_REACHED, events.getAllValues().get(0).getType());
+        assertEquals(100L, events.getAllValues().get(0).getKeyPointId());
+        assertEquals(TourExecutionEventType.TOUR_COMPLETED, events.getAllValues().get(1).getType());
+    }
+}
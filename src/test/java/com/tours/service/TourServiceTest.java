@@ -1,25 +1,146 @@
 package com.tours.service;
 
+import com.tours.dto.NearbyTour;
+import com.tours.dto.TourCatalogItem;
+import com.tours.dto.TourCatalogPage;
 import com.tours.enums.Difficulty;
+import com.tours.enums.Prevoz;
 import com.tours.enums.TourStatus;
+import com.tours.geo.GeoGrid;
+import com.tours.grpc.StakeholdersGrpcClient;
 import com.tours.model.Tour;
+import com.tours.repository.KeyPointRepository;
 import com.tours.repository.TourRepository;
+import com.tours.repository.TourSegmentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
-import java.util.Arrays;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TourServiceTest {
 
+    @Mock
+    private TourRepository tourRepository;
+    @Mock
+    private KeyPointRepository keyPointRepository;
+    @Mock
+    private TourSegmentRepository tourSegmentRepository;
+    @Mock
+    private StakeholdersGrpcClient stakeholdersGrpcClient;
+    @Mock
+    private PublishedTourSpatialIndex publishedTourSpatialIndex;
+    @Mock
+    private TourTagService tourTagService;
+    @Mock
+    private PublishedTourSearchIndex publishedTourSearchIndex;
+    @Mock
+    private PublishedTourCache publishedTourCache;
+    @Mock
+    private AuthorStatsService authorStatsService;
+    @Mock
+    private KeyPointSpatialIndex keyPointSpatialIndex;
 
+    private TourService tourService;
+
+    @BeforeEach
+    void setUp() {
+        tourService = new TourService(tourRepository, keyPointRepository, tourSegmentRepository,
+                stakeholdersGrpcClient, publishedTourSpatialIndex, tourTagService, publishedTourSearchIndex,
+                publishedTourCache, authorStatsService, keyPointSpatialIndex, 100_000);
+    }
+
+    @Test
+    void nearbyToursRejectUnboundedRadiusAndLimit() {
+        assertThrows(IllegalArgumentException.class, () -> tourService.getPublishedToursNear(45.0, 19.0, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> tourService.getPublishedToursNear(45.0, 19.0, 100_001, 10));
+        assertThrows(IllegalArgumentException.class, () -> tourService.getPublishedToursNear(45.0, 19.0, 1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> tourService.getPublishedToursNear(45.0, 19.0, 1000, 101));
+
+        verify(publishedTourSpatialIndex, never()).findWithinRadius(anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void nearbyToursKeepIndexOrderAndSkipToursNoLongerPublished() {
+        Tour near = tour(1L, TourStatus.PUBLISHED);
+        Tour archived = tour(2L, TourStatus.ARCHIVED);
+        Tour far = tour(3L, TourStatus.PUBLISHED);
+        when(publishedTourSpatialIndex.findWithinRadius(45.0, 19.0, 5000, 10)).thenReturn(List.of(
+                new GeoGrid.Neighbor<>(1L, 45.0, 19.0, 10),
+                new GeoGrid.Neighbor<>(2L, 45.01, 19.0, 1100),
+                new GeoGrid.Neighbor<>(3L, 45.02, 19.0, 2200)));
+        when(tourRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(far, archived, near));
+
+        List<NearbyTour> result = tourService.getPublishedToursNear(45.0, 19.0, 5000, 10);
+
+        assertEquals(2, result.size());
+        assertSame(near, result.get(0).getTour());
+        assertEquals(10.0, result.get(0).getDistanceMeters());
+        assertSame(far, result.get(1).getTour());
+    }
+
+    @Test
+    void catalogPageReturnsCursorOnlyWhenMoreToursFollow() {
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 12, 0);
+        List<TourCatalogItem> rows = new ArrayList<>();
+        for (long id = 5; id >= 1; id--) {
+            rows.add(new TourCatalogItem(id, "Tura " + id, "grad", Difficulty.EASY, null, "autor", 3.0, base.plusHours(id)));
+        }
+        when(tourRepository.findCatalogFirstPage(TourStatus.PUBLISHED, PageRequest.of(0, 5))).thenReturn(rows.subList(0, 5));
+        when(tourRepository.findCatalogPageAfter(TourStatus.PUBLISHED, base.plusHours(2), 2L, PageRequest.of(0, 5)))
+                .thenReturn(rows.subList(4, 5));
+        when(tourRepository.findPrevoziByTourIds(any())).thenReturn(List.<Object[]>of(new Object[]{5L, "PESKE", 45}));
+
+        TourCatalogPage first = tourService.getPublishedCatalogPage(null, null, 4);
+        TourCatalogPage last = tourService.getPublishedCatalogPage(base.plusHours(2), 2L, 4);
+
+        assertEquals(4, first.getItems().size());
+        assertTrue(first.isHasMore());
+        assertEquals(2L, first.getNextAfterId());
+        assertEquals(base.plusHours(2), first.getNextAfterVremeObjave());
+        assertEquals(45, first.getItems().get(0).getPrevozi().get(Prevoz.PESKE));
+        assertEquals(List.of(1L), last.getItems().stream().map(TourCatalogItem::getId).toList());
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextAfterId());
+    }
+
+    @Test
+    void catalogPageRejectsInvalidSizeAndHalfCursor() {
+        assertThrows(IllegalArgumentException.class, () -> tourService.getPublishedCatalogPage(null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> tourService.getPublishedCatalogPage(null, null, 101));
+        assertThrows(IllegalArgumentException.class, () -> tourService.getPublishedCatalogPage(LocalDateTime.now(), null, 10));
+        assertThrows(IllegalArgumentException.class, () -> tourService.getPublishedCatalogPage(null, 1L, 10));
+
+        verifyNoInteractions(tourRepository);
+    }
+
+    @Test
+    void deletedTourIsDroppedFromKeyPointIndex() {
+        Tour tour = tour(1L, TourStatus.DRAFT);
+        when(tourRepository.findById(1L)).thenReturn(Optional.of(tour));
+
+        assertTrue(tourService.deleteTour(1L, "autor"));
+
+        verify(tourRepository).delete(tour);
+        verify(keyPointSpatialIndex).invalidate(1L);
+    }
+
+    private static Tour tour(Long id, TourStatus status) {
+        Tour tour = new Tour("Tura " + id, "Opis", "grad", Difficulty.EASY, "autor");
+        tour.setId(id);
+        tour.setStatus(status);
+        return tour;
+    }
 }
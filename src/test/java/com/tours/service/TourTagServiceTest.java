@@ -0,0 +1,104 @@
+package com.tours.service;
+
+import com.tours.enums.Difficulty;
+import com.tours.model.Tag;
+import com.tours.model.Tour;
+import com.tours.model.TourTag;
+import com.tours.repository.TagRepository;
+import com.tours.repository.TourTagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TourTagServiceTest {
+
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private TourTagRepository tourTagRepository;
+    @Captor
+    private ArgumentCaptor<List<TourTag>> added;
+
+    private TourTagService tourTagService;
+    private Tour tour;
+
+    @BeforeEach
+    void setUp() {
+        tourTagService = new TourTagService(tagRepository, tourTagRepository);
+        tour = new Tour("Tura", "Opis", null, Difficulty.EASY, "autor");
+        tour.setId(1L);
+    }
+
+    @Test
+    void normalizeTrimsLowercasesAndDeduplicates() {
+        assertEquals(List.of("stari grad", "hrana", "reka"),
+                List.copyOf(TourTagService.normalize("  Stari   Grad, hrana,,HRANA , reka ,")));
+        assertTrue(TourTagService.normalize(null).isEmpty());
+        assertTrue(TourTagService.normalize("x".repeat(101)).isEmpty());
+    }
+
+    @Test
+    void syncAddsMissingLinksAndRemovesStaleOnes() {
+        tour.setTagovi("hrana, reka");
+        when(tagRepository.findByNazivIn(Set.of("hrana", "reka"))).thenReturn(List.of(tag(10L, "hrana")));
+        when(tagRepository.insertIfAbsent("reka")).thenReturn(1);
+        when(tagRepository.findByNaziv("reka")).thenReturn(Optional.of(tag(11L, "reka")));
+        when(tourTagRepository.findByTourId(1L)).thenReturn(List.of(new TourTag(1L, 10L), new TourTag(1L, 20L)));
+
+        tourTagService.syncTags(tour);
+
+        verify(tourTagRepository).deleteByTourIdAndTagIdIn(1L, List.of(20L));
+        verify(tourTagRepository).saveAll(added.capture());
+        assertEquals(1, added.getValue().size());
+        assertEquals(11L, added.getValue().get(0).getTagId());
+    }
+
+    @Test
+    void unchangedTagsDoNotTouchLinks() {
+        tour.setTagovi("Hrana");
+        when(tagRepository.findByNazivIn(Set.of("hrana"))).thenReturn(List.of(tag(10L, "hrana")));
+        when(tourTagRepository.findByTourId(1L)).thenReturn(List.of(new TourTag(1L, 10L)));
+
+        tourTagService.syncTags(tour);
+
+        verify(tourTagRepository, never()).deleteByTourIdAndTagIdIn(any(), anyCollection());
+        verify(tourTagRepository).saveAll(new ArrayList<>());
+        verify(tagRepository, never()).insertIfAbsent(any());
+    }
+
+    @Test
+    void tagCreatedConcurrentlyIsReadBack() {
+        tour.setTagovi("reka");
+        when(tagRepository.findByNazivIn(Set.of("reka"))).thenReturn(List.of());
+        // Drugi zahtev je upisao isti tag, pa INSERT ništa ne menja
+        when(tagRepository.insertIfAbsent("reka")).thenReturn(0);
+        when(tagRepository.findByNaziv("reka")).thenReturn(Optional.of(tag(30L, "reka")));
+        when(tourTagRepository.findByTourId(1L)).thenReturn(List.of());
+
+        tourTagService.syncTags(tour);
+
+        verify(tourTagRepository).saveAll(added.capture());
+        assertEquals(30L, added.getValue().get(0).getTagId());
+    }
+
+    private static Tag tag(Long id, String naziv) {
+        Tag tag = new Tag(naziv);
+        tag.setId(id);
+        return tag;
+    }
+}
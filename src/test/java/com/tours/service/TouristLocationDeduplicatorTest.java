@@ -0,0 +1,43 @@
+package com.tours.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TouristLocationDeduplicatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private TouristLocationDeduplicator deduplicator;
+
+    @Test
+    void duplicatesAreRemovedBeforeIndexIsCreated() {
+        when(jdbcTemplate.queryForObject(contains("pg_indexes"), eq(Integer.class))).thenReturn(0);
+        when(jdbcTemplate.update(contains("DELETE FROM tourist_location"))).thenReturn(2);
+
+        deduplicator.deduplicate();
+
+        verify(jdbcTemplate).execute(contains("CREATE UNIQUE INDEX"));
+    }
+
+    @Test
+    void existingIndexSkipsDeleteAndDdl() {
+        when(jdbcTemplate.queryForObject(contains("pg_indexes"), eq(Integer.class))).thenReturn(1);
+
+        deduplicator.deduplicate();
+
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,125 @@
+package com.tours.service;
+
+import com.tours.repository.TouristLocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TouristLocationServiceTest {
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    @Mock
+    private TouristLocationRepository touristLocationRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private TouristLocationService touristLocationService;
+
+    @BeforeEach
+    void setUp() {
+        touristLocationService = new TouristLocationService(touristLocationRepository, jdbcTemplate,
+                true, MAX_FLUSH_ATTEMPTS, 50000, 50000, 500);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesOnlyTheLatestPositionPerTourist() {
+        touristLocationService.saveOrUpdateLocation("ana", 45.0, 19.0);
+        touristLocationService.saveOrUpdateLocation("ana", 45.1, 19.1);
+        touristLocationService.saveOrUpdateLocation("marko", 44.8, 20.4);
+        touristLocationService.saveOrUpdateLocation("ana", 45.2, 19.2);
+
+        touristLocationService.flushPendingLocations();
+        touristLocationService.flushPendingLocations();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        for (Object[] row : rows.getValue()) {
+            if ("ana".equals(row[0])) {
+                assertArrayEquals(new Object[]{"ana", 45.2, 19.2}, row);
+            } else {
+                assertArrayEquals(new Object[]{"marko", 44.8, 20.4}, row);
+            }
+        }
+        assertEquals(45.2, touristLocationService.getCurrentLocation("ana").getLatitude());
+        verifyNoInteractions(touristLocationRepository);
+    }
+
+    @Test
+    void failedFlushIsRetriedOnlyUpToTheLimit() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("baza nije dostupna"));
+        touristLocationService.saveOrUpdateLocation("ana", 45.0, 19.0);
+
+        for (int i = 0; i < MAX_FLUSH_ATTEMPTS + 2; i++) {
+            touristLocationService.flushPendingLocations();
+        }
+
+        verify(jdbcTemplate, times(MAX_FLUSH_ATTEMPTS)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void touristSendingFixesStillReachesTheRetryBound() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("baza nije dostupna"));
+
+        // Nova pozicija pre svakog ciklusa ne poništava broj neuspelih pokušaja
+        for (int i = 0; i < MAX_FLUSH_ATTEMPTS; i++) {
+            touristLocationService.saveOrUpdateLocation("ana", 45.0 + i * 0.01, 19.0);
+            touristLocationService.flushPendingLocations();
+        }
+        // Posle granice svaka nova pozicija dobija samo jedan pokušaj
+        touristLocationService.saveOrUpdateLocation("ana", 45.5, 19.0);
+        for (int i = 0; i < MAX_FLUSH_ATTEMPTS; i++) {
+            touristLocationService.flushPendingLocations();
+        }
+
+        verify(jdbcTemplate, times(MAX_FLUSH_ATTEMPTS + 1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void successfulFlushResetsTheRetryBudget() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("baza nije dostupna"))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DataAccessResourceFailureException("baza nije dostupna"));
+        touristLocationService.saveOrUpdateLocation("ana", 45.0, 19.0);
+        touristLocationService.flushPendingLocations();
+        touristLocationService.flushPendingLocations();
+
+        touristLocationService.saveOrUpdateLocation("ana", 45.1, 19.1);
+        for (int i = 0; i < MAX_FLUSH_ATTEMPTS + 2; i++) {
+            touristLocationService.flushPendingLocations();
+        }
+
+        verify(jdbcTemplate, times(2 + MAX_FLUSH_ATTEMPTS)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void nearbyQueriesRejectUnboundedRadiusAndLimit() {
+        touristLocationService.saveOrUpdateLocation("ana", 45.0, 19.0);
+
+        assertEquals(1, touristLocationService.findTouristsWithinRadius(45.0, 19.0, 1000, 10).size());
+        assertThrows(IllegalArgumentException.class, () -> touristLocationService.findTouristsWithinRadius(45.0, 19.0, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> touristLocationService.findTouristsWithinRadius(45.0, 19.0, 50001, 10));
+        assertThrows(IllegalArgumentException.class, () -> touristLocationService.findTouristsWithinRadius(45.0, 19.0, 1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> touristLocationService.findTouristsWithinRadius(45.0, 19.0, 1000, 501));
+        assertThrows(IllegalArgumentException.class, () -> touristLocationService.findNearestTourists(45.0, 19.0, 501));
+        assertEquals(1, touristLocationService.findNearestTourists(45.0, 19.0, 500).size());
+    }
+}
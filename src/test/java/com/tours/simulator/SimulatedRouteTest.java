@@ -0,0 +1,46 @@
+package com.tours.simulator;
+
+import com.tours.geo.GeoMath;
+import com.tours.geo.KeyPointGeometry;
+import com.tours.model.KeyPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedRouteTest {
+
+    private static final double[][] POINTS = {{45.25, 19.85}, {45.26, 19.85}, {45.26, 19.87}};
+
+    @Test
+    void lengthIsSumOfSegments() {
+        SimulatedRoute route = route();
+
+        double expected = GeoMath.distanceMeters(45.25, 19.85, 45.26, 19.85)
+                + GeoMath.distanceMeters(45.26, 19.85, 45.26, 19.87);
+        assertEquals(expected, route.getLengthMeters(), 1e-6);
+    }
+
+    @Test
+    void positionInterpolatesAlongSegmentsAndClampsAtEnds() {
+        SimulatedRoute route = route();
+        double firstSegment = GeoMath.distanceMeters(45.25, 19.85, 45.26, 19.85);
+
+        assertArrayEquals(new double[]{45.25, 19.85}, route.positionAt(-10), 1e-9);
+        assertArrayEquals(new double[]{45.255, 19.85}, route.positionAt(firstSegment / 2), 1e-9);
+        assertArrayEquals(new double[]{45.26, 19.85}, route.positionAt(firstSegment), 1e-9);
+        assertArrayEquals(new double[]{45.26, 19.87}, route.positionAt(route.getLengthMeters() + 500), 1e-9);
+    }
+
+    private static SimulatedRoute route() {
+        List<KeyPoint> keyPoints = new ArrayList<>();
+        for (int i = 0; i < POINTS.length; i++) {
+            KeyPoint keyPoint = new KeyPoint("KP " + i, "opis", POINTS[i][0], POINTS[i][1], null, 1L);
+            keyPoint.setId((long) (i + 1));
+            keyPoints.add(keyPoint);
+        }
+        return new SimulatedRoute(1L, KeyPointGeometry.of(keyPoints));
+    }
+}
@@ -0,0 +1,38 @@
+package com.tours.simulator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationTraceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordedTraceLoadsGroupedByTouristInSendOrder() throws Exception {
+        Path path = directory.resolve("trace.csv");
+        try (SimulationTrace trace = SimulationTrace.record(path)) {
+            trace.append(0, "ana", 1L, 45.25, 19.85);
+            trace.append(150, "marko", 2L, 44.81, 20.46);
+            trace.append(1000, "ana", 1L, 45.2512345678, 19.8512345678);
+        }
+
+        Map<String, List<SimulationTrace.Event>> events = SimulationTrace.load(path);
+
+        assertEquals(List.of("ana", "marko"), List.copyOf(events.keySet()));
+        List<SimulationTrace.Event> ana = events.get("ana");
+        assertEquals(2, ana.size());
+        assertEquals(0, ana.get(0).getOffsetMillis());
+        assertEquals(1000, ana.get(1).getOffsetMillis());
+        assertEquals(1L, ana.get(1).getTourId());
+        assertEquals(45.2512345678, ana.get(1).getLatitude());
+        assertEquals(19.8512345678, ana.get(1).getLongitude());
+        assertEquals(2L, events.get("marko").get(0).getTourId());
+    }
+}